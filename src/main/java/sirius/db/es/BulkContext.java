@@ -10,14 +10,22 @@ package sirius.db.es;
 
 import tools.jackson.databind.node.ObjectNode;
 import sirius.db.mixing.EntityDescriptor;
+import sirius.db.util.DeferredCacheInvalidations;
 import sirius.kernel.commons.Json;
 import sirius.kernel.di.std.Part;
 import sirius.kernel.health.Exceptions;
+import sirius.kernel.health.HandledException;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 
 /**
  * Simplifies bulk inserts, updates and deletes against Elasticsearch.
@@ -30,6 +38,9 @@ import java.util.List;
  * determine the current number of commands using {@link #countQueuedCommands()} and determine when
  * {@link #autocommit()} will be invoked (when reaching {@link #MAX_BATCH_SIZE}.
  * <p>
+ * Using {@link #withAsyncRequests(int)} the bulk requests can be sent in the background, so that new commands can be
+ * queued while Elasticsearch processes the previous ones.
+ * <p>
  * Note that {@link sirius.db.mixing.annotations.AfterSave} and {@link sirius.db.mixing.types.BaseEntityRef.OnDelete}
  * handlers are <tt>not</tt> executed!
  * <p>
@@ -42,11 +53,19 @@ public class BulkContext implements Closeable {
     private static final int MAX_REQUEST_SIZE = 100_000_000;
     private static final int RECOMMENDED_BATCH_SIZE = 256;
 
+    /**
+     * Buffers which grew larger than this are released after a commit instead of being re-used.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final byte NEWLINE = '\n';
+
     private static final String KEY_INDEX = "_index";
     protected static final String KEY_ID = "_id";
     private static final String KEY_PRIMARY_TERM = "if_primary_term";
     private static final String KEY_SEQ_NO = "if_seq_no";
     private static final String KEY_ROUTING = "routing";
+    private static final String KEY_ERRORS = "errors";
 
     protected static final String COMMAND_INDEX = "index";
     protected static final String COMMAND_DELETE = "delete";
@@ -55,7 +74,25 @@ public class BulkContext implements Closeable {
 
     private final LowLevelClient.Refresh refresh;
     private LowLevelClient client;
-    private List<ObjectNode> commands;
+    private BulkBuffer buffer = new BulkBuffer();
+    private int queuedCommands;
+    private int maxBatchSize = MAX_BATCH_SIZE;
+    private long flushIntervalMillis;
+    private long firstCommandQueuedAt;
+
+    private int maxInFlightRequests;
+    private Semaphore inFlightRequests;
+    private final Queue<ObjectNode> completedResponses = new ConcurrentLinkedQueue<>();
+    private final Queue<HandledException> failedRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Contains the outcome of asynchronous requests which have been collected by automatic commits, so that they can
+     * be reported by the next explicit {@link #commit()} or {@link #awaitCompletion()}. Note that only responses
+     * which report errors are retained.
+     */
+    private final List<ObjectNode> collectedResponses = new ArrayList<>();
+    private final List<HandledException> collectedFailures = new ArrayList<>();
+    private DeferredCacheInvalidations pendingInvalidations = new DeferredCacheInvalidations();
 
     @Part
     private static Elastic elastic;
@@ -69,7 +106,75 @@ public class BulkContext implements Closeable {
     protected BulkContext(LowLevelClient client, LowLevelClient.Refresh refresh) {
         this.client = client;
         this.refresh = refresh;
-        this.commands = new ArrayList<>();
+    }
+
+    /**
+     * Executes the bulk requests asynchronously.
+     * <p>
+     * Instead of blocking until Elasticsearch has processed a bulk request, the request is sent in the background
+     * while new commands are being queued. If the given number of requests is still in flight, the next commit
+     * blocks until one of them has completed (backpressure).
+     * <p>
+     * Note that in this mode, {@link #commit()} returns the outcome of all requests which have completed since the
+     * last explicit commit (including the requests started by auto-commits). Therefore errors are reported with a
+     * delay (either by the next auto-commit or when closing the context). Use {@link #awaitCompletion()} to wait for
+     * all pending requests.
+     * <p>
+     * This has to be invoked before any command is queued.
+     *
+     * @param maxInFlightRequests the max number of concurrent bulk requests
+     * @return the bulk context itself for fluent method calls
+     */
+    public BulkContext withAsyncRequests(int maxInFlightRequests) {
+        if (queuedCommands > 0 || inFlightRequests != null) {
+            throw new IllegalStateException("Async requests have to be enabled before queuing any command.");
+        }
+        this.maxInFlightRequests = Math.max(1, maxInFlightRequests);
+        this.inFlightRequests = new Semaphore(this.maxInFlightRequests);
+        return this;
+    }
+
+    /**
+     * Specifies the number of commands after which an auto-commit is triggered.
+     *
+     * @param maxBatchSize the max number of commands per bulk request. Note that the request size is still limited
+     *                     to {@link #MAX_REQUEST_SIZE}
+     * @return the bulk context itself for fluent method calls
+     */
+    public BulkContext withMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        return this;
+    }
+
+    /**
+     * Specifies the max time a command is kept in the queue before an auto-commit is triggered.
+     * <p>
+     * Note that this is checked whenever a command is queued, as the context itself doesn't start any threads.
+     *
+     * @param flushInterval the max age of the oldest queued command
+     * @return the bulk context itself for fluent method calls
+     */
+    public BulkContext withFlushInterval(Duration flushInterval) {
+        this.flushIntervalMillis = flushInterval.toMillis();
+        return this;
+    }
+
+    /**
+     * Collects the NDJSON encoded commands and permits to access the underlying array without copying it.
+     */
+    private static class BulkBuffer extends ByteArrayOutputStream {
+
+        BulkBuffer() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
     }
 
     /**
@@ -131,41 +236,78 @@ public class BulkContext implements Closeable {
 
         ObjectNode metaCommand = Json.createObject().set(COMMAND_INDEX, meta);
         commitIfNeededAndAdd(metaCommand, data);
+        pendingInvalidations.add(entity);
         autocommit();
     }
 
     /**
-     * Commits all commands if the batch size exceeds {@link #MAX_BATCH_SIZE}.
+     * Commits all commands if the batch size exceeds {@link #MAX_BATCH_SIZE} (or the value given in
+     * {@link #withMaxBatchSize(int)}) or if the oldest command exceeds the {@link #withFlushInterval(Duration)}.
      */
     private void autocommit() {
-        if (commands.size() >= MAX_BATCH_SIZE) {
+        if (queuedCommands >= maxBatchSize || isFlushIntervalExceeded()) {
+            commitAutomatically();
+        }
+    }
+
+    /**
+     * Commits the queued commands without being asked by the caller and throws any failure which has been detected.
+     * <p>
+     * For asynchronous contexts, the outcome of the completed requests is retained, so that it is also reported by
+     * the next explicit {@link #commit()} or {@link #awaitCompletion()}.
+     */
+    private void commitAutomatically() {
+        if (inFlightRequests == null) {
             commit().throwFailures();
+            return;
         }
+
+        commitAsync();
+        int knownResponses = collectedResponses.size();
+        int knownFailures = collectedFailures.size();
+        drainCompletedRequests();
+        new BulkResult(collectedResponses.subList(knownResponses, collectedResponses.size()),
+                       collectedFailures.subList(knownFailures, collectedFailures.size())).throwFailures();
+    }
+
+    private boolean isFlushIntervalExceeded() {
+        return flushIntervalMillis > 0
+               && queuedCommands > 0
+               && System.currentTimeMillis() - firstCommandQueuedAt >= flushIntervalMillis;
     }
 
     /**
      * Commits queued commands if needed and adds the given nodes to the queue.
      * <p>
-     * If the new nodes would exceed {@link #MAX_REQUEST_SIZE}, we commit them before adding new commands to the list. This is important
-     * for bulk requests since Elasticsearch establishes a default limit of 100MB per request.
+     * Each node is serialized exactly once into the NDJSON buffer, which is then sent as is. As the buffer keeps
+     * track of its size, we can cheaply determine if the new nodes would exceed {@link #MAX_REQUEST_SIZE}. In this
+     * case, we commit the queued commands before adding the new ones. This is important for bulk requests since
+     * Elasticsearch establishes a default limit of 100MB per request.
      *
-     * @param nodes the nodes which size should be checked
+     * @param nodes the nodes to add
      */
     private void commitIfNeededAndAdd(ObjectNode... nodes) {
-        int currentSize = commands.stream().map(this::calculateNodeLength).reduce(0, Integer::sum);
-        for (ObjectNode node : nodes) {
-            currentSize += calculateNodeLength(node);
+        byte[][] serializedNodes = new byte[nodes.length][];
+        int requiredSize = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            serializedNodes[i] = Json.write(nodes[i]).getBytes(StandardCharsets.UTF_8);
+            requiredSize += serializedNodes[i].length + 1;
         }
-        if (currentSize >= MAX_REQUEST_SIZE) {
+
+        if (queuedCommands > 0 && buffer.size() + requiredSize >= MAX_REQUEST_SIZE) {
             // The given commands will exceed the maximum request size, so we commit the current queued commands
             // before adding new ones
-            commit().throwFailures();
+            commitAutomatically();
         }
-        commands.addAll(List.of(nodes));
-    }
 
-    private int calculateNodeLength(ObjectNode node) {
-        return node.toString().length();
+        if (queuedCommands == 0) {
+            firstCommandQueuedAt = System.currentTimeMillis();
+        }
+        for (byte[] serializedNode : serializedNodes) {
+            buffer.write(serializedNode, 0, serializedNode.length);
+            buffer.write(NEWLINE);
+        }
+        queuedCommands += nodes.length;
     }
 
     private ObjectNode builtMetadata(ElasticEntity entity, boolean force, EntityDescriptor ed) {
@@ -199,6 +341,7 @@ public class BulkContext implements Closeable {
 
         ObjectNode metaCommand = Json.createObject().set(COMMAND_DELETE, meta);
         commitIfNeededAndAdd(metaCommand);
+        pendingInvalidations.add(entity);
         autocommit();
     }
 
@@ -209,12 +352,16 @@ public class BulkContext implements Closeable {
      * any error, use {@link BulkResult#throwFailures()}.
      */
     public BulkResult commit() {
-        if (commands.isEmpty()) {
+        if (inFlightRequests != null) {
+            commitAsync();
+            return collectCompletedRequests();
+        }
+        if (queuedCommands == 0) {
             return new BulkResult(null);
         }
 
         try {
-            ObjectNode bulkResponse = client.bulkWithRefresh(commands, refresh);
+            ObjectNode bulkResponse = client.bulkWithRefresh(buffer.array(), buffer.size(), refresh);
             if (Elastic.LOG.isFINE()) {
                 Elastic.LOG.FINE(bulkResponse);
             }
@@ -228,7 +375,114 @@ public class BulkContext implements Closeable {
                                     "An error occurred while executing a bulk update against Elasticsearch: %s (%s)")
                             .handle();
         } finally {
-            commands.clear();
+            // Some commands might have been executed even if the request failed, therefore we always invalidate...
+            pendingInvalidations.invalidate();
+            resetBuffer();
+        }
+    }
+
+    private void commitAsync() {
+        if (queuedCommands == 0) {
+            return;
+        }
+
+        awaitPermits(1);
+        // The buffer is handed over to the request, therefore we need a new one for the next commands...
+        BulkBuffer requestBuffer = buffer;
+        buffer = new BulkBuffer();
+        queuedCommands = 0;
+        DeferredCacheInvalidations invalidations = pendingInvalidations.detach();
+
+        try {
+            client.bulkWithRefreshAsync(requestBuffer.array(), requestBuffer.size(), refresh, response -> {
+                invalidations.invalidate();
+                completedResponses.add(response);
+                inFlightRequests.release();
+            }, failure -> {
+                invalidations.invalidate();
+                failedRequests.add(failure);
+                inFlightRequests.release();
+            });
+        } catch (Exception e) {
+            inFlightRequests.release();
+            throw Exceptions.handle()
+                            .to(Elastic.LOG)
+                            .error(e)
+                            .withSystemErrorMessage(
+                                    "An error occurred while executing a bulk update against Elasticsearch: %s (%s)")
+                            .handle();
+        }
+    }
+
+    private void awaitPermits(int permits) {
+        try {
+            inFlightRequests.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Exceptions.handle()
+                            .to(Elastic.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("Interrupted while waiting for pending bulk requests.")
+                            .handle();
+        }
+    }
+
+    private void drainCompletedRequests() {
+        ObjectNode response = completedResponses.poll();
+        while (response != null) {
+            // Responses without errors don't contribute anything to a BulkResult, therefore we don't retain them
+            // for long-running contexts...
+            if (response.path(KEY_ERRORS).asBoolean()) {
+                collectedResponses.add(response);
+            }
+            response = completedResponses.poll();
+        }
+        drainTo(failedRequests, collectedFailures);
+    }
+
+    private BulkResult collectCompletedRequests() {
+        drainCompletedRequests();
+        BulkResult result = new BulkResult(new ArrayList<>(collectedResponses), new ArrayList<>(collectedFailures));
+        collectedResponses.clear();
+        collectedFailures.clear();
+
+        return result;
+    }
+
+    private static <T> void drainTo(Queue<T> queue, List<T> target) {
+        T item = queue.poll();
+        while (item != null) {
+            target.add(item);
+            item = queue.poll();
+        }
+    }
+
+    /**
+     * Commits all queued commands and waits until all pending requests have completed.
+     * <p>
+     * For synchronous contexts, this is equivalent to {@link #commit()}.
+     *
+     * @return the outcome of all requests which completed since the last explicit commit, including the ones started
+     * by auto-commits
+     */
+    public BulkResult awaitCompletion() {
+        if (inFlightRequests == null) {
+            return commit();
+        }
+
+        commitAsync();
+        awaitPermits(maxInFlightRequests);
+        inFlightRequests.release(maxInFlightRequests);
+
+        return collectCompletedRequests();
+    }
+
+    private void resetBuffer() {
+        queuedCommands = 0;
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = new BulkBuffer();
+        } else {
+            buffer.reset();
         }
     }
 
@@ -238,7 +492,7 @@ public class BulkContext implements Closeable {
      * @return the number of currently queued command
      */
     public int countQueuedCommands() {
-        return commands.size();
+        return queuedCommands;
     }
 
     /**
@@ -260,14 +514,16 @@ public class BulkContext implements Closeable {
      * @return <tt>true</tt> if executable commands are queued, <tt>false</tt> otherwise.
      */
     public boolean isEmpty() {
-        return commands.isEmpty();
+        return queuedCommands == 0;
     }
 
     /**
      * Closes the bulk context and executes all statements which are still queued.
+     * <p>
+     * For asynchronous contexts, this also waits for all pending requests.
      */
     @Override
     public void close() {
-        commit().throwFailures();
+        awaitCompletion().throwFailures();
     }
 }
@@ -12,9 +12,11 @@ import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
 import sirius.kernel.commons.Json;
 import sirius.kernel.health.Exceptions;
+import sirius.kernel.health.HandledException;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -33,7 +35,8 @@ public class BulkResult {
     private static final String RESPONSE_CAUSED_BY = "caused_by";
     private static final String RESPONSE_KEY_ERRORS = "errors";
 
-    private final ObjectNode bulkResponse;
+    private final List<ObjectNode> bulkResponses;
+    private final List<HandledException> failedRequests;
     private Set<String> failedIds;
     private String failureMessage;
 
@@ -45,7 +48,21 @@ public class BulkResult {
      *                     queued commands
      */
     public BulkResult(ObjectNode bulkResponse) {
-        this.bulkResponse = bulkResponse;
+        this(bulkResponse == null ? Collections.emptyList() : List.of(bulkResponse), Collections.emptyList());
+    }
+
+    /**
+     * Creates a new result which combines the outcome of several bulk requests.
+     * <p>
+     * This is used by asynchronous bulk contexts (see {@link BulkContext#withAsyncRequests(int)}), which collect the
+     * outcome of all requests which completed in the background.
+     *
+     * @param bulkResponses  the responses returned by Elasticsearch
+     * @param failedRequests the errors of all requests which failed entirely
+     */
+    public BulkResult(List<ObjectNode> bulkResponses, List<HandledException> failedRequests) {
+        this.bulkResponses = bulkResponses;
+        this.failedRequests = failedRequests;
     }
 
     /**
@@ -54,7 +71,20 @@ public class BulkResult {
      * @return <tt>true</tt> if all commands were successfully executed
      */
     public boolean isSuccessful() {
-        return bulkResponse == null || !bulkResponse.path(RESPONSE_KEY_ERRORS).asBoolean();
+        return failedRequests.isEmpty()
+               && bulkResponses.stream().noneMatch(bulkResponse -> bulkResponse.path(RESPONSE_KEY_ERRORS).asBoolean());
+    }
+
+    /**
+     * Returns the errors of bulk requests which failed entirely (e.g. due to a network error).
+     * <p>
+     * Note that this can only happen for asynchronous bulk contexts, as a synchronous commit directly throws
+     * such errors.
+     *
+     * @return the errors of all requests which failed entirely
+     */
+    public List<HandledException> getFailedRequests() {
+        return Collections.unmodifiableList(failedRequests);
     }
 
     /**
@@ -92,8 +122,17 @@ public class BulkResult {
     protected void digestResponse() {
         StringBuilder failureMessageBuilder = new StringBuilder();
         this.failedIds = new HashSet<>();
-        ArrayNode items = Json.getArray(bulkResponse, RESPONSE_KEY_ITEMS);
+        for (HandledException failedRequest : failedRequests) {
+            failureMessageBuilder.append("request failed: ").append(failedRequest.getMessage()).append("\n");
+        }
+        for (ObjectNode bulkResponse : bulkResponses) {
+            digestItems(Json.getArray(bulkResponse, RESPONSE_KEY_ITEMS), failureMessageBuilder);
+        }
+
+        this.failureMessage = failureMessageBuilder.toString();
+    }
 
+    private void digestItems(ArrayNode items, StringBuilder failureMessageBuilder) {
         for (int i = 0; i < items.size(); i++) {
             ObjectNode current = getObject((ObjectNode) items.get(i));
             if (current.has(RESPONSE_KEY_ERROR)) {
@@ -113,8 +152,6 @@ public class BulkResult {
                 failureMessageBuilder.append("\n");
             }
         }
-
-        this.failureMessage = failureMessageBuilder.toString();
     }
 
     private ObjectNode getObject(ObjectNode currentObject) {
@@ -8,6 +8,8 @@
 
 package sirius.db.es;
 
+import tools.jackson.core.JsonPointer;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.node.ObjectNode;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.Request;
@@ -41,6 +43,7 @@ import sirius.kernel.settings.PortMapper;
 
 import javax.annotation.Nullable;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -77,6 +80,12 @@ public class Elastic extends BaseMapper<ElasticEntity, ElasticConstraint, Elasti
     private static final String RESPONSE_PRIMARY_TERM = "_primary_term";
     private static final String RESPONSE_SEQ_NO = "_seq_no";
     private static final String RESPONSE_FOUND = "found";
+    private static final JsonPointer DOCS_POINTER = Json.createPointer("docs");
+
+    /**
+     * Contains the maximal number of IDs which are fetched by a single <tt>_mget</tt> in {@link #findEntities}.
+     */
+    private static final int MAX_IDS_PER_FIND_ALL = 1000;
     private static final String RESPONSE_SOURCE = "_source";
 
     /**
@@ -527,13 +536,30 @@ public class Elastic extends BaseMapper<ElasticEntity, ElasticConstraint, Elasti
      * @return a new entity based on the given data
      */
     protected static ElasticEntity make(EntityDescriptor entityDescriptor, ObjectNode data) {
+        return make(entityDescriptor, data, false);
+    }
+
+    /**
+     * Creates a new instance of the given entity type for the given data.
+     * <p>
+     * Note that properties which are not present in the <tt>_source</tt> (e.g. as they are excluded from it by the
+     * mapping) are still transformed from an empty value, even in read-only mode, as {@link ElasticQuery} always
+     * loads the complete <tt>_source</tt>.
+     *
+     * @param entityDescriptor the descriptor of the entity type
+     * @param data             the JSON data to transform
+     * @param readOnly         <tt>true</tt> to create a read-only entity which skips all change tracking
+     * @return a new entity based on the given data
+     * @see sirius.db.mixing.query.BaseQuery#readOnly()
+     */
+    protected static ElasticEntity make(EntityDescriptor entityDescriptor, ObjectNode data, boolean readOnly) {
         String id = Json.tryValueString(data, ID_FIELD).orElse(null);
 
         try {
             ObjectNode source = Json.getObject(data, RESPONSE_SOURCE);
-            ElasticEntity result = (ElasticEntity) entityDescriptor.make(Elastic.class,
-                                                                         null,
-                                                                         key -> Json.convertToValue(source.get(key)));
+            ElasticEntity result = (ElasticEntity) entityDescriptor.getRowMapper(Elastic.class, null)
+                                                                   .make(key -> Json.convertToValue(source.get(key)),
+                                                                         readOnly);
             result.setSearchHit(data);
             result.setId(id);
 
@@ -579,6 +605,35 @@ public class Elastic extends BaseMapper<ElasticEntity, ElasticConstraint, Elasti
         return Optional.of(result);
     }
 
+    /**
+     * Fetches all entities with the given IDs using the <tt>_mget</tt> API.
+     * <p>
+     * Note that all entities are fetched using the same routing (as given in the context). Therefore, routed entities
+     * can only be fetched if a routing is given, which all of them share.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    protected <E extends ElasticEntity> List<E> findEntities(List<Object> ids,
+                                                             EntityDescriptor entityDescriptor,
+                                                             Function<String, Value> context) throws Exception {
+        String routing = determineRoutingForFindAll(ids.size(), entityDescriptor, context);
+        List<E> result = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_FIND_ALL) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_FIND_ALL))
+                                    .stream()
+                                    .map(Object::toString)
+                                    .toList();
+            ObjectNode response = getLowLevelClient().mget(determineReadAlias(entityDescriptor), chunk, routing);
+            for (JsonNode jsonEntity : Json.getArrayAt(response, DOCS_POINTER)) {
+                if (jsonEntity.path(RESPONSE_FOUND).asBoolean()) {
+                    result.add((E) make(entityDescriptor, (ObjectNode) jsonEntity));
+                }
+            }
+        }
+
+        return result;
+    }
+
     private String determineRoutingForFind(Object id,
                                            EntityDescriptor entityDescriptor,
                                            Function<String, Value> context) {
@@ -604,6 +659,41 @@ public class Elastic extends BaseMapper<ElasticEntity, ElasticConstraint, Elasti
         return routing;
     }
 
+    private String determineRoutingForFindAll(int numberOfIds,
+                                              EntityDescriptor entityDescriptor,
+                                              Function<String, Value> context) {
+        if (isRoutingSuppressed(entityDescriptor, RoutingAccessMode.READ)) {
+            return null;
+        }
+
+        String routing = context.apply(CONTEXT_ROUTING).getString();
+        boolean routed = isRouted(entityDescriptor, RoutingAccessMode.READ);
+        if (routing == null && routed) {
+            throw Exceptions.handle()
+                            .to(LOG)
+                            .withSystemErrorMessage("Cannot FIND ALL entities of the routed type '%s' without providing"
+                                                    + " a routing.", entityDescriptor.getType().getName())
+                            .handle();
+        }
+        if (routing != null && !routed) {
+            LOG.WARN("Trying to FIND ALL %s un-routed entities of type '%s' with a routing! "
+                     + "This will most probably return an invalid result!\n%s",
+                     numberOfIds,
+                     entityDescriptor.getType().getName(),
+                     ExecutionPoint.snapshot());
+        }
+
+        return routing;
+    }
+
+    /**
+     * Routed entities require a routing to be found reliably, which isn't known without context.
+     */
+    @Override
+    public boolean canFindWithoutContext(EntityDescriptor entityDescriptor) {
+        return !isRouted(entityDescriptor, RoutingAccessMode.READ);
+    }
+
     /**
      * Determines if the entity of the given descriptor requires a routing value.
      *
@@ -19,6 +19,7 @@ import sirius.db.mixing.EntityDescriptor;
 import sirius.db.mixing.Mapping;
 import sirius.db.mixing.Mixing;
 import sirius.db.mixing.OptimisticLockException;
+import sirius.db.mixing.query.BlockPrefetcher;
 import sirius.db.mixing.query.Query;
 import sirius.db.mixing.query.constraints.FilterFactory;
 import sirius.kernel.async.ExecutionPoint;
@@ -37,6 +38,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -114,6 +121,9 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
     private static final String KEY_PIT = "pit";
     private static final String KEY_PIT_ID = "id";
     private static final String KEY_PIT_KEEP_ALIVE = "keep_alive";
+    private static final String KEY_SLICE = "slice";
+    private static final String KEY_SLICE_ID = "id";
+    private static final String KEY_SLICE_MAX = "max";
 
     private static final JsonPointer HITS_POINTER = Json.createPointer(KEY_HITS, KEY_HITS);
     private static final JsonPointer NUM_SHARDS_POINTER = Json.createPointer("_shards", KEY_TOTAL);
@@ -154,10 +164,14 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
 
     private boolean explain;
 
+    private boolean streamHits;
+
     private Map<String, ObjectNode> suggesters;
 
     private ObjectNode response;
 
+    private SearchResponseReader streamedResponse;
+
     /**
      * Used to describe inner hits which are determined for field collapsing.
      * <p>
@@ -352,7 +366,11 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
         copy.routing = this.routing;
         copy.unrouted = this.unrouted;
         copy.explain = this.explain;
+        copy.streamHits = this.streamHits;
         copy.collapseBy = this.collapseBy;
+        copy.readOnly = this.readOnly;
+        copy.prefetchedBlocks = this.prefetchedBlocks;
+        copy.prefetchedReferences = new ArrayList<>(this.prefetchedReferences);
 
         if (queryBuilder != null) {
             copy.queryBuilder = this.queryBuilder.copy();
@@ -437,6 +455,24 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
         return this;
     }
 
+    /**
+     * Parses the hits of the search response incrementally instead of building a JSON tree for the whole response.
+     * <p>
+     * Each hit is turned into an entity as soon as it has been parsed, therefore large results (e.g. with
+     * <tt>_source</tt> documents of several kilobytes) don't need to be kept in memory twice. Also, once the handler
+     * of {@link #iterate(Predicate)} stops the iteration, all remaining hits are skipped without being materialized.
+     * Aggregations are only parsed if the query actually defines any.
+     * <p>
+     * Note that {@link #getRawResponse()} will not contain the <tt>hits.hits</tt> array when using this mode. The
+     * last sort values and the total hit count are still available.
+     *
+     * @return the query itself for fluent method calls
+     */
+    public ElasticQuery<E> streamHits() {
+        this.streamHits = true;
+        return this;
+    }
+
     /**
      * Specifies a list of "last sort values" to continue a previous query.
      * <p>
@@ -485,19 +521,35 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
             return Collections.emptyList();
         }
 
-        ArrayNode jsonHits = Json.getArrayAt(getRawResponse(), HITS_POINTER);
+        ArrayNode jsonSorts = determineLastSortValues();
 
-        if (jsonHits.isEmpty()) {
+        if (jsonSorts == null || jsonSorts.isEmpty()) {
             return Collections.emptyList();
         }
 
-        ArrayNode jsonSorts = Json.getArrayAt(jsonHits, Json.createPointer(jsonHits.size() - 1, KEY_SORT));
+        return jsonSorts.valueStream().map(jsonNode -> jsonNode.asString("")).toList();
+    }
 
-        if (jsonSorts.isEmpty()) {
-            return Collections.emptyList();
+    @Nullable
+    private ArrayNode determineLastSortValues() {
+        if (streamedResponse != null) {
+            return streamedResponse.getLastSortValues();
         }
 
-        return jsonSorts.valueStream().map(jsonNode -> jsonNode.asString("")).toList();
+        ArrayNode jsonHits = Json.getArrayAt(getRawResponse(), HITS_POINTER);
+        if (jsonHits.isEmpty()) {
+            return null;
+        }
+
+        return Json.getArrayAt(jsonHits, Json.createPointer(jsonHits.size() - 1, KEY_SORT));
+    }
+
+    private int determineNumberOfHits() {
+        if (streamedResponse != null) {
+            return streamedResponse.getNumberOfHits();
+        }
+
+        return Json.getArrayAt(getRawResponse(), HITS_POINTER).size();
     }
 
     /**
@@ -509,7 +561,7 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
      * @return the last sort value within this result
      */
     public String getLastSortValue() {
-        if (limit > 0 && Json.getArrayAt(getRawResponse(), HITS_POINTER).size() < limit) {
+        if (limit > 0 && determineNumberOfHits() < limit) {
             return NO_LAST_SORT_VALUE;
         }
 
@@ -1152,6 +1204,19 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
 
         String filteredRouting = checkRouting(Elastic.RoutingAccessMode.READ);
 
+        if (streamHits) {
+            this.streamedResponse = new SearchResponseReader(jsonEntity -> handler.test((E) extractEntity(jsonEntity)),
+                                                             aggregations != null && !aggregations.isEmpty());
+            this.response = client.searchStreaming(computeEffectiveIndexName(elastic::determineReadAlias),
+                                                   filteredRouting,
+                                                   skip,
+                                                   limit,
+                                                   buildPayload(),
+                                                   streamedResponse);
+            return;
+        }
+
+        this.streamedResponse = null;
         this.response = client.search(computeEffectiveIndexName(elastic::determineReadAlias),
                                       filteredRouting,
                                       skip,
@@ -1167,7 +1232,7 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
     private ElasticEntity extractEntity(JsonNode jsonEntity) {
         // This is the most common use case, so we handle it first...
         if (additionalDescriptors == null || additionalDescriptors.isEmpty()) {
-            return Elastic.make(descriptor, (ObjectNode) jsonEntity);
+            return Elastic.make(descriptor, (ObjectNode) jsonEntity, readOnly);
         }
 
         String indexName = jsonEntity.get("_index").asString(null);
@@ -1176,8 +1241,9 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
                                             additionalDescriptor), indexName))
                                     .findFirst()
                                     .map(matchingDescriptor -> Elastic.make(matchingDescriptor,
-                                                                            (ObjectNode) jsonEntity))
-                                    .orElseGet(() -> Elastic.make(descriptor, (ObjectNode) jsonEntity));
+                                                                            (ObjectNode) jsonEntity,
+                                                                            readOnly))
+                                    .orElseGet(() -> Elastic.make(descriptor, (ObjectNode) jsonEntity, readOnly));
     }
 
     /**
@@ -1211,6 +1277,7 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
 
         String filteredRouting = checkRouting(Elastic.RoutingAccessMode.READ);
 
+        this.streamedResponse = null;
         this.response = client.search(computeEffectiveIndexName(elastic::determineReadAlias),
                                       filteredRouting,
                                       skip,
@@ -1348,21 +1415,45 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
 
     private class ElasticBlockWiseSpliterator extends PullBasedSpliterator<E> {
         private final TaskContext taskContext = TaskContext.get();
+        private final BlockPrefetcher<E> prefetcher;
         private String pit = null;
         private List<String> searchAfter = null;
 
+        private ElasticBlockWiseSpliterator() {
+            if (prefetchedBlocks > 0) {
+                prefetcher = new BlockPrefetcher<>(descriptor.getRelationName(),
+                                                   prefetchedBlocks,
+                                                   taskContext,
+                                                   this::fetchNextEntities);
+            } else {
+                prefetcher = null;
+            }
+        }
+
         @Override
         public int characteristics() {
             return NONNULL | IMMUTABLE;
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         protected Iterator<E> pullNextBlock() {
             if (!taskContext.isActive()) {
                 return null;
             }
 
+            if (prefetcher != null) {
+                List<E> block = prefetcher.nextBlock();
+                return block == null ? null : block.iterator();
+            }
+
+            return fetchNextEntities().iterator();
+        }
+
+        private List<E> fetchNextEntities() {
+            return prefetchReferences(fetchNextBlock().map(this::makeEntity).toList());
+        }
+
+        private Stream<JsonNode> fetchNextBlock() {
             String alias = computeEffectiveIndexName(elastic::determineReadAlias);
             String filterRouting = checkRouting(Elastic.RoutingAccessMode.READ);
             if (pit == null) {
@@ -1379,22 +1470,145 @@ public class ElasticQuery<E extends ElasticEntity> extends Query<ElasticQuery<E>
                                                                KEY_PIT_KEEP_ALIVE,
                                                                STREAM_BLOCKWISE_PIT_TTL));
             int maxResults = filterRouting != null ? BLOCK_SIZE_FOR_SINGLE_SHARD : BLOCK_SIZE_PER_SHARD;
+            streamedResponse = null;
             response = client.search("", null, 0, maxResults, payload);
             searchAfter = getLastSortValues();
 
-            return Json.getArrayAt(response, HITS_POINTER)
-                       .valueStream()
-                       .map(entry -> (E) Elastic.make(descriptor, (ObjectNode) entry))
-                       .iterator();
+            return Json.getArrayAt(response, HITS_POINTER).valueStream();
+        }
+
+        @SuppressWarnings("unchecked")
+        private E makeEntity(JsonNode entry) {
+            return (E) Elastic.make(descriptor, (ObjectNode) entry, readOnly);
         }
 
         private void close() {
+            if (prefetcher != null) {
+                // Ensure that no request is pending when closing the PIT...
+                prefetcher.close();
+            }
             if (pit != null) {
                 client.closePit(pit);
             }
         }
     }
 
+    /**
+     * Processes all matching entities by scanning the index in parallel.
+     * <p>
+     * Just like {@link #streamBlockwise()} this uses a PIT and <tt>search_after</tt> to visit all entities. However,
+     * the PIT is split into the given number of slices, each of which is scanned by its own virtual thread. This is
+     * intended for jobs like a full re-index or an export of large indices, which would otherwise be bound by the
+     * latency of each single request.
+     * <p>
+     * Note that the handler is invoked concurrently and that the entities are not processed in any particular
+     * order. This method blocks until all slices have been processed. If any slice fails, all other slices are
+     * stopped and the error is re-thrown.
+     *
+     * @param handler     the handler to invoke for each entity. Note that this has to be thread-safe
+     * @param parallelism the number of slices to scan concurrently
+     */
+    public void forEachParallel(Consumer<E> handler, int parallelism) {
+        if (forceFail) {
+            return;
+        }
+
+        if (limit > 0) {
+            throw new UnsupportedOperationException("ElasticQuery doesn't allow 'limit' in forEachParallel");
+        }
+        if (skip > 0) {
+            throw new UnsupportedOperationException("ElasticQuery doesn't allow 'skip' in forEachParallel");
+        }
+
+        if (parallelism <= 1) {
+            streamBlockwise().forEach(handler);
+            return;
+        }
+
+        TaskContext taskContext = TaskContext.get();
+        String filterRouting = checkRouting(Elastic.RoutingAccessMode.READ);
+        String pit = client.createPit(computeEffectiveIndexName(elastic::determineReadAlias),
+                                      filterRouting,
+                                      STREAM_BLOCKWISE_PIT_TTL);
+        AtomicBoolean failed = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> slices = new ArrayList<>(parallelism);
+            for (int slice = 0; slice < parallelism; slice++) {
+                ElasticQuery<E> sliceQuery = copy().orderAsc(ElasticEntity.ID);
+                Slice sliceInfo = new Slice(pit, slice, parallelism, filterRouting);
+                slices.add(executor.submit(() -> {
+                    try {
+                        sliceQuery.scanSlice(sliceInfo,
+                                             handler,
+                                             () -> !failed.get() && taskContext.isActive());
+                    } catch (RuntimeException exception) {
+                        failed.set(true);
+                        throw exception;
+                    }
+                }));
+            }
+
+            awaitSlices(slices);
+        } finally {
+            client.closePit(pit);
+        }
+    }
+
+    private record Slice(String pit, int id, int max, @Nullable String routing) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanSlice(Slice slice, Consumer<E> handler, BooleanSupplier isActive) {
+        int maxResults = slice.routing() != null ? BLOCK_SIZE_FOR_SINGLE_SHARD : BLOCK_SIZE_PER_SHARD;
+        while (isActive.getAsBoolean()) {
+            ObjectNode payload = buildPayload().putPOJO(KEY_PIT,
+                                                        Map.of(KEY_PIT_ID,
+                                                               slice.pit(),
+                                                               KEY_PIT_KEEP_ALIVE,
+                                                               STREAM_BLOCKWISE_PIT_TTL));
+            payload.putPOJO(KEY_SLICE, Map.of(KEY_SLICE_ID, slice.id(), KEY_SLICE_MAX, slice.max()));
+            streamedResponse = null;
+            response = client.search("", null, 0, maxResults, payload);
+
+            ArrayNode hits = Json.getArrayAt(response, HITS_POINTER);
+            if (hits.isEmpty()) {
+                return;
+            }
+            List<E> block = new ArrayList<>(hits.size());
+            for (JsonNode hit : hits) {
+                block.add((E) Elastic.make(descriptor, (ObjectNode) hit, readOnly));
+            }
+            prefetchReferences(block).forEach(handler);
+            searchAfter(getLastSortValues());
+        }
+    }
+
+    private void awaitSlices(List<Future<?>> slices) {
+        Exception firstError = null;
+        for (Future<?> slice : slices) {
+            try {
+                slice.get();
+            } catch (ExecutionException exception) {
+                if (firstError == null) {
+                    firstError = exception.getCause() instanceof Exception cause ? cause : exception;
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                slices.forEach(future -> future.cancel(true));
+                throw Exceptions.handle(Elastic.LOG, exception);
+            }
+        }
+
+        if (firstError != null) {
+            throw Exceptions.handle()
+                            .to(Elastic.LOG)
+                            .error(firstError)
+                            .withSystemErrorMessage("Failed to scan %s in parallel: %s (%s)",
+                                                    descriptor.getRelationName())
+                            .handle();
+        }
+    }
+
     @Override
     public void delete(@Nullable Consumer<E> entityCallback) {
         streamBlockwise().forEach(entity -> {
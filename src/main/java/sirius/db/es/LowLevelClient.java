@@ -12,6 +12,7 @@ import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.ResponseException;
 import org.elasticsearch.client.RestClient;
@@ -48,6 +49,7 @@ public class LowLevelClient {
     private static final String API_SEARCH = "/_search";
     private static final String API_DELETE_BY_QUERY = "/_delete_by_query";
     private static final String API_PREFIX_DOC = "/_doc/";
+    private static final String API_MGET = "/_mget";
     private static final String API_REFRESH = "/_refresh";
     private static final String API_SETTINGS = "/_settings";
     private static final String API_CLUSTER_HEALTH = "/_cluster/health";
@@ -192,6 +194,24 @@ public class LowLevelClient {
                            .response();
     }
 
+    /**
+     * Fetches several documents by their IDs using a single request.
+     *
+     * @param index   the target index
+     * @param ids     the IDs of the documents to fetch
+     * @param routing the routing to use for all documents
+     * @return the response of the call, which contains one entry per ID in <tt>docs</tt>
+     */
+    public ObjectNode mget(String index, List<String> ids, @Nullable String routing) {
+        ObjectNode request = Json.createObject();
+        ArrayNode jsonIds = request.putArray("ids");
+        ids.forEach(jsonIds::add);
+        return performPost().routing(routing)
+                            .data(request)
+                            .execute(index + API_MGET)
+                            .response();
+    }
+
     /**
      * Deletes the given document.
      *
@@ -254,6 +274,34 @@ public class LowLevelClient {
                            .response();
     }
 
+    /**
+     * Executes a search and parses the hits incrementally.
+     * <p>
+     * Instead of building a JSON tree for the whole response, each hit is parsed on its own and handed to the
+     * reader's handler as it arrives.
+     *
+     * @param alias   the alias which determines the indices to search in
+     * @param routing the routing to use
+     * @param from    the number of items to skip
+     * @param size    the maximal result length
+     * @param query   the query to execute
+     * @param reader  the reader which processes the hits
+     * @return the response without the <tt>hits.hits</tt> array
+     */
+    protected ObjectNode searchStreaming(String alias,
+                                         @Nullable String routing,
+                                         int from,
+                                         int size,
+                                         ObjectNode query,
+                                         SearchResponseReader reader) {
+        return performGet().routing(routing)
+                           .withParam("size", size)
+                           .withParam("from", from)
+                           .data(query)
+                           .execute(alias + API_SEARCH)
+                           .parseResponse(reader::read);
+    }
+
     /**
      * Executes a reindex request.
      * <p>
@@ -483,6 +531,59 @@ public class LowLevelClient {
                             .response();
     }
 
+    /**
+     * Executes the given NDJSON encoded bulk statements with the given refresh setting.
+     * <p>
+     * The given buffer is sent as is, therefore it has to contain one JSON object per line, including a trailing
+     * line break.
+     *
+     * @param bulkData the UTF-8 encoded statements to execute
+     * @param length   the number of bytes in the buffer to send
+     * @param refresh  the refresh mode to use
+     * @return the response of the call
+     * @see BulkContext
+     */
+    public ObjectNode bulkWithRefresh(byte[] bulkData, int length, Refresh refresh) {
+        return performPost().withParam(PARAM_REFRESH, refresh.name().toLowerCase())
+                            .rawData(bulkData, length)
+                            .execute(API_BULK)
+                            .response();
+    }
+
+    /**
+     * Asynchronously executes the given NDJSON encoded bulk statements with the given refresh setting.
+     * <p>
+     * Note that the callbacks are invoked by the I/O threads of the underlying REST client and should therefore
+     * return quickly. Also note that the given buffer must not be modified until one of the callbacks was invoked.
+     *
+     * @param bulkData  the UTF-8 encoded statements to execute
+     * @param length    the number of bytes in the buffer to send
+     * @param refresh   the refresh mode to use
+     * @param onSuccess invoked with the response of the call
+     * @param onFailure invoked if the request failed entirely
+     * @see BulkContext#withAsyncRequests(int)
+     */
+    public void bulkWithRefreshAsync(byte[] bulkData,
+                                     int length,
+                                     Refresh refresh,
+                                     Consumer<ObjectNode> onSuccess,
+                                     Consumer<HandledException> onFailure) {
+        performPost().withParam(PARAM_REFRESH, refresh.name().toLowerCase())
+                     .rawData(bulkData, length)
+                     .executeAsync(API_BULK, response -> {
+                         try {
+                             onSuccess.accept(Json.parseObject(EntityUtils.toString(response.getEntity())));
+                         } catch (Exception exception) {
+                             onFailure.accept(Exceptions.handle()
+                                                        .to(Elastic.LOG)
+                                                        .error(exception)
+                                                        .withSystemErrorMessage(
+                                                                "Failed to read the response of a bulk request: %s (%s)")
+                                                        .handle());
+                         }
+                     }, onFailure);
+    }
+
     /**
      * Creates the given index.
      *
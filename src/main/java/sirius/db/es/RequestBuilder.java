@@ -11,6 +11,7 @@ package sirius.db.es;
 import tools.jackson.databind.node.ObjectNode;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NByteArrayEntity;
 import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.util.EntityUtils;
 import org.elasticsearch.client.Request;
@@ -32,6 +33,8 @@ import sirius.kernel.health.Microtiming;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,6 +61,8 @@ class RequestBuilder {
     private Map<String, String> params;
     private ObjectNode data;
     private String rawData;
+    private byte[] rawBytes;
+    private int rawBytesLength;
     private HttpEntity responseEntity;
     private ObjectNode responseObject;
     private Function<ResponseException, HttpEntity> customExceptionHandler;
@@ -92,6 +97,19 @@ class RequestBuilder {
         return this;
     }
 
+    /**
+     * Uses the given bytes (which are expected to be UTF-8 encoded) as request body without copying them.
+     *
+     * @param data   the buffer containing the request body
+     * @param length the number of bytes in the buffer which are actually used
+     * @return the builder itself for fluent method calls
+     */
+    protected RequestBuilder rawData(byte[] data, int length) {
+        this.rawBytes = data;
+        this.rawBytesLength = length;
+        return this;
+    }
+
     protected RequestBuilder withCustomErrorHandler(Function<ResponseException, HttpEntity> errorHandler) {
         this.customExceptionHandler = errorHandler;
         return this;
@@ -150,12 +168,19 @@ class RequestBuilder {
 
         Request request = new Request(method, uri);
         request.addParameters(determineParams());
-        NStringEntity requestContent =
-                buildContent().map(content -> new NStringEntity(content, ContentType.APPLICATION_JSON)).orElse(null);
-        request.setEntity(requestContent);
+        request.setEntity(buildRequestEntity());
         return request;
     }
 
+    @Nullable
+    private HttpEntity buildRequestEntity() {
+        if (rawBytes != null) {
+            return new NByteArrayEntity(rawBytes, 0, rawBytesLength, ContentType.APPLICATION_JSON);
+        }
+
+        return buildContent().map(content -> new NStringEntity(content, ContentType.APPLICATION_JSON)).orElse(null);
+    }
+
     private RequestBuilder handleResponseException(ResponseException exception) throws OptimisticLockException {
         if (customExceptionHandler != null) {
             HttpEntity result = customExceptionHandler.apply(exception);
@@ -197,6 +222,13 @@ class RequestBuilder {
         if (rawData != null) {
             return Optional.of(rawData);
         }
+        if (rawBytes != null) {
+            // This is only used for logging, therefore we don't decode (potentially huge) bulk requests entirely...
+            return Optional.of(new String(rawBytes,
+                                          0,
+                                          Math.min(rawBytesLength, MAX_CONTENT_LONG_LENGTH),
+                                          StandardCharsets.UTF_8));
+        }
 
         return Optional.empty();
     }
@@ -217,10 +249,12 @@ class RequestBuilder {
                                 @Nullable Consumer<Response> onSuccess,
                                 @Nullable Consumer<HandledException> onFailure) {
         Request request = setupRequest(uri);
+        Watch watch = Watch.start();
 
         restClient.performRequestAsync(request, new ResponseListener() {
             @Override
             public void onSuccess(Response response) {
+                elastic.callDuration.addValue(watch.elapsedMillis());
                 if (onSuccess != null) {
                     onSuccess.accept(response);
                 }
@@ -228,6 +262,7 @@ class RequestBuilder {
 
             @Override
             public void onFailure(Exception exception) {
+                elastic.callDuration.addValue(watch.elapsedMillis());
                 HandledException handledException = handleAsyncFailure(exception, uri);
                 if (onFailure != null) {
                     onFailure.accept(handledException);
@@ -284,6 +319,30 @@ class RequestBuilder {
         }
     }
 
+    /**
+     * Hands the body of the response to the given parser, instead of building a JSON tree for it.
+     *
+     * @param parser the parser which consumes the response body
+     * @param <T>    the type of the result produced by the parser
+     * @return the result of the parser
+     */
+    protected <T> T parseResponse(Function<InputStream, T> parser) {
+        if (responseEntity == null) {
+            throw new IllegalStateException("No response is available before making a request.");
+        }
+
+        try (InputStream input = responseEntity.getContent()) {
+            return parser.apply(input);
+        } catch (IOException exception) {
+            throw Exceptions.handle()
+                            .to(Elastic.LOG)
+                            .error(exception)
+                            .withSystemErrorMessage(
+                                    "An IO exception occurred when performing a request against elasticsearch: %s")
+                            .handle();
+        }
+    }
+
     protected RequestBuilder toggle(String param, boolean toggle) {
         return withParam(param, String.valueOf(toggle));
     }
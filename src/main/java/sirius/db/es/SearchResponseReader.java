@@ -0,0 +1,132 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.es;
+
+import sirius.kernel.commons.Json;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.InputStream;
+import java.util.function.Predicate;
+
+/**
+ * Parses the response of a search request incrementally.
+ * <p>
+ * Instead of building a tree for the whole response, each hit is parsed on its own and directly handed to a
+ * handler. Therefore, only a single hit needs to be kept in memory (unless the handler keeps a reference to it).
+ * All other parts of the response are collected in a (small) response object, which mimics the regular response,
+ * except for the <tt>hits.hits</tt> array. Aggregations are skipped entirely unless they are requested.
+ */
+class SearchResponseReader {
+
+    private static final String KEY_HITS = "hits";
+    private static final String KEY_AGGREGATIONS = "aggregations";
+    private static final String KEY_SORT = "sort";
+
+    private final Predicate<ObjectNode> hitHandler;
+    private final boolean includeAggregations;
+    private boolean keepProcessing = true;
+    private int numberOfHits;
+    private ArrayNode lastSortValues;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param hitHandler          invoked for each hit as long as it returns <tt>true</tt>
+     * @param includeAggregations determines if aggregations are parsed or skipped
+     */
+    SearchResponseReader(Predicate<ObjectNode> hitHandler, boolean includeAggregations) {
+        this.hitHandler = hitHandler;
+        this.includeAggregations = includeAggregations;
+    }
+
+    /**
+     * Parses the given search response.
+     *
+     * @param input the stream which provides the search response
+     * @return the response without the actual hits
+     */
+    ObjectNode read(InputStream input) {
+        ObjectNode response = Json.createObject();
+        try (JsonParser parser = Json.MAPPER.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return response;
+            }
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if (KEY_HITS.equals(name) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    response.set(KEY_HITS, readHits(parser));
+                } else if (KEY_AGGREGATIONS.equals(name) && !includeAggregations) {
+                    parser.skipChildren();
+                } else {
+                    response.set(name, Json.MAPPER.readTree(parser));
+                }
+            }
+        }
+
+        return response;
+    }
+
+    private ObjectNode readHits(JsonParser parser) {
+        ObjectNode hits = Json.createObject();
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if (KEY_HITS.equals(name) && parser.currentToken() == JsonToken.START_ARRAY) {
+                processHits(parser);
+            } else {
+                hits.set(name, Json.MAPPER.readTree(parser));
+            }
+        }
+
+        return hits;
+    }
+
+    private void processHits(JsonParser parser) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (!keepProcessing) {
+                numberOfHits++;
+                parser.skipChildren();
+                continue;
+            }
+
+            JsonNode hit = Json.MAPPER.readTree(parser);
+            if (hit instanceof ObjectNode hitObject) {
+                numberOfHits++;
+                if (hitObject.get(KEY_SORT) instanceof ArrayNode sortValues) {
+                    lastSortValues = sortValues;
+                }
+                keepProcessing = hitHandler.test(hitObject);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hits which were contained in the response.
+     *
+     * @return the number of hits which have been parsed
+     */
+    int getNumberOfHits() {
+        return numberOfHits;
+    }
+
+    /**
+     * Returns the sort values of the last hit which has been parsed.
+     *
+     * @return the sort values of the last hit or <tt>null</tt> if no hit contained sort values
+     */
+    ArrayNode getLastSortValues() {
+        return lastSortValues;
+    }
+}
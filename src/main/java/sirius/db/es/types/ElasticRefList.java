@@ -15,6 +15,8 @@ import sirius.db.mixing.types.BaseEntityRef;
 import sirius.db.mixing.types.BaseEntityRefList;
 import sirius.kernel.di.std.Part;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -43,4 +45,9 @@ public class ElasticRefList<E extends ElasticEntity> extends BaseEntityRefList<E
     protected Optional<E> resolve(String id, ContextInfo... context) {
         return elastic.find(type, id, context);
     }
+
+    @Override
+    protected Map<String, E> resolveAll(List<String> ids, ContextInfo... context) {
+        return elastic.findAll(type, ids, context);
+    }
 }
@@ -10,9 +10,11 @@ package sirius.db.jdbc;
 
 import sirius.kernel.commons.Explain;
 
+import java.io.InputStream;
 import java.sql.Connection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -77,7 +79,30 @@ public enum Capability {
      * Some, e.g. mariaDB or MySQL, lists null values before non-null values. Oracle and postgreSQL do it the other way
      * around.
      */
-    NULLS_FIRST;
+    NULLS_FIRST,
+
+    /**
+     * Signals that the database can load large amounts of rows from a stream of tab separated values.
+     * <p>
+     * The actual statement and the way the stream is handed to the driver is determined by
+     * {@link sirius.db.jdbc.schema.DatabaseDialect#bulkLoad(Connection, String, List, InputStream)}.
+     * <p>
+     * MySQL and MariaDB only report this capability if the driver permits <tt>LOAD DATA LOCAL INFILE</tt> (see
+     * {@link Database#hasCapability(Capability)}).
+     */
+    BULK_LOAD,
+
+    /**
+     * Signals that the database supports upserts via <tt>INSERT ... ON DUPLICATE KEY UPDATE</tt> like MySQL and
+     * MariaDB do.
+     */
+    UPSERT_ON_DUPLICATE_KEY,
+
+    /**
+     * Signals that the database supports upserts via <tt>INSERT ... ON CONFLICT (...) DO UPDATE</tt> like
+     * PostgreSQL does.
+     */
+    UPSERT_ON_CONFLICT;
 
     /**
      * Contains the default capabilities of unknown databases.
@@ -97,16 +122,22 @@ public enum Capability {
             NULL_SAFE_OPERATOR,
             DECIMAL_TYPE,
             TRANSACTION,
-            NULLS_FIRST));
+            NULLS_FIRST,
+            BULK_LOAD,
+            UPSERT_ON_DUPLICATE_KEY));
 
     /**
      * Contains the capabilities of a Postgres database
      */
-    public static final Set<Capability> POSTGRES_CAPABILITIES =
-            Collections.unmodifiableSet(EnumSet.of(LIMIT, GENERATED_KEYS, DECIMAL_TYPE, TRANSACTION));
+    public static final Set<Capability> POSTGRES_CAPABILITIES = Collections.unmodifiableSet(EnumSet.of(LIMIT,
+                                                                                                    GENERATED_KEYS,
+                                                                                                    DECIMAL_TYPE,
+                                                                                                    TRANSACTION,
+                                                                                                    UPSERT_ON_CONFLICT));
 
     /**
      * Contains the capabilities of a Clickhouse database
      */
-    public static final Set<Capability> CLICKHOUSE_CAPABILITIES = Collections.unmodifiableSet(EnumSet.of(LIMIT, LISTS));
+    public static final Set<Capability> CLICKHOUSE_CAPABILITIES =
+            Collections.unmodifiableSet(EnumSet.of(LIMIT, LISTS, BULK_LOAD));
 }
@@ -0,0 +1,184 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc;
+
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Property;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches the SQL statements used by {@link OMA} to create, update and delete entities of a given type.
+ * <p>
+ * Each property (except the id) is assigned an ordinal. The column list of an <tt>INSERT</tt> (only non-null values
+ * are inserted, so that database defaults apply) and the assignments of an <tt>UPDATE</tt> (only changed properties
+ * are written) are therefore described by a {@link BitSet} of ordinals, which is used as cache key. As in practice
+ * only a few combinations occur per entity type, steady-state saves only need to bind their parameters.
+ * <p>
+ * The statements for all columns as well as the <tt>DELETE</tt> statements are computed upfront.
+ */
+class CrudStatements {
+
+    /**
+     * Limits the number of cached column combinations per entity type and kind of statement.
+     * <p>
+     * Once reached, statements for further combinations are still built but no longer cached.
+     */
+    private static final int MAX_CACHED_COMBINATIONS = 256;
+
+    private static final String SQL_WHERE_ID = " WHERE id = ?";
+    private static final String SQL_AND_VERSION = " AND version = ?";
+
+    private final EntityDescriptor descriptor;
+    private final List<Property> properties;
+    private final Map<BitSet, String> insertStatements = new ConcurrentHashMap<>();
+    private final Map<BitSet, String> updateStatements = new ConcurrentHashMap<>();
+    private final Map<BitSet, String> forcedUpdateStatements = new ConcurrentHashMap<>();
+    private final String deleteStatement;
+    private final String forcedDeleteStatement;
+
+    CrudStatements(EntityDescriptor descriptor) {
+        this.descriptor = descriptor;
+        this.properties = descriptor.getProperties()
+                                    .stream()
+                                    .filter(property -> !SQLEntity.ID.getName().equals(property.getName()))
+                                    .toList();
+
+        BitSet allColumns = new BitSet(properties.size());
+        allColumns.set(0, properties.size());
+        getInsertSQL(allColumns);
+        getUpdateSQL(allColumns, false);
+        getUpdateSQL(allColumns, true);
+
+        this.forcedDeleteStatement = "DELETE FROM " + descriptor.getRelationName() + SQL_WHERE_ID;
+        this.deleteStatement =
+                descriptor.isVersioned() ? forcedDeleteStatement + SQL_AND_VERSION : forcedDeleteStatement;
+    }
+
+    /**
+     * Returns the properties which can be inserted or updated, in the order of their ordinals.
+     *
+     * @return the list of properties (without the id)
+     */
+    List<Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns the <tt>INSERT</tt> statement which writes the given columns (and the version if required).
+     *
+     * @param columns the ordinals of the properties to insert
+     * @return the SQL statement to use
+     */
+    String getInsertSQL(BitSet columns) {
+        return lookup(insertStatements, columns, this::buildInsertSQL);
+    }
+
+    /**
+     * Returns the <tt>UPDATE</tt> statement which writes the given columns (and the version if required).
+     * <p>
+     * The parameters are: the values of the given columns, the new version (for versioned entities), the id and the
+     * expected version (for versioned entities which are not forcefully updated).
+     *
+     * @param columns the ordinals of the properties to update
+     * @param force   <tt>true</tt> to skip the optimistic locking constraint
+     * @return the SQL statement to use
+     */
+    String getUpdateSQL(BitSet columns, boolean force) {
+        if (force || !descriptor.isVersioned()) {
+            return lookup(forcedUpdateStatements, columns, key -> buildUpdateSQL(key, false));
+        }
+
+        return lookup(updateStatements, columns, key -> buildUpdateSQL(key, true));
+    }
+
+    /**
+     * Returns the <tt>DELETE</tt> statement.
+     *
+     * @param force <tt>true</tt> to skip the optimistic locking constraint
+     * @return the SQL statement to use
+     */
+    String getDeleteSQL(boolean force) {
+        return force ? forcedDeleteStatement : deleteStatement;
+    }
+
+    private String lookup(Map<BitSet, String> cache, BitSet columns, Function<BitSet, String> builder) {
+        String sql = cache.get(columns);
+        if (sql != null) {
+            return sql;
+        }
+
+        sql = builder.apply(columns);
+        if (cache.size() < MAX_CACHED_COMBINATIONS) {
+            // Copy the key, as the caller might re-use the given bit set...
+            cache.putIfAbsent((BitSet) columns.clone(), sql);
+        }
+
+        return sql;
+    }
+
+    private String buildInsertSQL(BitSet columns) {
+        StringBuilder fields = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int ordinal = columns.nextSetBit(0); ordinal >= 0; ordinal = columns.nextSetBit(ordinal + 1)) {
+            if (!fields.isEmpty()) {
+                fields.append(", ");
+                values.append(", ");
+            }
+            fields.append(properties.get(ordinal).getPropertyName());
+            values.append("?");
+        }
+
+        if (descriptor.isVersioned()) {
+            if (!fields.isEmpty()) {
+                fields.append(", ");
+                values.append(", ");
+            }
+            fields.append(BaseMapper.VERSION);
+            values.append("?");
+        }
+
+        return "INSERT INTO " + descriptor.getRelationName() + " (" + fields + ") VALUES(" + values + ")";
+    }
+
+    private String buildUpdateSQL(BitSet columns, boolean checkVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE ");
+        sql.append(descriptor.getRelationName());
+        sql.append(" SET ");
+        boolean first = true;
+        for (int ordinal = columns.nextSetBit(0); ordinal >= 0; ordinal = columns.nextSetBit(ordinal + 1)) {
+            if (!first) {
+                sql.append(", ");
+            }
+            first = false;
+            sql.append(properties.get(ordinal).getPropertyName());
+            sql.append(" = ?");
+        }
+
+        if (descriptor.isVersioned()) {
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(BaseMapper.VERSION);
+            sql.append(" = ?");
+        }
+
+        sql.append(SQL_WHERE_ID);
+        if (checkVersion) {
+            sql.append(SQL_AND_VERSION);
+        }
+
+        return sql.toString();
+    }
+}
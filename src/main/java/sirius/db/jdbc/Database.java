@@ -29,6 +29,8 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +58,7 @@ public class Database {
     private static final String KEY_MAX_ACTIVE = "maxActive";
     private static final String KEY_MAX_IDLE = "maxIdle";
     private static final String KEY_VALIDATION_QUERY = "validationQuery";
+    private static final String KEY_STATEMENT_CACHE_SIZE = "statementCacheSize";
     protected final String name;
     private final String service;
     private final String driver;
@@ -66,6 +69,7 @@ public class Database {
     private final int initialSize;
     private final int maxActive;
     private final int maxIdle;
+    private final int statementCacheSize;
     private final boolean testOnBorrow;
     private final String validationQuery;
     private MonitoredDataSource dataSource;
@@ -117,6 +121,9 @@ public class Database {
         this.maxIdle = extension.get(KEY_MAX_IDLE).isFilled() ?
                        extension.get(KEY_MAX_IDLE).asInt(1) :
                        profile.get(KEY_MAX_IDLE).asInt(1);
+        this.statementCacheSize = extension.get(KEY_STATEMENT_CACHE_SIZE).isFilled() ?
+                                  extension.get(KEY_STATEMENT_CACHE_SIZE).asInt(0) :
+                                  profile.get(KEY_STATEMENT_CACHE_SIZE).asInt(0);
         this.validationQuery = extension.get(KEY_VALIDATION_QUERY).isEmptyString() ?
                                Formatter.create(profile.get(KEY_VALIDATION_QUERY).asString())
                                         .setDirect(context)
@@ -283,13 +290,31 @@ public class Database {
             List<Object> valueList = new ArrayList<>();
             prepareValues(context, fields, values, valueList);
             String sql = "INSERT INTO " + table + " (" + fields + ") VALUES(" + values + ")";
-            try (PreparedStatement statement = hasCapability(Capability.GENERATED_KEYS) ?
-                                               connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) :
-                                               connection.prepareStatement(sql)) {
-                fillValues(valueList, sql, statement);
-                statement.executeUpdate();
-                return dbs.fetchGeneratedKeys(statement);
-            }
+            return executeInsert(connection, sql, valueList);
+        }
+    }
+
+    /**
+     * Executes the given INSERT statement and returns the generated keys.
+     *
+     * @param sql    the INSERT statement to execute
+     * @param values the parameters to fill into the statement
+     * @return a Row containing all generated keys
+     * @throws SQLException in case of a database error
+     */
+    protected Row executeInsert(String sql, List<Object> values) throws SQLException {
+        try (Connection connection = getConnection()) {
+            return executeInsert(connection, sql, values);
+        }
+    }
+
+    private Row executeInsert(Connection connection, String sql, List<Object> values) throws SQLException {
+        try (PreparedStatement statement = hasCapability(Capability.GENERATED_KEYS) ?
+                                           connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) :
+                                           connection.prepareStatement(sql)) {
+            fillValues(values, sql, statement);
+            statement.executeUpdate();
+            return dbs.fetchGeneratedKeys(statement);
         }
     }
 
@@ -358,6 +383,7 @@ public class Database {
             dataSource.setTestOnBorrow(testOnBorrow);
             dataSource.setValidationQuery(validationQuery);
             dataSource.setMaxWait(Duration.ofSeconds(1));
+            dataSource.setStatementCacheSize(statementCacheSize);
         }
     }
 
@@ -423,6 +449,10 @@ public class Database {
 
     /**
      * Determines if the current driver has the requested capability.
+     * <p>
+     * Note that MySQL and MariaDB only report {@link Capability#BULK_LOAD} if the driver permits local infiles. This
+     * is the default for the MariaDB driver (unless <tt>allowLocalInfile=false</tt> is given in the URL), whereas the
+     * MySQL driver requires <tt>allowLoadLocalInfile=true</tt>.
      *
      * @param cap the capability to determine
      * @return <tt>true</tt> if the capability is supported / present, <tt>false</tt> otherwise
@@ -431,7 +461,9 @@ public class Database {
         if (capabilities == null) {
             if ("com.mysql.jdbc.Driver".equalsIgnoreCase(driver)
                 || "org.mariadb.jdbc.Driver".equalsIgnoreCase(driver)) {
-                capabilities = Capability.MYSQL_CAPABILITIES;
+                capabilities = isLocalInfileAllowed() ?
+                               Capability.MYSQL_CAPABILITIES :
+                               withoutCapability(Capability.MYSQL_CAPABILITIES, Capability.BULK_LOAD);
             } else if ("org.postgresql.Driver".equalsIgnoreCase(driver)) {
                 capabilities = Capability.POSTGRES_CAPABILITIES;
             } else if ("com.clickhouse.jdbc.Driver".equals(driver)) {
@@ -444,6 +476,21 @@ public class Database {
         return capabilities.contains(cap);
     }
 
+    private boolean isLocalInfileAllowed() {
+        String lowerCaseUrl = url.toLowerCase();
+        if ("org.mariadb.jdbc.Driver".equalsIgnoreCase(driver)) {
+            return !lowerCaseUrl.contains("allowlocalinfile=false");
+        }
+
+        return lowerCaseUrl.contains("allowloadlocalinfile=true");
+    }
+
+    private static Set<Capability> withoutCapability(Set<Capability> capabilities, Capability capability) {
+        EnumSet<Capability> result = EnumSet.copyOf(capabilities);
+        result.remove(capability);
+        return Collections.unmodifiableSet(result);
+    }
+
     @Override
     public String toString() {
         return Strings.apply("%s (%d/%d)", name, getNumActive(), getSize());
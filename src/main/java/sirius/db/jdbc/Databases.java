@@ -38,6 +38,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -71,7 +72,11 @@ public class Databases implements Initializable {
     protected static Counter numConnects = new Counter();
     protected static Counter numQueries = new Counter();
     protected static Counter numSlowQueries = new Counter();
+    protected static Counter numStatementCacheHits = new Counter();
+    protected static Counter numStatementCacheMisses = new Counter();
     protected static Average queryDuration = new Average();
+    protected static Average batchSize = new Average();
+    protected static Average batchBacklogLimit = new Average();
 
     private static final long SECOND_SHIFT = 1;
     private static final long MINUTE_SHIFT = SECOND_SHIFT * 100;
@@ -114,11 +119,31 @@ public class Databases implements Initializable {
                                              "Slow JDBC Queries",
                                              numSlowQueries.getCount(),
                                              "/min");
+                collector.differentialMetric("jdbc_statement_cache_hits",
+                                             "db-statement-cache-hits",
+                                             "JDBC Statement Cache Hits",
+                                             numStatementCacheHits.getCount(),
+                                             "/min");
+                collector.differentialMetric("jdbc_statement_cache_misses",
+                                             "db-statement-cache-misses",
+                                             "JDBC Statement Cache Misses",
+                                             numStatementCacheMisses.getCount(),
+                                             "/min");
                 collector.metric("jdbc_query_duration",
                                  "db-query-duration",
                                  "JDBC Query Duration",
                                  queryDuration.getAndClear(),
                                  "ms");
+                collector.metric("jdbc_batch_size",
+                                 "db-batch-size",
+                                 "JDBC Batch Size",
+                                 batchSize.getAndClear(),
+                                 null);
+                collector.metric("jdbc_batch_backlog_limit",
+                                 "db-batch-backlog-limit",
+                                 "JDBC Batch Backlog Limit",
+                                 batchBacklogLimit.getAndClear(),
+                                 null);
             }
         }
 
@@ -131,6 +156,17 @@ public class Databases implements Initializable {
         }
     }
 
+    /**
+     * Records the execution of a batch for the metrics reported by {@link DatabaseMetricProvider}.
+     *
+     * @param numberOfRows the number of rows which were executed as a batch
+     * @param backlogLimit the backlog limit which was in effect for the batch
+     */
+    public static void recordBatchExecution(int numberOfRows, int backlogLimit) {
+        batchSize.addValue(numberOfRows);
+        batchBacklogLimit.addValue(backlogLimit);
+    }
+
     @Override
     public void initialize() throws Exception {
         datasources.clear();
@@ -346,15 +382,38 @@ public class Databases implements Initializable {
      */
     public Row fetchGeneratedKeys(PreparedStatement statement) throws SQLException {
         try (ResultSet resultSet = statement.getGeneratedKeys()) {
-            Row row = new Row();
             if (resultSet != null && resultSet.next()) {
-                for (int column = 1; column <= resultSet.getMetaData().getColumnCount(); column++) {
-                    row.fields.put(resultSet.getMetaData().getColumnLabel(column).toUpperCase(),
-                                   Tuple.create(resultSet.getMetaData().getColumnLabel(column),
-                                                resultSet.getObject(column)));
-                }
+                return readGeneratedKeys(resultSet);
+            }
+            return new Row();
+        }
+    }
+
+    /**
+     * Returns the generated keys of all rows inserted by the given statement.
+     * <p>
+     * This is used for multi-row inserts, where the keys are reported in the order of the inserted rows.
+     *
+     * @param statement the statement which was used to perform an insert
+     * @return a list containing one row of generated keys per inserted row
+     * @throws SQLException in case of an error thrown by the database or driver
+     */
+    public List<Row> fetchAllGeneratedKeys(PreparedStatement statement) throws SQLException {
+        List<Row> result = new ArrayList<>();
+        try (ResultSet resultSet = statement.getGeneratedKeys()) {
+            while (resultSet != null && resultSet.next()) {
+                result.add(readGeneratedKeys(resultSet));
             }
-            return row;
         }
+        return result;
+    }
+
+    private Row readGeneratedKeys(ResultSet resultSet) throws SQLException {
+        Row row = new Row();
+        for (int column = 1; column <= resultSet.getMetaData().getColumnCount(); column++) {
+            row.fields.put(resultSet.getMetaData().getColumnLabel(column).toUpperCase(),
+                           Tuple.create(resultSet.getMetaData().getColumnLabel(column), resultSet.getObject(column)));
+        }
+        return row;
     }
 }
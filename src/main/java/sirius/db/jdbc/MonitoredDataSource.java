@@ -20,9 +20,22 @@ import java.sql.SQLException;
  * Even if connections are short-lived and not concurrently created, they could still drain the pool of local TCP ports
  * of the OS. Therefore we track the number of total created connections and warn if there are too many - this is
  * a strong indication that the connection pool is misconfigured and not working as expected anyway.
+ * <p>
+ * If a statement cache size is given, each physical connection is wrapped in a {@link StatementCachingConnection}.
  */
 class MonitoredDataSource extends BasicDataSource {
 
+    private int statementCacheSize;
+
+    /**
+     * Specifies the number of prepared statements to cache per physical connection.
+     *
+     * @param statementCacheSize the max number of cached statements per connection or 0 to disable the cache
+     */
+    void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
     @Override
     protected ConnectionFactory createConnectionFactory() throws SQLException {
         ConnectionFactory actualFactory = super.createConnectionFactory();
@@ -31,7 +44,12 @@ class MonitoredDataSource extends BasicDataSource {
             @Override
             public Connection createConnection() throws SQLException {
                 Databases.numConnects.inc();
-                return actualFactory.createConnection();
+                Connection connection = actualFactory.createConnection();
+                if (statementCacheSize > 0 && connection != null) {
+                    return new StatementCachingConnection(connection, statementCacheSize);
+                }
+
+                return connection;
             }
         };
     }
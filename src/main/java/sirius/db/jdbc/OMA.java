@@ -19,7 +19,6 @@ import sirius.db.mixing.OptimisticLockException;
 import sirius.db.mixing.Property;
 import sirius.db.mongo.SecondaryCapableMapper;
 import sirius.kernel.async.Future;
-import sirius.kernel.commons.Context;
 import sirius.kernel.commons.Strings;
 import sirius.kernel.commons.Tuple;
 import sirius.kernel.commons.Value;
@@ -35,9 +34,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -57,16 +59,19 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
     public static final SQLFilterFactory FILTERS = new SQLFilterFactory();
 
     private static final String SQL_WHERE_ID = " WHERE id = ?";
-    private static final String SQL_AND_VERSION = " AND version = ?";
 
-    @Part
-    private Schema schema;
+    /**
+     * Contains the maximal number of IDs which are resolved by a single query in {@link #findEntities}.
+     */
+    private static final int MAX_IDS_PER_FIND_ALL = 256;
 
     @Part
-    private Databases dbs;
+    private Schema schema;
 
     private Boolean ready;
 
+    private final Map<EntityDescriptor, CrudStatements> crudStatements = new ConcurrentHashMap<>();
+
     /**
      * Provides the underlying database instance used to perform the actual statements.
      * <p>
@@ -191,20 +196,26 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
 
     @Override
     protected void createEntity(SQLEntity entity, EntityDescriptor entityDescriptor) throws Exception {
-        Context insertData = Context.create();
-        for (Property property : entityDescriptor.getProperties()) {
-            if (!SQLEntity.ID.getName().equals(property.getName())) {
-                insertData.set(property.getPropertyName(), property.getValueForDatasource(OMA.class, entity));
+        CrudStatements statements = getCrudStatements(entityDescriptor);
+        List<Property> properties = statements.getProperties();
+        BitSet columns = new BitSet(properties.size());
+        List<Object> values = new ArrayList<>(properties.size() + 1);
+        for (int ordinal = 0; ordinal < properties.size(); ordinal++) {
+            Object value = properties.get(ordinal).getValueForDatasource(OMA.class, entity);
+            // Null values are skipped so that the default value of the column applies...
+            if (value != null) {
+                columns.set(ordinal);
+                values.add(value);
             }
         }
 
         if (entityDescriptor.isVersioned()) {
-            insertData.set(VERSION, 1);
+            values.add(1);
         }
 
         try {
             Row keys =
-                    getDatabase(entityDescriptor.getRealm()).insertRow(entityDescriptor.getRelationName(), insertData);
+                    getDatabase(entityDescriptor.getRealm()).executeInsert(statements.getInsertSQL(columns), values);
             loadCreatedId(entity, keys);
             entity.setVersion(1);
         } catch (SQLIntegrityConstraintViolationException exception) {
@@ -212,6 +223,16 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
         }
     }
 
+    /**
+     * Returns the cached CRUD statements for the given descriptor.
+     *
+     * @param entityDescriptor the descriptor of the entity type
+     * @return the statements used to create, update and delete entities of the given type
+     */
+    private CrudStatements getCrudStatements(EntityDescriptor entityDescriptor) {
+        return crudStatements.computeIfAbsent(entityDescriptor, CrudStatements::new);
+    }
+
     /**
      * Loads an auto generated ID from the given row.
      *
@@ -233,47 +254,27 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
 
     @Override
     protected void updateEntity(SQLEntity entity, boolean force, EntityDescriptor entityDescriptor) throws Exception {
-        StringBuilder sql = new StringBuilder("UPDATE ");
-        sql.append(entityDescriptor.getRelationName());
-        sql.append(" SET ");
-        List<Object> data = buildUpdateStatement(entity, entityDescriptor, sql);
-
-        if (data.isEmpty()) {
-            return;
+        if (entityDescriptor.isChanged(entity, entityDescriptor.getProperty(SQLEntity.ID.getName()))) {
+            throw new IllegalStateException("The id column of an entity must not be modified manually!");
         }
 
-        if (entityDescriptor.isVersioned()) {
-            if (!data.isEmpty()) {
-                sql.append(",");
-            }
-            sql.append("version = ? ");
-        }
-
-        sql.append(SQL_WHERE_ID);
-        if (entityDescriptor.isVersioned() && !force) {
-            sql.append(SQL_AND_VERSION);
-        }
-        executeUPDATE(entity, entityDescriptor, force, sql.toString(), data);
-    }
-
-    private List<Object> buildUpdateStatement(SQLEntity entity, EntityDescriptor entityDescriptor, StringBuilder sql) {
+        CrudStatements statements = getCrudStatements(entityDescriptor);
+        List<Property> properties = statements.getProperties();
+        BitSet changedColumns = new BitSet(properties.size());
         List<Object> data = new ArrayList<>();
-        for (Property property : entityDescriptor.getProperties()) {
+        for (int ordinal = 0; ordinal < properties.size(); ordinal++) {
+            Property property = properties.get(ordinal);
             if (entityDescriptor.isChanged(entity, property)) {
-                if (SQLEntity.ID.getName().equals(property.getName())) {
-                    throw new IllegalStateException("The id column of an entity must not be modified manually!");
-                }
-                if (!data.isEmpty()) {
-                    sql.append(", ");
-                }
-
-                sql.append(property.getPropertyName());
-                sql.append(" = ? ");
+                changedColumns.set(ordinal);
                 data.add(property.getValueForDatasource(OMA.class, entity));
             }
         }
 
-        return data;
+        if (data.isEmpty()) {
+            return;
+        }
+
+        executeUPDATE(entity, entityDescriptor, force, statements.getUpdateSQL(changedColumns, force), data);
     }
 
     private void executeUPDATE(SQLEntity entity,
@@ -326,16 +327,9 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
 
     @Override
     protected void deleteEntity(SQLEntity entity, boolean force, EntityDescriptor entityDescriptor) throws Exception {
-        StringBuilder sql = new StringBuilder("DELETE FROM ");
-        sql.append(entityDescriptor.getRelationName());
-        sql.append(SQL_WHERE_ID);
-
-        if (entityDescriptor.isVersioned() && !force) {
-            sql.append(SQL_AND_VERSION);
-        }
-
+        String sql = getCrudStatements(entityDescriptor).getDeleteSQL(force);
         try (Connection connection = getDatabase(entityDescriptor.getRealm()).getConnection()) {
-            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
                 statement.setLong(1, entity.getId());
                 if (entityDescriptor.isVersioned() && !force) {
                     statement.setInt(2, entity.getVersion());
@@ -432,22 +426,11 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
                     return Optional.empty();
                 }
 
-                Set<String> columns = dbs.readColumns(result);
-                E entity = (E) entityDescriptor.make(OMA.class, null, key -> {
-                    String effectiveKey = key.toUpperCase();
-                    if (!columns.contains(effectiveKey)) {
-                        return null;
-                    }
-
-                    try {
-                        return Value.of(result.getObject(effectiveKey));
-                    } catch (SQLException exception) {
-                        throw Exceptions.handle(OMA.LOG, exception);
-                    }
-                });
+                ResultSetColumns columns = new ResultSetColumns(result);
+                E entity = (E) columns.make(entityDescriptor.getRowMapper(OMA.class, null));
 
                 if (entityDescriptor.isVersioned()) {
-                    entity.setVersion(result.getInt(BaseMapper.VERSION.toUpperCase()));
+                    entity.setVersion(columns.readVersion());
                 }
 
                 return Optional.of(entity);
@@ -455,6 +438,84 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
         }
     }
 
+    /**
+     * Finds all entities with the given IDs using <tt>SELECT * FROM table WHERE id IN (...)</tt>.
+     * <p>
+     * The IDs are split into chunks of at most {@link #MAX_IDS_PER_FIND_ALL} IDs. Each chunk is padded (by repeating
+     * its last ID) to the next power of two, so that only a few distinct statements are generated, which can then be
+     * re-used by the statement cache of the database.
+     *
+     * @param ids              the IDs of the entities to find
+     * @param entityDescriptor the descriptor of the entities to find
+     * @param context          the advanced search context which can be populated using
+     *                         {@link sirius.db.mixing.ContextInfo context info elements}.
+     * @param <E>              the generic type of the entities to find
+     * @return all entities which were found
+     * @throws Exception in case of a database or system error
+     */
+    @Override
+    protected <E extends SQLEntity> List<E> findEntities(List<Object> ids,
+                                                         EntityDescriptor entityDescriptor,
+                                                         Function<String, Value> context) throws Exception {
+        Database database = context.apply(SecondaryCapableMapper.CONTEXT_IN_SECONDARY).asBoolean(false) ?
+                            getSecondaryDatabase(entityDescriptor.getRealm()) :
+                            getDatabase(entityDescriptor.getRealm());
+        List<E> result = new ArrayList<>(ids.size());
+        try (Connection connection = database.getConnection()) {
+            for (int start = 0; start < ids.size(); start += MAX_IDS_PER_FIND_ALL) {
+                execFindAll(ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_FIND_ALL)),
+                            entityDescriptor,
+                            connection,
+                            result);
+            }
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends SQLEntity> void execFindAll(List<Object> ids,
+                                                   EntityDescriptor entityDescriptor,
+                                                   Connection connection,
+                                                   List<E> result) throws Exception {
+        int numberOfParameters = Integer.highestOneBit(ids.size());
+        if (numberOfParameters < ids.size()) {
+            numberOfParameters <<= 1;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(entityDescriptor.getRelationName());
+        sql.append(" WHERE id IN (");
+        for (int i = 0; i < numberOfParameters; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("?");
+        }
+        sql.append(")");
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                                                                       ResultSet.TYPE_FORWARD_ONLY,
+                                                                       ResultSet.CONCUR_READ_ONLY)) {
+            for (int i = 0; i < numberOfParameters; i++) {
+                statement.setLong(i + 1, Value.of(ids.get(Math.min(i, ids.size() - 1))).asLong(-1));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetColumns columns = null;
+                while (resultSet.next()) {
+                    if (columns == null) {
+                        columns = new ResultSetColumns(resultSet);
+                    }
+                    E entity = (E) columns.make(entityDescriptor.getRowMapper(OMA.class, null));
+                    if (entityDescriptor.isVersioned()) {
+                        entity.setVersion(columns.readVersion());
+                    }
+                    result.add(entity);
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     protected <E extends SQLEntity> Optional<E> findEntity(E entity) {
@@ -479,6 +540,36 @@ public class OMA extends SecondaryCapableMapper<SQLEntity, SQLConstraint, SmartQ
                            .orElse(Value.EMPTY);
     }
 
+    /**
+     * Fetches the field values using <tt>SELECT id, field FROM table WHERE id IN (...)</tt>.
+     * <p>
+     * The IDs are split into chunks of at most {@link #MAX_IDS_PER_FIND_ALL} IDs.
+     *
+     * @param type  the type of the entities
+     * @param ids   the IDs of the entities (non-empty, without duplicates)
+     * @param field the field to resolve
+     * @return the field values keyed by the ID of their entity (as string)
+     * @throws Exception in case of a database error
+     */
+    @Override
+    public Map<String, Value> fetchFields(Class<? extends SQLEntity> type, List<?> ids, Mapping field)
+            throws Exception {
+        Property property = mixing.getDescriptor(type).getProperty(field);
+        Map<String, Value> result = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_FIND_ALL) {
+            List<?> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_FIND_ALL));
+            select(type).fields(SQLEntity.ID, field)
+                        .where(FILTERS.oneInField(SQLEntity.ID, chunk).build())
+                        .asSQLQuery()
+                        .iterateAll(row -> {
+                            Object value = property.transformFromDatasource(getClass(), row.getValue(field.toString()));
+                            result.put(row.getValue(SQLEntity.ID.toString()).asString(), Value.of(value));
+                        }, null);
+        }
+
+        return result;
+    }
+
     @Override
     protected int determineRetryTimeoutFactor() {
         return 50;
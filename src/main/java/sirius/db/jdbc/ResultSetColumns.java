@@ -0,0 +1,197 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc;
+
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityRowMapper;
+import sirius.kernel.commons.Value;
+import sirius.kernel.health.Exceptions;
+
+import javax.annotation.Nonnull;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Resolves the columns of a {@link ResultSet} once, so that all values can be read by their index.
+ * <p>
+ * Reading columns by name requires the driver to look up the column for each cell (and our own code to upper-case and
+ * hash the column name). This class performs the column label to index mapping once per result set and then uses
+ * typed getters for the most common column types.
+ */
+public class ResultSetColumns {
+
+    /**
+     * Represents the index which is returned for columns not present in the result set.
+     */
+    public static final int MISSING_COLUMN = 0;
+
+    private static final byte READ_OBJECT = 0;
+    private static final byte READ_LONG = 1;
+    private static final byte READ_INT = 2;
+    private static final byte READ_STRING = 3;
+
+    private static final String VERSION_COLUMN = BaseMapper.VERSION.toUpperCase();
+
+    private final ResultSet resultSet;
+    private final Map<String, Integer> indexByLabel;
+    private final byte[] readers;
+    private final int versionIndex;
+    private final Map<EntityRowMapper, int[]> resolvedMappers = new IdentityHashMap<>();
+
+    /**
+     * Resolves the columns of the given result set.
+     *
+     * @param resultSet the result set to read values from
+     * @throws SQLException in case of a database error
+     */
+    public ResultSetColumns(@Nonnull ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        this.indexByLabel = HashMap.newHashMap(columnCount);
+        this.readers = new byte[columnCount + 1];
+        for (int column = 1; column <= columnCount; column++) {
+            indexByLabel.putIfAbsent(metaData.getColumnLabel(column).toUpperCase(), column);
+            readers[column] = determineReader(metaData, column);
+        }
+        this.versionIndex = indexOf(VERSION_COLUMN);
+    }
+
+    /**
+     * Only uses typed getters where these yield the same Java type as <tt>getObject</tt> would, as the properties
+     * rely on the types provided by the driver.
+     */
+    private static byte determineReader(ResultSetMetaData metaData, int column) throws SQLException {
+        return switch (metaData.getColumnType(column)) {
+            case Types.BIGINT -> metaData.isSigned(column) ? READ_LONG : READ_OBJECT;
+            case Types.INTEGER -> metaData.isSigned(column) ? READ_INT : READ_OBJECT;
+            case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR -> READ_STRING;
+            default -> READ_OBJECT;
+        };
+    }
+
+    /**
+     * Determines the one-based index of the column with the given label.
+     *
+     * @param label the label of the column (case-insensitive)
+     * @return the one-based index of the column or {@link #MISSING_COLUMN} if the column isn't present
+     */
+    public int indexOf(String label) {
+        Integer index = indexByLabel.get(label.toUpperCase());
+        return index == null ? MISSING_COLUMN : index;
+    }
+
+    /**
+     * Determines if a column with the given label is present.
+     *
+     * @param label the label of the column (case-insensitive)
+     * @return <tt>true</tt> if the column is present, <tt>false</tt> otherwise
+     */
+    public boolean contains(String label) {
+        return indexOf(label) != MISSING_COLUMN;
+    }
+
+    /**
+     * Reads the value of the given column in the current row.
+     *
+     * @param index the one-based index of the column
+     * @return the value of the column
+     * @throws SQLException in case of a database error
+     */
+    public Value readValue(int index) throws SQLException {
+        return switch (readers[index]) {
+            case READ_LONG -> {
+                long value = resultSet.getLong(index);
+                yield resultSet.wasNull() ? Value.EMPTY : Value.of(value);
+            }
+            case READ_INT -> {
+                int value = resultSet.getInt(index);
+                yield resultSet.wasNull() ? Value.EMPTY : Value.of(value);
+            }
+            case READ_STRING -> Value.of(resultSet.getString(index));
+            default -> Value.of(resultSet.getObject(index));
+        };
+    }
+
+    /**
+     * Creates an entity from the current row using the given row mapper.
+     * <p>
+     * The column indices used by the mapper are resolved once per result set and then re-used for all rows.
+     *
+     * @param rowMapper the mapper used to create the entity
+     * @return the entity created from the current row
+     * @throws Exception in case of an error while building the entity
+     */
+    public Object make(EntityRowMapper rowMapper) throws Exception {
+        return make(rowMapper, false);
+    }
+
+    /**
+     * Creates an entity from the current row using the given row mapper.
+     *
+     * @param rowMapper the mapper used to create the entity
+     * @param readOnly  <tt>true</tt> to create a read-only entity which skips all change tracking
+     * @return the entity created from the current row
+     * @throws Exception in case of an error while building the entity
+     * @see EntityRowMapper#make(java.util.function.IntFunction, boolean)
+     */
+    public Object make(EntityRowMapper rowMapper, boolean readOnly) throws Exception {
+        int[] indices = resolvedMappers.computeIfAbsent(rowMapper, this::resolve);
+        return rowMapper.make(column -> {
+            int index = indices[column];
+            if (index == MISSING_COLUMN) {
+                return null;
+            }
+
+            try {
+                return readValue(index);
+            } catch (SQLException exception) {
+                throw Exceptions.handle(OMA.LOG, exception);
+            }
+        }, readOnly);
+    }
+
+    private int[] resolve(EntityRowMapper rowMapper) {
+        int[] indices = new int[rowMapper.getColumnCount()];
+        for (int column = 0; column < indices.length; column++) {
+            indices[column] = indexOf(rowMapper.getColumnName(column));
+        }
+
+        return indices;
+    }
+
+    /**
+     * Determines if the result set contains a version column.
+     *
+     * @return <tt>true</tt> if a version column is present, <tt>false</tt> otherwise
+     */
+    public boolean hasVersion() {
+        return versionIndex != MISSING_COLUMN;
+    }
+
+    /**
+     * Reads the version column of the current row.
+     *
+     * @return the version stored in the current row
+     * @throws SQLException in case of a database error
+     */
+    public int readVersion() throws SQLException {
+        return resultSet.getInt(versionIndex);
+    }
+
+    @Override
+    public String toString() {
+        return indexByLabel.keySet().toString();
+    }
+}
@@ -10,11 +10,12 @@ package sirius.db.jdbc;
 
 import sirius.db.jdbc.constraints.SQLConstraint;
 import sirius.db.mixing.BaseEntity;
-import sirius.db.mixing.BaseMapper;
 import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.EntityRowMapper;
 import sirius.db.mixing.Mapping;
 import sirius.db.mixing.properties.BaseEntityRefProperty;
 import sirius.db.mixing.properties.SQLEntityRefProperty;
+import sirius.db.mixing.query.BlockPrefetcher;
 import sirius.db.mixing.query.Query;
 import sirius.db.mixing.query.constraints.FilterFactory;
 import sirius.db.mixing.types.BaseEntityRef;
@@ -25,7 +26,6 @@ import sirius.kernel.commons.Monoflop;
 import sirius.kernel.commons.PullBasedSpliterator;
 import sirius.kernel.commons.Strings;
 import sirius.kernel.commons.Tuple;
-import sirius.kernel.commons.Value;
 import sirius.kernel.commons.Watch;
 import sirius.kernel.di.std.Part;
 import sirius.kernel.health.Exceptions;
@@ -63,9 +63,6 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
     @Part
     private static OMA oma;
 
-    @Part
-    private static Databases dbs;
-
     protected List<Mapping> fields = Collections.emptyList();
     protected List<String> aggregationFields = Collections.emptyList();
     protected boolean distinct;
@@ -350,17 +347,28 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
         if (forceFail) {
             return Stream.empty();
         }
-        return StreamSupport.stream(new SmartQuerySpliterator(), false);
+        SmartQuerySpliterator spliterator = new SmartQuerySpliterator();
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
     }
 
     private class SmartQuerySpliterator extends PullBasedSpliterator<E> {
         private E lastValue = null;
         private List<Object> orderByValuesOfLastEntityDuringFetch = null;
+        private List<Object> orderByValuesOfLastPrefetchedEntity = null;
         private final TaskContext taskContext = TaskContext.get();
         private final SmartQuery<E> adjustedQuery;
+        private final BlockPrefetcher<E> prefetcher;
 
         private SmartQuerySpliterator() {
             adjustedQuery = adjustQuery(SmartQuery.this);
+            if (prefetchedBlocks > 0) {
+                prefetcher = new BlockPrefetcher<>(descriptor.getRelationName(),
+                                                   prefetchedBlocks,
+                                                   taskContext,
+                                                   this::prefetchNextBlock);
+            } else {
+                prefetcher = null;
+            }
         }
 
         @Override
@@ -374,7 +382,10 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
                 return null;
             }
 
-            List<E> block = queryNextBlock();
+            List<E> block = prefetcher != null ? takePrefetchedBlock() : queryNextBlock();
+            if (block == null) {
+                return null;
+            }
             if (!block.isEmpty()) {
                 lastValue = block.getLast();
                 orderByValuesOfLastEntityDuringFetch = extractOrderByValues(lastValue);
@@ -382,6 +393,33 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
             return block.iterator();
         }
 
+        private List<E> takePrefetchedBlock() {
+            // The next block has already been fetched based on the values of the last entity, therefore we can only
+            // verify that it wasn't modified by the consumer once it has been processed...
+            if (lastValue != null) {
+                ensureLastValueUnchanged();
+            }
+            return prefetcher.nextBlock();
+        }
+
+        /**
+         * Invoked by the background thread of the prefetcher, therefore this must only rely on the order by values
+         * which were extracted when fetching the previous block, as the entities are concurrently being processed.
+         */
+        private List<E> prefetchNextBlock() {
+            List<E> block = queryBlockAfter(orderByValuesOfLastPrefetchedEntity);
+            if (!block.isEmpty()) {
+                orderByValuesOfLastPrefetchedEntity = extractOrderByValues(block.getLast());
+            }
+            return block;
+        }
+
+        private void close() {
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+        }
+
         private SmartQuery<E> adjustQuery(SmartQuery<E> query) {
             SmartQuery<E> adjusted = query.copy();
 
@@ -420,12 +458,15 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
         }
 
         private List<E> queryNextBlock() {
-            SmartQuery<E> effectiveQuery = adjustedQuery.copy().limit(MAX_LIST_SIZE);
-
             if (lastValue == null) {
-                return effectiveQuery.queryList();
+                return queryBlockAfter(null);
             }
 
+            ensureLastValueUnchanged();
+            return queryBlockAfter(orderByValuesOfLastEntityDuringFetch);
+        }
+
+        private void ensureLastValueUnchanged() {
             List<Object> orderByValuesOfLastEntity = extractOrderByValues(lastValue);
             if (!orderByValuesOfLastEntityDuringFetch.equals(orderByValuesOfLastEntity)) {
                 throw new IllegalStateException(Strings.apply(
@@ -434,13 +475,22 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
                         orderByValuesOfLastEntityDuringFetch,
                         orderByValuesOfLastEntity));
             }
+        }
+
+        private List<E> queryBlockAfter(@Nullable List<Object> orderByValuesOfLastEntity) {
+            SmartQuery<E> effectiveQuery = adjustedQuery.copy().limit(MAX_LIST_SIZE);
+
+            if (orderByValuesOfLastEntity == null) {
+                return effectiveQuery.queryList();
+            }
 
             SQLConstraint sortingFilterConstraint = null;
             Map<Mapping, Object> previousSortingColumns = new HashMap<>();
-            for (Tuple<Mapping, Boolean> sorting : effectiveQuery.orderBys) {
+            for (int index = 0; index < effectiveQuery.orderBys.size(); index++) {
+                Tuple<Mapping, Boolean> sorting = effectiveQuery.orderBys.get(index);
                 Mapping sortColumn = sorting.getFirst();
                 boolean sortAscending = sorting.getSecond().booleanValue();
-                Object value = getPropertyValue(sortColumn, lastValue);
+                Object value = orderByValuesOfLastEntity.get(index);
 
                 SQLConstraint currentColumConstraint =
                         createSqlConstraintForSortingColumn(sortAscending, sortColumn, value, previousSortingColumns);
@@ -581,6 +631,9 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
         copy.limit = limit;
         copy.skip = skip;
         copy.indexHints = indexHints;
+        copy.readOnly = readOnly;
+        copy.prefetchedBlocks = prefetchedBlocks;
+        copy.prefetchedReferences = new ArrayList<>(prefetchedReferences);
 
         return copy;
     }
@@ -616,11 +669,12 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
                                Limit limit,
                                boolean nativeLimit,
                                ResultSet resultSet) throws Exception {
-        Set<String> columns = dbs.readColumns(resultSet);
+        ResultSetColumns columns = new ResultSetColumns(resultSet);
+        EntityRowMapper rowMapper = descriptor.getRowMapper(OMA.class, null);
         while (resultSet.next()) {
             if (nativeLimit || limit.nextRow()) {
-                SQLEntity entity = makeEntity(descriptor, null, columns, resultSet);
-                compiler.executeJoinFetches(entity, columns, resultSet);
+                SQLEntity entity = makeEntity(rowMapper, columns, readOnly);
+                compiler.executeJoinFetches(entity, columns, readOnly);
                 if (!handler.test((E) entity)) {
                     return;
                 }
@@ -631,18 +685,12 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
         }
     }
 
-    private static SQLEntity makeEntity(EntityDescriptor descriptor, String alias, Set<String> columns, ResultSet rs)
+    private static SQLEntity makeEntity(EntityRowMapper rowMapper, ResultSetColumns columns, boolean readOnly)
             throws Exception {
-        SQLEntity result = (SQLEntity) descriptor.make(OMA.class, alias, key -> {
-            try {
-                return columns.contains(key.toUpperCase()) ? Value.of(rs.getObject(key)) : null;
-            } catch (SQLException e) {
-                throw Exceptions.handle(OMA.LOG, e);
-            }
-        });
+        SQLEntity result = (SQLEntity) columns.make(rowMapper, readOnly);
 
-        if (descriptor.isVersioned() && columns.contains(BaseMapper.VERSION.toUpperCase())) {
-            result.setVersion(rs.getInt(BaseMapper.VERSION.toUpperCase()));
+        if (rowMapper.getDescriptor().isVersioned() && columns.hasVersion()) {
+            result.setVersion(columns.readVersion());
         }
 
         return result;
@@ -669,6 +717,7 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
         private static class JoinFetch {
             String tableAlias;
             SQLEntityRefProperty property;
+            EntityRowMapper rowMapper;
             Map<String, JoinFetch> subFetches = new TreeMap<>();
         }
 
@@ -832,6 +881,8 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
                     Tuple<String, EntityDescriptor> parentInfo = determineAlias(col);
                     subFetch.tableAlias = parentInfo.getFirst();
                     subFetch.property = (SQLEntityRefProperty) currentDescriptor.getProperty(col.getName());
+                    subFetch.rowMapper =
+                            subFetch.property.getReferencedDescriptor().getRowMapper(OMA.class, subFetch.tableAlias);
                     jf.subFetches.put(col.getName(), subFetch);
                 }
                 jf = subFetch;
@@ -843,19 +894,19 @@ public class SmartQuery<E extends SQLEntity> extends Query<SmartQuery<E>, E, SQL
             return fields.stream().anyMatch(field -> field.toString().equals(col.toString()));
         }
 
-        protected void executeJoinFetches(SQLEntity entity, Set<String> columns, ResultSet rs) {
-            executeJoinFetch(rootFetch, entity, columns, rs);
+        protected void executeJoinFetches(SQLEntity entity, ResultSetColumns columns, boolean readOnly) {
+            executeJoinFetch(rootFetch, entity, columns, readOnly);
         }
 
-        private void executeJoinFetch(JoinFetch jf, SQLEntity parent, Set<String> columns, ResultSet rs) {
+        private void executeJoinFetch(JoinFetch jf, SQLEntity parent, ResultSetColumns columns, boolean readOnly) {
             try {
                 SQLEntity child = parent;
                 if (jf.property != null) {
-                    child = makeEntity(jf.property.getReferencedDescriptor(), jf.tableAlias, columns, rs);
+                    child = makeEntity(jf.rowMapper, columns, readOnly);
                     jf.property.setReferencedEntity(parent, child);
                 }
                 for (JoinFetch subFetch : jf.subFetches.values()) {
-                    executeJoinFetch(subFetch, child, columns, rs);
+                    executeJoinFetch(subFetch, child, columns, readOnly);
                 }
             } catch (Exception e) {
                 throw Exceptions.handle()
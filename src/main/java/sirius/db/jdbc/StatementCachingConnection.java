@@ -0,0 +1,232 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc;
+
+import org.apache.commons.dbcp2.DelegatingPreparedStatement;
+import sirius.kernel.health.Exceptions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps an LRU cache of prepared statements for a physical connection.
+ * <p>
+ * This is placed below the connection pool (see {@link MonitoredDataSource}), as the pool closes all statements of a
+ * connection once it is returned. Therefore, the statements are closed by the pool, but only returned into the cache
+ * of the physical connection. A subsequent borrower which prepares the same SQL with the same options (e.g. a
+ * primary key lookup) can then re-use the statement without paying for another (server side) prepare.
+ * <p>
+ * Hits and misses are reported by {@link Databases.DatabaseMetricProvider}. If a statement is still in use when the
+ * same SQL is prepared again, a separate statement is created which isn't cached.
+ */
+class StatementCachingConnection extends DelegatingConnection<Connection> {
+
+    private static final int UNSPECIFIED = -1;
+
+    private final Map<StatementKey, CachedPreparedStatement> cache;
+
+    private record StatementKey(String sql,
+                                int resultSetType,
+                                int resultSetConcurrency,
+                                int resultSetHoldability,
+                                int autoGeneratedKeys) {
+    }
+
+    @FunctionalInterface
+    private interface StatementPreparer {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    StatementCachingConnection(Connection delegate, int maxStatements) {
+        super(delegate);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedPreparedStatement> eldest) {
+                if (size() <= maxStatements) {
+                    return false;
+                }
+
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql,
+                                              int resultSetType,
+                                              int resultSetConcurrency,
+                                              int resultSetHoldability) throws SQLException {
+        return prepareCached(new StatementKey(sql,
+                                              resultSetType,
+                                              resultSetConcurrency,
+                                              resultSetHoldability,
+                                              UNSPECIFIED),
+                             () -> delegate.prepareStatement(sql,
+                                                             resultSetType,
+                                                             resultSetConcurrency,
+                                                             resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        return prepareCached(new StatementKey(sql, resultSetType, resultSetConcurrency, UNSPECIFIED, UNSPECIFIED),
+                             () -> delegate.prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return prepareCached(new StatementKey(sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, autoGeneratedKeys),
+                             () -> delegate.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return prepareCached(new StatementKey(sql, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED, UNSPECIFIED),
+                             () -> delegate.prepareStatement(sql));
+    }
+
+    private PreparedStatement prepareCached(StatementKey key, StatementPreparer preparer) throws SQLException {
+        synchronized (cache) {
+            CachedPreparedStatement statement = cache.get(key);
+            if (statement != null && !statement.inUse) {
+                statement.inUse = true;
+                Databases.numStatementCacheHits.inc();
+                return statement;
+            }
+
+            Databases.numStatementCacheMisses.inc();
+            if (statement != null) {
+                // The cached statement is still in use (e.g. by an outer loop), so we use a separate one...
+                return preparer.prepare();
+            }
+
+            statement = new CachedPreparedStatement(key, preparer.prepare());
+            cache.put(key, statement);
+            return statement;
+        }
+    }
+
+    private void release(CachedPreparedStatement statement) throws SQLException {
+        synchronized (cache) {
+            if (!statement.inUse) {
+                return;
+            }
+
+            statement.inUse = false;
+            if (statement.evicted) {
+                statement.closeDelegate();
+                return;
+            }
+
+            try {
+                statement.reset();
+            } catch (SQLException exception) {
+                cache.remove(statement.key);
+                statement.closeDelegate();
+                throw exception;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        List<CachedPreparedStatement> statements;
+        synchronized (cache) {
+            statements = new ArrayList<>(cache.values());
+            cache.clear();
+        }
+
+        for (CachedPreparedStatement statement : statements) {
+            try {
+                statement.closeDelegate();
+            } catch (SQLException exception) {
+                Exceptions.ignore(exception);
+            }
+        }
+
+        delegate.close();
+    }
+
+    /**
+     * Wraps a statement so that closing it returns it into the cache instead of actually closing it.
+     */
+    private final class CachedPreparedStatement extends DelegatingPreparedStatement {
+
+        private final StatementKey key;
+        private final PreparedStatement cachedStatement;
+        private final int initialFetchSize;
+        private final int initialMaxRows;
+        private final int initialQueryTimeout;
+        private boolean inUse = true;
+        private boolean evicted;
+
+        CachedPreparedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+            super(null, statement);
+            this.key = key;
+            this.cachedStatement = statement;
+            this.initialFetchSize = statement.getFetchSize();
+            this.initialMaxRows = statement.getMaxRows();
+            this.initialQueryTimeout = statement.getQueryTimeout();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            release(this);
+        }
+
+        /**
+         * Resets the state which a previous user might have changed so that the statement behaves like a new one.
+         */
+        private void reset() throws SQLException {
+            ResultSet resultSet = cachedStatement.getResultSet();
+            if (resultSet != null) {
+                resultSet.close();
+            }
+
+            cachedStatement.clearParameters();
+            cachedStatement.clearBatch();
+            cachedStatement.clearWarnings();
+            if (cachedStatement.getFetchSize() != initialFetchSize) {
+                cachedStatement.setFetchSize(initialFetchSize);
+            }
+            if (cachedStatement.getMaxRows() != initialMaxRows) {
+                cachedStatement.setMaxRows(initialMaxRows);
+            }
+            if (cachedStatement.getQueryTimeout() != initialQueryTimeout) {
+                cachedStatement.setQueryTimeout(initialQueryTimeout);
+            }
+        }
+
+        /**
+         * Invoked once the statement has been removed from the cache.
+         */
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    closeDelegate();
+                } catch (SQLException exception) {
+                    Exceptions.ignore(exception);
+                }
+            }
+        }
+
+        private void closeDelegate() throws SQLException {
+            cachedStatement.close();
+        }
+    }
+}
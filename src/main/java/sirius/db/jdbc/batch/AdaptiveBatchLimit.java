@@ -0,0 +1,111 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc.batch;
+
+import java.time.Duration;
+
+/**
+ * Determines the batch backlog limit of a query based on the duration of previous flushes.
+ * <p>
+ * After each flush, the duration per row is used to estimate how many rows can be executed within the target
+ * duration. The limit then moves towards this estimate, but at most doubles or halves per flush, so that a single
+ * outlier cannot cause a drastic change. If a flush took more than twice the target duration (e.g. as the
+ * statement was blocked by locks), the limit is halved right away, as each row of a batch keeps its locks until the
+ * batch is committed.
+ * <p>
+ * The limit is always kept within the given bounds, where the upper bound also limits the memory being occupied by
+ * the parameters of a pending batch.
+ *
+ * @see BatchQuery#withAdaptiveBatchLimit(Duration)
+ * @see sirius.db.jdbc.batch.external.ExternalBatchQuery#withAdaptiveBatchLimit(Duration)
+ */
+public class AdaptiveBatchLimit {
+
+    /**
+     * Defines the default lower bound of the batch backlog.
+     */
+    public static final int DEFAULT_MIN_BACKLOG = 16;
+
+    /**
+     * Defines the default upper bound of the batch backlog.
+     */
+    public static final int DEFAULT_MAX_BACKLOG = 10_000;
+
+    private final long targetMillis;
+    private final int minBacklog;
+    private final int maxBacklog;
+    private int limit;
+
+    /**
+     * Creates a new adaptive limit.
+     *
+     * @param targetFlushDuration the desired duration of a single flush
+     * @param minBacklog          the minimal batch backlog to use
+     * @param maxBacklog          the maximal batch backlog to use
+     * @param initialLimit        the limit to start with
+     */
+    public AdaptiveBatchLimit(Duration targetFlushDuration, int minBacklog, int maxBacklog, int initialLimit) {
+        if (minBacklog < 1 || maxBacklog < minBacklog) {
+            throw new IllegalArgumentException("Invalid bounds for the batch backlog: "
+                                               + minBacklog
+                                               + " - "
+                                               + maxBacklog);
+        }
+
+        this.targetMillis = Math.max(1, targetFlushDuration.toMillis());
+        this.minBacklog = minBacklog;
+        this.maxBacklog = maxBacklog;
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Records the execution of a batch and adjusts the limit accordingly.
+     * <p>
+     * Batches which are way smaller than the current limit (e.g. explicit commits or the last batch being flushed
+     * on close) are ignored, as their duration is dominated by the fixed overhead of a round trip.
+     *
+     * @param batchSize      the number of rows which were executed
+     * @param durationMillis the duration of the flush in milliseconds
+     * @return the new limit to use
+     */
+    public int recordFlush(int batchSize, long durationMillis) {
+        if (durationMillis > 2 * targetMillis) {
+            limit = clamp(Math.min(limit, batchSize) / 2);
+            return limit;
+        }
+
+        if (batchSize < limit / 2) {
+            return limit;
+        }
+
+        long estimatedLimit = durationMillis <= 0 ? 2L * batchSize : batchSize * targetMillis / durationMillis;
+        long boundedEstimate = Math.clamp(estimatedLimit, limit / 2, 2L * limit);
+        limit = clamp((limit + boundedEstimate) / 2);
+
+        return limit;
+    }
+
+    private int clamp(long value) {
+        return (int) Math.clamp(value, minBacklog, maxBacklog);
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the number of rows after which a batch should be flushed
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return limit + " (adaptive, target: " + targetMillis + " ms)";
+    }
+}
@@ -14,8 +14,10 @@ import sirius.db.jdbc.OMA;
 import sirius.db.jdbc.Operator;
 import sirius.db.jdbc.SQLEntity;
 import sirius.db.mixing.Mapping;
+import sirius.kernel.async.CallContext;
 import sirius.kernel.async.Operation;
 import sirius.kernel.commons.Tuple;
+import sirius.kernel.commons.UnitOfWork;
 import sirius.kernel.di.std.Part;
 import sirius.kernel.health.Exceptions;
 import sirius.kernel.health.HandledException;
@@ -32,11 +34,21 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
  * Bundles the preparation and execution of a bunch of {@link BatchQuery batch queries}.
  * <p>
+ * By default, each batch is executed and committed by the thread which adds the entity that fills the batch. Using
+ * {@link #withBackgroundFlushes(int)}, filled batches are handed to a dedicated background thread instead, so that
+ * preparing the next batch overlaps with writing the previous one into the database.
+ * <p>
  * Note that this context can only operate on databases managed via {@link sirius.db.mixing.Mixing}. To
  * perform batch operations against external JDBC databases use {@link sirius.db.jdbc.batch.external.ExternalBatchContext}.
  */
@@ -50,6 +62,12 @@ public class BatchContext implements Closeable {
     private Map<String, Connection> connectionsPerRealm = new HashMap<>();
     private final Operation op;
 
+    private ExecutorService flushExecutor;
+    private Semaphore pendingFlushPermits;
+    private final List<Future<?>> pendingFlushes = new ArrayList<>();
+    private final ReentrantLock connectionLock = new ReentrantLock();
+    private volatile HandledException backgroundFailure;
+
     /**
      * Creates a new context with the given debugging description and the expected runtime.
      *
@@ -60,6 +78,163 @@ public class BatchContext implements Closeable {
         this.op = new Operation(description, expectedDuration);
     }
 
+    /**
+     * Executes filled batches in a background thread.
+     * <p>
+     * Once a batch is filled, its parameters are handed to a dedicated (virtual) thread which executes and commits the
+     * batch, while the caller can already continue to prepare the next one. The batch is executed within a fork of the
+     * {@link CallContext} of the caller. All statements of this context are then executed
+     * by this thread, or while holding a lock which guarantees that the connections are never used concurrently.
+     * <p>
+     * If the given number of batches is already waiting to be executed, adding another batch blocks until one has
+     * been completed. Errors which occur in the background are reported on the next attempt to add a batch or
+     * execute a statement, or at the latest when {@link #close() closing} the context. Note that
+     * {@link BatchQuery#commit()} and {@link #tryCommit()} wait until all batches have been executed.
+     * <p>
+     * Note that this has to be enabled before the first query is created.
+     *
+     * @param maxPendingBatches the maximal number of batches which wait to be executed
+     * @return the context itself for fluent method calls
+     */
+    public BatchContext withBackgroundFlushes(int maxPendingBatches) {
+        if (queries == null) {
+            reportIllegalState();
+        }
+        if (!queries.isEmpty()) {
+            throw new IllegalStateException("Background flushes have to be enabled before creating any query.");
+        }
+
+        this.pendingFlushPermits = new Semaphore(Math.max(1, maxPendingBatches));
+        this.flushExecutor =
+                Executors.newSingleThreadExecutor(Thread.ofVirtual().name("batch-context-flush").factory());
+        return this;
+    }
+
+    /**
+     * Determines if filled batches are executed in the background.
+     *
+     * @return <tt>true</tt> if background flushes are enabled, <tt>false</tt> otherwise
+     */
+    public boolean isFlushingInBackground() {
+        return flushExecutor != null;
+    }
+
+    /**
+     * Schedules the given flush to be executed by the background thread.
+     * <p>
+     * This blocks if the maximal number of pending batches has been reached.
+     *
+     * @param flush the flush to execute while holding the connection lock
+     */
+    protected void submitFlush(UnitOfWork flush) {
+        checkBackgroundFailure();
+        try {
+            pendingFlushPermits.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(exception)
+                            .withSystemErrorMessage("Interrupted while waiting for a pending batch to complete.")
+                            .handle();
+        }
+
+        pendingFlushes.removeIf(Future::isDone);
+        CallContext callContext = CallContext.getCurrent();
+        try {
+            pendingFlushes.add(flushExecutor.submit(() -> executeFlush(callContext, flush)));
+        } catch (RuntimeException exception) {
+            pendingFlushPermits.release();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(exception)
+                            .withSystemErrorMessage("Failed to schedule a batch for background execution: %s (%s)")
+                            .handle();
+        }
+    }
+
+    private void executeFlush(CallContext callContext, UnitOfWork flush) {
+        CallContext.setCurrent(callContext.fork());
+        lockConnections();
+        try {
+            if (backgroundFailure == null) {
+                flush.execute();
+            }
+        } catch (Exception exception) {
+            backgroundFailure = Exceptions.handle()
+                                          .to(OMA.LOG)
+                                          .error(exception)
+                                          .withSystemErrorMessage("An error occurred while executing a batch in the"
+                                                                  + " background: %s (%s)")
+                                          .handle();
+        } finally {
+            unlockConnections();
+            pendingFlushPermits.release();
+        }
+    }
+
+    /**
+     * Blocks until all batches which have been handed to the background thread have been executed.
+     *
+     * @throws HandledException if an error occurred while executing a batch in the background
+     */
+    protected void awaitBackgroundFlushes() {
+        if (!isFlushingInBackground()) {
+            return;
+        }
+
+        try {
+            for (Future<?> flush : pendingFlushes) {
+                flush.get();
+            }
+            pendingFlushes.clear();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(exception)
+                            .withSystemErrorMessage("Interrupted while waiting for pending batches to complete.")
+                            .handle();
+        } catch (ExecutionException exception) {
+            throw Exceptions.handle(OMA.LOG, exception.getCause());
+        }
+
+        checkBackgroundFailure();
+    }
+
+    /**
+     * Throws the error which occurred while executing a batch in the background (if any).
+     * <p>
+     * Once an error occurred, no further batches are executed, as the connection might be in an inconsistent state.
+     *
+     * @throws HandledException if an error occurred while executing a batch in the background
+     */
+    protected void checkBackgroundFailure() {
+        if (backgroundFailure != null) {
+            throw backgroundFailure;
+        }
+    }
+
+    /**
+     * Acquires exclusive access to the connections of this context.
+     * <p>
+     * This is only required if batches are executed in the background, otherwise this is a no-op.
+     */
+    protected void lockConnections() {
+        if (isFlushingInBackground()) {
+            connectionLock.lock();
+        }
+    }
+
+    /**
+     * Releases the access acquired via {@link #lockConnections()}.
+     */
+    protected void unlockConnections() {
+        if (isFlushingInBackground()) {
+            connectionLock.unlock();
+        }
+    }
+
     private <Q extends BatchQuery<?>> Q register(Q query) {
         if (queries == null) {
             reportIllegalState();
@@ -118,6 +293,14 @@ public class BatchContext implements Closeable {
     }
 
     protected void safeClose() {
+        if (isFlushingInBackground() && !connectionLock.isHeldByCurrentThread()) {
+            try {
+                awaitBackgroundFlushes();
+            } catch (HandledException e) {
+                Exceptions.ignore(e);
+            }
+        }
+
         if (queries != null) {
             for (BatchQuery<?> query : queries) {
                 try {
@@ -236,6 +419,40 @@ public class BatchContext implements Closeable {
         return insertQuery(type, true, mappingsToInsert);
     }
 
+    /**
+     * Creates a new {@link UpsertQuery upsert query}.
+     *
+     * @param type             the type of entities to upsert
+     * @param conflictMappings the mappings which form a unique key and therefore determine if a row already exists
+     * @param mappingsToUpdate the fields or mappings to update if a row already exists. If empty, all fields except
+     *                         the id and the conflict mappings are updated
+     * @param <E>              the generic type of the entities to upsert
+     * @return the query used to insert or update entities in the database
+     */
+    public <E extends SQLEntity> UpsertQuery<E> upsertQuery(Class<E> type,
+                                                            List<Mapping> conflictMappings,
+                                                            Mapping... mappingsToUpdate) {
+        return register(new UpsertQuery<>(this,
+                                          type,
+                                          simplifyMappings(conflictMappings.toArray(Mapping[]::new)),
+                                          Arrays.stream(mappingsToUpdate).map(Mapping::getName).toList()));
+    }
+
+    /**
+     * Creates a new {@link BulkLoader bulk loader}.
+     * <p>
+     * Note that the loader uses the connection of this context, therefore all pending batches of other queries
+     * should be committed before the load is started.
+     *
+     * @param type           the type of entities to load
+     * @param mappingsToLoad the fields or mappings to load. If empty, all fields except the id are loaded
+     * @param <E>            the generic type of the entities to load
+     * @return the loader used to stream entities into the database
+     */
+    public <E extends SQLEntity> BulkLoader<E> bulkLoader(Class<E> type, Mapping... mappingsToLoad) {
+        return new BulkLoader<>(this, type, Arrays.stream(mappingsToLoad).map(Mapping::getName).toList());
+    }
+
     /**
      * Creates a new {@link UpdateQuery update query}.
      *
@@ -353,7 +570,15 @@ public class BatchContext implements Closeable {
         queries = null;
         connectionsPerRealm = null;
 
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+
         op.close();
+
+        if (backgroundFailure != null) {
+            throw backgroundFailure;
+        }
     }
 
     /**
@@ -9,6 +9,7 @@
 package sirius.db.jdbc.batch;
 
 import sirius.db.jdbc.Capability;
+import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.OMA;
 import sirius.db.jdbc.Operator;
 import sirius.db.jdbc.SQLEntity;
@@ -16,6 +17,8 @@ import sirius.db.mixing.BaseMapper;
 import sirius.db.mixing.EntityDescriptor;
 import sirius.db.mixing.Mixing;
 import sirius.db.mixing.Property;
+import sirius.db.util.BaseEntityCache;
+import sirius.db.util.DeferredCacheInvalidations;
 import sirius.kernel.commons.Explain;
 import sirius.kernel.commons.Monoflop;
 import sirius.kernel.commons.Tuple;
@@ -30,6 +33,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -49,7 +54,14 @@ public abstract class BatchQuery<E extends SQLEntity> {
     protected BatchContext context;
     protected PreparedStatement stmt;
     protected int batchBacklog;
-    protected int batchBacklogLimit = MAX_BATCH_BACKLOG;
+
+    /**
+     * Contains the current batch size. This is volatile, as an adaptive limit is updated by the background thread
+     * when using {@link BatchContext#withBackgroundFlushes(int) background flushes}.
+     */
+    protected volatile int batchBacklogLimit = MAX_BATCH_BACKLOG;
+
+    protected AdaptiveBatchLimit adaptiveBatchLimit;
     protected Class<E> type;
     protected final List<Tuple<Operator, String>> filters;
     protected List<Tuple<Operator, Property>> properties;
@@ -57,6 +69,40 @@ public abstract class BatchQuery<E extends SQLEntity> {
     protected String query;
     protected Average average = new Average();
 
+    /**
+     * Contains the parameters of the current row if batches are executed in the background.
+     */
+    protected final List<Object> currentParameters = new ArrayList<>();
+
+    /**
+     * Contains the parameters of all rows of the current batch if batches are executed in the background.
+     */
+    protected List<Object[]> pendingParameters = new ArrayList<>();
+
+    /**
+     * Contains the entities of the current batch which have to be purged from the entity caches once the batch has
+     * been executed.
+     */
+    protected DeferredCacheInvalidations pendingInvalidations = new DeferredCacheInvalidations();
+
+    /**
+     * Executes a statement and produces a result.
+     *
+     * @param <T> the type of the result
+     * @param <X> the type of exceptions thrown by the task
+     */
+    @FunctionalInterface
+    protected interface StatementTask<T, X extends Exception> {
+        /**
+         * Executes the given statement.
+         *
+         * @param statement the statement which has been filled with the current parameters
+         * @return the result of the execution
+         * @throws X in case of an error during the execution
+         */
+        T execute(PreparedStatement statement) throws X;
+    }
+
     @Part
     protected static OMA oma;
 
@@ -76,6 +122,48 @@ public abstract class BatchQuery<E extends SQLEntity> {
         this.filters = Collections.unmodifiableList(filters);
     }
 
+    /**
+     * Determines if this query addresses a single row by its ID.
+     *
+     * @return <tt>true</tt> if the only filter is an equality check of the ID, <tt>false</tt> otherwise
+     */
+    protected boolean isFilteringById() {
+        return filters.size() == 1
+               && filters.getFirst().getFirst() == Operator.EQ
+               && SQLEntity.ID.getName().equals(filters.getFirst().getSecond());
+    }
+
+    /**
+     * Purges the entities affected by writing the given entity from the entity caches.
+     * <p>
+     * If the query doesn't address rows by their ID, all entities of the type are purged, as the affected IDs are
+     * unknown.
+     *
+     * @param entity the entity which has been written
+     */
+    protected void invalidateCaches(E entity) {
+        if (isFilteringById()) {
+            BaseEntityCache.invalidate(entity);
+        } else {
+            BaseEntityCache.invalidateAll(entity.getClass());
+        }
+    }
+
+    /**
+     * Records the entities affected by writing the given entity so that they are purged from the entity caches once
+     * the current batch has been executed.
+     *
+     * @param entity the entity which is being written
+     * @see #invalidateCaches(SQLEntity)
+     */
+    protected void invalidateCachesAfterBatch(E entity) {
+        if (isFilteringById()) {
+            pendingInvalidations.add(entity);
+        } else {
+            pendingInvalidations.addAllOfType(entity.getClass());
+        }
+    }
+
     /**
      * Specifies a custom batch size for this query.
      *
@@ -83,9 +171,60 @@ public abstract class BatchQuery<E extends SQLEntity> {
      */
     public void withCustomBatchLimit(int maxBacklog) {
         this.batchBacklogLimit = maxBacklog;
+        this.adaptiveBatchLimit = null;
+    }
+
+    /**
+     * Adapts the batch size of this query so that each flush takes about the given duration.
+     * <p>
+     * The batch size is kept within {@link AdaptiveBatchLimit#DEFAULT_MIN_BACKLOG} and
+     * {@link AdaptiveBatchLimit#DEFAULT_MAX_BACKLOG}.
+     *
+     * @param targetFlushDuration the desired duration of a single flush
+     * @see AdaptiveBatchLimit
+     */
+    public void withAdaptiveBatchLimit(Duration targetFlushDuration) {
+        withAdaptiveBatchLimit(targetFlushDuration,
+                               AdaptiveBatchLimit.DEFAULT_MIN_BACKLOG,
+                               AdaptiveBatchLimit.DEFAULT_MAX_BACKLOG);
+    }
+
+    /**
+     * Adapts the batch size of this query so that each flush takes about the given duration.
+     *
+     * @param targetFlushDuration the desired duration of a single flush
+     * @param minBacklog          the minimal batch size to use
+     * @param maxBacklog          the maximal batch size to use. This limits the memory being occupied by a pending
+     *                            batch as well as the number of rows being locked by a single flush
+     * @see AdaptiveBatchLimit
+     */
+    public void withAdaptiveBatchLimit(Duration targetFlushDuration, int minBacklog, int maxBacklog) {
+        this.adaptiveBatchLimit =
+                new AdaptiveBatchLimit(targetFlushDuration, minBacklog, maxBacklog, batchBacklogLimit);
+        this.batchBacklogLimit = adaptiveBatchLimit.getLimit();
+    }
+
+    /**
+     * Records the execution of a batch and adapts the batch size if requested.
+     *
+     * @param numberOfRows   the number of rows which were executed
+     * @param durationMillis the duration of the flush
+     */
+    protected void recordFlush(int numberOfRows, long durationMillis) {
+        average.addValues(numberOfRows, durationMillis);
+        Databases.recordBatchExecution(numberOfRows, batchBacklogLimit);
+        if (adaptiveBatchLimit != null) {
+            batchBacklogLimit = adaptiveBatchLimit.recordFlush(numberOfRows, durationMillis);
+        }
     }
 
     protected void tryCommit(boolean cascade) {
+        if (context.isFlushingInBackground()) {
+            submitPendingParameters();
+            context.awaitBackgroundFlushes();
+            return;
+        }
+
         if (stmt == null) {
             return;
         }
@@ -98,8 +237,9 @@ public abstract class BatchQuery<E extends SQLEntity> {
                     // Do not send a commit statement for connections using auto-commit
                     stmt.getConnection().commit();
                 }
-                average.addValues(batchBacklog, w.elapsedMillis());
+                recordFlush(batchBacklog, w.elapsedMillis());
                 batchBacklog = 0;
+                pendingInvalidations.invalidate();
             } catch (SQLException e) {
                 if (cascade) {
                     context.safeClose();
@@ -128,6 +268,16 @@ public abstract class BatchQuery<E extends SQLEntity> {
     @SuppressWarnings("resource")
     @Explain("We close the statement later, this is just an intermediate")
     protected void addBatch() throws SQLException {
+        if (context.isFlushingInBackground()) {
+            context.checkBackgroundFailure();
+            pendingParameters.add(currentParameters.toArray());
+            batchBacklog++;
+            if (batchBacklog > batchBacklogLimit) {
+                submitPendingParameters();
+            }
+            return;
+        }
+
         prepareStmt().addBatch();
         batchBacklog++;
         if (batchBacklog > batchBacklogLimit) {
@@ -135,6 +285,116 @@ public abstract class BatchQuery<E extends SQLEntity> {
         }
     }
 
+    /**
+     * Hands the current batch to the background thread of the context.
+     */
+    private void submitPendingParameters() {
+        if (pendingParameters.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = pendingParameters;
+        DeferredCacheInvalidations invalidations = pendingInvalidations.detach();
+        pendingParameters = new ArrayList<>();
+        batchBacklog = 0;
+        context.submitFlush(() -> {
+            executeBatch(rows);
+            invalidations.invalidate();
+        });
+    }
+
+    /**
+     * Executes the given rows as batch.
+     * <p>
+     * This is invoked by the background thread of the context while holding the connection lock.
+     *
+     * @param rows the parameters of the rows to execute
+     * @throws SQLException in case of a database error
+     */
+    private void executeBatch(List<Object[]> rows) throws SQLException {
+        Watch w = Watch.start();
+        PreparedStatement statement = prepareStmt();
+        for (Object[] row : rows) {
+            for (int index = 0; index < row.length; index++) {
+                Databases.convertAndSetParameter(statement, index + 1, row[index]);
+            }
+            statement.addBatch();
+        }
+
+        statement.executeBatch();
+        if (!statement.getConnection().getAutoCommit()) {
+            // Do not send a commit statement for connections using auto-commit
+            statement.getConnection().commit();
+        }
+        recordFlush(rows.size(), w.elapsedMillis());
+    }
+
+    /**
+     * Sets the given parameter of the current row.
+     * <p>
+     * If batches are executed in the background, the value is only recorded and applied once the row is executed.
+     *
+     * @param oneBasedIndex the one-based index of the parameter to set
+     * @param value         the parameter value to set
+     * @throws SQLException in case of a database error
+     */
+    protected void bindParameter(int oneBasedIndex, Object value) throws SQLException {
+        if (!context.isFlushingInBackground()) {
+            Databases.convertAndSetParameter(prepareStmt(), oneBasedIndex, value);
+            return;
+        }
+
+        while (currentParameters.size() < oneBasedIndex) {
+            currentParameters.add(null);
+        }
+        currentParameters.set(oneBasedIndex - 1, value);
+    }
+
+    /**
+     * Resets all parameters of the current row.
+     *
+     * @throws SQLException in case of a database error
+     */
+    protected void clearBoundParameters() throws SQLException {
+        if (context.isFlushingInBackground()) {
+            currentParameters.clear();
+        } else {
+            prepareStmt().clearParameters();
+        }
+    }
+
+    /**
+     * Executes the statement of this query for the current row immediately.
+     * <p>
+     * If batches are executed in the background, this ensures that the connection isn't used concurrently and applies
+     * the recorded parameters to the statement first.
+     *
+     * @param task the task which executes the statement
+     * @param <T>  the type of the result
+     * @param <X>  the type of exceptions thrown by the task
+     * @return the result of the given task
+     * @throws SQLException in case of a database error
+     * @throws X            in case of an error within the task
+     */
+    protected <T, X extends Exception> T executeStatement(StatementTask<T, X> task) throws SQLException, X {
+        if (!context.isFlushingInBackground()) {
+            return task.execute(prepareStmt());
+        }
+
+        context.checkBackgroundFailure();
+        context.lockConnections();
+        try {
+            PreparedStatement statement = prepareStmt();
+            for (int index = 0; index < currentParameters.size(); index++) {
+                Databases.convertAndSetParameter(statement, index + 1, currentParameters.get(index));
+            }
+
+            return task.execute(statement);
+        } finally {
+            context.unlockConnections();
+        }
+    }
+
     /**
      * Prepares a new statement for the given sql and options.
      *
@@ -209,7 +469,7 @@ public abstract class BatchQuery<E extends SQLEntity> {
      * Closes the query by executing the last batch and releasing all resources.
      */
     public void close() {
-        if (stmt == null) {
+        if (stmt == null && !context.isFlushingInBackground()) {
             return;
         }
 
@@ -269,6 +529,10 @@ public abstract class BatchQuery<E extends SQLEntity> {
             sb.append("|Backlog: ");
             sb.append(batchBacklog);
         }
+        if (adaptiveBatchLimit != null) {
+            sb.append("|Limit: ");
+            sb.append(adaptiveBatchLimit);
+        }
         if (average.getCount() > 0) {
             sb.append("|Executed: ");
             sb.append(average.getCount());
@@ -34,10 +34,13 @@ public class BatchSQLQuery extends BaseSQLQuery {
     protected void doIterate(Predicate<Row> handler, @Nullable Limit limit) throws SQLException {
         Watch watch = Watch.start();
 
-        try (ResultSet resultSet = query.prepareStmt().executeQuery()) {
-            query.average.addValue(watch.elapsedMillis());
-            processResultSet(handler, limit, resultSet);
-        }
+        query.executeStatement(statement -> {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                query.average.addValue(watch.elapsedMillis());
+                processResultSet(handler, limit, resultSet);
+            }
+            return null;
+        });
     }
 
     @Override
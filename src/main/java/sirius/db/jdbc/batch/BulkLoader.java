@@ -0,0 +1,429 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc.batch;
+
+import sirius.db.jdbc.Capability;
+import sirius.db.jdbc.Database;
+import sirius.db.jdbc.OMA;
+import sirius.db.jdbc.SQLEntity;
+import sirius.db.jdbc.schema.DatabaseDialect;
+import sirius.db.jdbc.schema.Schema;
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Mixing;
+import sirius.db.mixing.Property;
+import sirius.kernel.commons.Watch;
+import sirius.kernel.di.std.Part;
+import sirius.kernel.health.Average;
+import sirius.kernel.health.Exceptions;
+import sirius.kernel.nls.NLS;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Loads large amounts of entities into the database using the native bulk load mechanism of the database.
+ * <p>
+ * Instead of sending one (batched) <tt>INSERT</tt> per entity, the entities are serialized into a stream of tab
+ * separated values which is directly handed to the driver (e.g. <tt>LOAD DATA LOCAL INFILE</tt> for MariaDB and
+ * MySQL or the <tt>TabSeparatedWithNames</tt> format for Clickhouse). The stream is filled while the database
+ * consumes it, therefore neither the serialized data nor the entities need to be kept in memory or written into a
+ * temporary file.
+ * <p>
+ * The database has to report {@link Capability#BULK_LOAD}, the realm has to have a {@link DatabaseDialect dialect}
+ * configured and the server has to {@link DatabaseDialect#isBulkLoadPermitted(Connection) permit} bulk loads.
+ * Otherwise, the entities are inserted using batched <tt>INSERT</tt> statements (see {@link #isSupported()}). Note
+ * that generated IDs are not fetched for loaded entities.
+ *
+ * @param <E> the generic type of entities to load
+ * @see BatchContext#bulkLoader(Class, sirius.db.mixing.Mapping...)
+ */
+public class BulkLoader<E extends SQLEntity> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String NULL_VALUE = "\\N";
+    private static final char SEPARATOR = '\t';
+    private static final char LINE_END = '\n';
+
+    private final BatchContext context;
+    private final Class<E> type;
+    private final List<String> mappingsToLoad;
+    private final List<Property> properties;
+    private final EntityDescriptor descriptor;
+    private final Average average = new Average();
+    private long totalRows;
+    private Boolean bulkLoadPermitted;
+
+    @Part
+    private static Mixing mixing;
+
+    @Part
+    private static OMA oma;
+
+    @Part
+    private static Schema schema;
+
+    protected BulkLoader(BatchContext context, Class<E> type, List<String> mappingsToLoad) {
+        this.context = context;
+        this.type = type;
+        this.mappingsToLoad = mappingsToLoad;
+        this.descriptor = mixing.getDescriptor(type);
+        if (mappingsToLoad.isEmpty()) {
+            this.properties = descriptor.getProperties()
+                                        .stream()
+                                        .filter(property -> !SQLEntity.ID.getName().equals(property.getName()))
+                                        .toList();
+        } else {
+            this.properties = mappingsToLoad.stream().map(descriptor::getProperty).toList();
+        }
+    }
+
+    /**
+     * Determines if the database of the entities supports bulk loads.
+     *
+     * @return <tt>true</tt> if {@link #load(Stream, boolean)} uses the native bulk load mechanism, <tt>false</tt> if
+     * it falls back to batched inserts
+     */
+    public boolean isSupported() {
+        Database database = oma.getDatabase(descriptor.getRealm());
+        if (database == null || !database.hasCapability(Capability.BULK_LOAD)) {
+            return false;
+        }
+
+        return schema.getDialect(descriptor.getRealm())
+                     .map(dialect -> isBulkLoadPermitted(database, dialect))
+                     .orElse(false);
+    }
+
+    private boolean isBulkLoadPermitted(Database database, DatabaseDialect dialect) {
+        if (bulkLoadPermitted == null) {
+            try (Connection connection = database.getConnection()) {
+                bulkLoadPermitted = dialect.isBulkLoadPermitted(connection);
+            } catch (SQLException e) {
+                Exceptions.handle()
+                          .to(OMA.LOG)
+                          .error(e)
+                          .withSystemErrorMessage("Failed to determine if bulk loads are permitted for %s: %s (%s)",
+                                                  descriptor.getRealm())
+                          .handle();
+                bulkLoadPermitted = false;
+            }
+        }
+
+        return bulkLoadPermitted;
+    }
+
+    /**
+     * Loads all entities of the given stream into the database.
+     * <p>
+     * The data is committed once all entities have been loaded. If an error occurs (either in the database or while
+     * serializing the entities), the stream handed to the driver is aborted, so that the statement fails instead of
+     * loading a truncated payload. The connection is then rolled back and the batch context is closed. Note that
+     * databases without transactions (like Clickhouse) might still keep rows which have already been received.
+     * <p>
+     * If checks are invoked, the after save handlers are only invoked once all entities have been loaded
+     * successfully. Therefore, the entities are kept in memory until then.
+     * <p>
+     * If bulk loads are not {@link #isSupported() supported}, the entities are inserted using batched
+     * <tt>INSERT</tt> statements instead.
+     *
+     * @param entities     the entities to load
+     * @param invokeChecks determines if before- and after save checks should be performed (<tt>true</tt>) or
+     *                     skipped (<tt>false</tt>)
+     * @return the number of loaded entities
+     * @throws sirius.kernel.health.HandledException in case of a database error
+     */
+    public long load(@Nonnull Stream<E> entities, boolean invokeChecks) {
+        if (!isSupported()) {
+            return insertAll(entities, invokeChecks);
+        }
+
+        DatabaseDialect dialect = schema.getDialect(descriptor.getRealm()).orElseThrow();
+        try {
+            Watch watch = Watch.start();
+            long numberOfRows = loadLocked(dialect, entities, invokeChecks);
+            average.addValue(watch.elapsedMillis());
+            totalRows += numberOfRows;
+            return numberOfRows;
+        } catch (SQLException e) {
+            context.safeClose();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("A database error occurred while bulk loading %s: %s (%s)",
+                                                    type.getName())
+                            .handle();
+        } catch (Exception e) {
+            context.safeClose();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("An error occurred while bulk loading %s: %s (%s)",
+                                                    type.getName())
+                            .handle();
+        } catch (Error e) {
+            context.safeClose();
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts all entities using a batched {@link InsertQuery} as fallback for databases without bulk load support.
+     */
+    private long insertAll(Stream<E> entities, boolean invokeChecks) {
+        Watch watch = Watch.start();
+        InsertQuery<E> insert = new InsertQuery<>(context, type, false, mappingsToLoad);
+        try {
+            long numberOfRows = 0;
+            Iterator<E> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                insert.insert(iterator.next(), invokeChecks, true);
+                numberOfRows++;
+            }
+            insert.commit();
+
+            average.addValue(watch.elapsedMillis());
+            totalRows += numberOfRows;
+            return numberOfRows;
+        } finally {
+            insert.close();
+        }
+    }
+
+    private long loadLocked(DatabaseDialect dialect, Stream<E> entities, boolean invokeChecks) throws Exception {
+        context.lockConnections();
+        try {
+            Connection connection = context.getConnection(descriptor.getRealm());
+            List<E> loadedEntities = new ArrayList<>();
+            long numberOfRows;
+            try {
+                numberOfRows = streamInto(dialect, connection, entities, invokeChecks ? loadedEntities : null);
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            } catch (Exception | Error e) {
+                rollback(connection);
+                throw e;
+            }
+
+            loadedEntities.forEach(descriptor::afterSave);
+            return numberOfRows;
+        } finally {
+            context.unlockConnections();
+        }
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            Exceptions.ignore(e);
+        }
+    }
+
+    /**
+     * Serializes the entities into a pipe, while a separate thread hands the other end of the pipe to the driver.
+     * <p>
+     * If the serialization fails, the pipe is aborted and the loader is awaited, so that the driver never sees a
+     * regular end of the (truncated) data and the connection is no longer in use once this method returns.
+     */
+    private long streamInto(DatabaseDialect dialect,
+                            Connection connection,
+                            Stream<E> entities,
+                            @Nullable List<E> loadedEntities) throws Exception {
+        AtomicReference<Exception> loadFailure = new AtomicReference<>();
+        PipedInputStream input = new PipedInputStream(BUFFER_SIZE);
+        Writer writer =
+                new BufferedWriter(new OutputStreamWriter(new PipedOutputStream(input), StandardCharsets.UTF_8),
+                                   BUFFER_SIZE);
+        List<String> columns = determineColumns();
+        Thread loader = Thread.ofVirtual().name("bulk-load-" + descriptor.getRelationName()).start(() -> {
+            try (input) {
+                dialect.bulkLoad(connection, descriptor.getRelationName(), columns, input);
+            } catch (Exception e) {
+                loadFailure.set(e);
+            }
+        });
+
+        long numberOfRows;
+        try {
+            numberOfRows = writeRows(dialect, writer, columns, entities, loadedEntities);
+            writer.close();
+        } catch (Exception | Error e) {
+            abort(loader, input, writer);
+            // If the loader failed and closed the pipe, its error is more relevant...
+            if (e instanceof IOException && loadFailure.get() != null) {
+                throw loadFailure.get();
+            }
+            throw e;
+        }
+
+        loader.join();
+        if (loadFailure.get() != null) {
+            throw loadFailure.get();
+        }
+
+        return numberOfRows;
+    }
+
+    /**
+     * Aborts the pipe so that the driver fails while reading instead of seeing a regular end of the data.
+     * <p>
+     * The reading end is closed before the writing end and the loader is interrupted in case it is blocked while
+     * waiting for more data. Once the loader has terminated, the writing end is closed as well.
+     */
+    private void abort(Thread loader, PipedInputStream input, Writer writer) throws InterruptedException {
+        try {
+            input.close();
+        } catch (IOException e) {
+            Exceptions.ignore(e);
+        }
+
+        loader.interrupt();
+        loader.join();
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Exceptions.ignore(e);
+        }
+    }
+
+    private List<String> determineColumns() {
+        List<String> columns = new ArrayList<>(properties.stream().map(Property::getPropertyName).toList());
+        if (descriptor.isVersioned()) {
+            columns.add(BaseMapper.VERSION);
+        }
+
+        return columns;
+    }
+
+    private long writeRows(DatabaseDialect dialect,
+                           Writer writer,
+                           List<String> columns,
+                           Stream<E> entities,
+                           @Nullable List<E> loadedEntities) throws IOException {
+        writer.write(String.join(String.valueOf(SEPARATOR), columns));
+        writer.write(LINE_END);
+
+        long numberOfRows = 0;
+        Iterator<E> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            E entity = iterator.next();
+            if (loadedEntities != null) {
+                descriptor.beforeSave(entity);
+                loadedEntities.add(entity);
+            }
+
+            writeRow(dialect, writer, entity);
+            numberOfRows++;
+        }
+
+        writer.flush();
+        return numberOfRows;
+    }
+
+    private void writeRow(DatabaseDialect dialect, Writer writer, E entity) throws IOException {
+        boolean first = true;
+        for (Property property : properties) {
+            if (!first) {
+                writer.write(SEPARATOR);
+            }
+            first = false;
+            writeValue(dialect, writer, property.getValueForDatasource(OMA.class, entity));
+        }
+
+        if (descriptor.isVersioned()) {
+            if (!first) {
+                writer.write(SEPARATOR);
+            }
+            writer.write("1");
+        }
+
+        writer.write(LINE_END);
+    }
+
+    private void writeValue(DatabaseDialect dialect, Writer writer, Object value) throws IOException {
+        switch (value) {
+            case null -> writer.write(NULL_VALUE);
+            case Timestamp timestamp -> writer.write(dialect.formatBulkLoadTimestamp(timestamp));
+            case BigDecimal decimal -> writer.write(decimal.toPlainString());
+            case Number number -> writer.write(number.toString());
+            case Object[] array -> writeEscaped(writer, formatArray(array));
+            default -> writeEscaped(writer, value.toString());
+        }
+    }
+
+    /**
+     * Formats an array (as used by Clickhouse for lists) as array literal.
+     */
+    private String formatArray(Object[] array) {
+        StringBuilder result = new StringBuilder("[");
+        for (int index = 0; index < array.length; index++) {
+            if (index > 0) {
+                result.append(",");
+            }
+            result.append("'");
+            result.append(String.valueOf(array[index]).replace("\\", "\\\\").replace("'", "\\'"));
+            result.append("'");
+        }
+        result.append("]");
+
+        return result.toString();
+    }
+
+    private void writeEscaped(Writer writer, String value) throws IOException {
+        for (int index = 0; index < value.length(); index++) {
+            char ch = value.charAt(index);
+            switch (ch) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(ch);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(descriptor.getRelationName());
+        sb.append(" [bulk load");
+        if (average.getCount() > 0) {
+            sb.append("|Loads: ");
+            sb.append(average.getCount());
+            sb.append("|Rows: ");
+            sb.append(totalRows);
+            sb.append("|Duration: ");
+            sb.append(NLS.toUserString(average.getAvg()));
+            sb.append(" ms");
+        }
+        sb.append("]");
+
+        return sb.toString();
+    }
+}
@@ -14,7 +14,6 @@ import sirius.db.jdbc.SQLEntity;
 import sirius.kernel.di.std.Part;
 
 import javax.annotation.Nullable;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collections;
 
@@ -49,8 +48,7 @@ public class CustomQuery extends BatchQuery<SQLEntity> {
      * @throws SQLException in case of a database error
      */
     public void clearParameters() throws SQLException {
-        PreparedStatement stmt = prepareStmt();
-        stmt.clearParameters();
+        clearBoundParameters();
     }
 
     /**
@@ -61,8 +59,7 @@ public class CustomQuery extends BatchQuery<SQLEntity> {
      * @throws SQLException in case of a database error
      */
     public void setParameter(int oneBasedIndex, Object value) throws SQLException {
-        PreparedStatement stmt = prepareStmt();
-        Databases.convertAndSetParameter(stmt, oneBasedIndex, value);
+        bindParameter(oneBasedIndex, value);
     }
 
     /**
@@ -73,13 +70,15 @@ public class CustomQuery extends BatchQuery<SQLEntity> {
      */
     @Nullable
     public Row executeUpdate() throws SQLException {
-        prepareStmt().executeUpdate();
-        prepareStmt().getConnection().commit();
-        if (fetchId) {
-            return dbs.fetchGeneratedKeys(stmt);
-        } else {
-            return null;
-        }
+        return executeStatement(statement -> {
+            statement.executeUpdate();
+            statement.getConnection().commit();
+            if (fetchId) {
+                return dbs.fetchGeneratedKeys(statement);
+            } else {
+                return null;
+            }
+        });
     }
 
     /**
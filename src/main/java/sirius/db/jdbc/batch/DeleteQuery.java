@@ -8,7 +8,6 @@
 
 package sirius.db.jdbc.batch;
 
-import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.OMA;
 import sirius.db.jdbc.Operator;
 import sirius.db.jdbc.SQLEntity;
@@ -18,7 +17,6 @@ import sirius.kernel.commons.Watch;
 import sirius.kernel.health.Exceptions;
 
 import javax.annotation.Nonnull;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -61,12 +59,9 @@ public class DeleteQuery<E extends SQLEntity> extends BatchQuery<E> {
                 getDescriptor().beforeDelete(example);
             }
 
-            PreparedStatement stmt = prepareStmt();
             int i = 1;
             for (Tuple<Operator, Property> filter : getPropertyFilters()) {
-                Databases.convertAndSetParameter(stmt,
-                                                 i++,
-                                                 filter.getSecond().getValueForDatasource(OMA.class, example));
+                bindParameter(i++, filter.getSecond().getValueForDatasource(OMA.class, example));
             }
 
             if (descriptor.isVersioned()) {
@@ -78,15 +73,20 @@ public class DeleteQuery<E extends SQLEntity> extends BatchQuery<E> {
                                             descriptor.getType())
                                     .handle();
                 }
-                Databases.convertAndSetParameter(stmt, i, example.getVersion());
+                bindParameter(i, example.getVersion());
             }
 
             if (addBatch) {
+                invalidateCachesAfterBatch(example);
                 addBatch();
             } else {
-                stmt.executeUpdate();
-                stmt.getConnection().commit();
+                executeStatement(stmt -> {
+                    stmt.executeUpdate();
+                    stmt.getConnection().commit();
+                    return null;
+                });
                 average.addValue(w.elapsedMillis());
+                invalidateCaches(example);
             }
 
             if (invokeChecks) {
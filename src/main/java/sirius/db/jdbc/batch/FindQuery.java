@@ -8,23 +8,29 @@
 
 package sirius.db.jdbc.batch;
 
-import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.OMA;
+import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.Operator;
+import sirius.db.jdbc.ResultSetColumns;
 import sirius.db.jdbc.SQLEntity;
-import sirius.db.mixing.BaseMapper;
 import sirius.db.mixing.Property;
+import sirius.kernel.commons.Monoflop;
 import sirius.kernel.commons.Tuple;
-import sirius.kernel.commons.Value;
 import sirius.kernel.commons.Watch;
-import sirius.kernel.di.std.Part;
 import sirius.kernel.health.Exceptions;
 
 import javax.annotation.Nonnull;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -33,13 +39,27 @@ import java.util.Set;
  * <p>
  * A query is created by enumerating which mappings to compare in order to identify the entity. The query
  * is then supplied with an example entity from which the search values are derived.
+ * <p>
+ * Using {@link #findAll(Collection)} many example entities can be resolved at once, which is way more efficient than
+ * issuing a single select per example.
  *
  * @param <E> the generic type of entities to find with this query
  */
 public class FindQuery<E extends SQLEntity> extends BatchQuery<E> {
 
-    @Part
-    private static Databases dbs;
+    /**
+     * Contains the default maximal number of keys being looked up per statement by {@link #findAll(Collection)}.
+     */
+    public static final int DEFAULT_MAX_KEYS_PER_STATEMENT = 256;
+
+    /**
+     * Most JDBC drivers (and MySQL / MariaDB server side prepared statements) cannot handle statements with more than
+     * 32767 placeholders.
+     */
+    private static final int MAX_PARAMETERS_PER_STATEMENT = Short.MAX_VALUE;
+
+    private int maxKeysPerStatement = DEFAULT_MAX_KEYS_PER_STATEMENT;
+    private final Map<Integer, PreparedStatement> multiKeyStatements = new HashMap<>();
 
     protected FindQuery(BatchContext context, Class<E> type, List<Tuple<Operator, String>> filters) {
         super(context, type, filters);
@@ -60,23 +80,106 @@ public class FindQuery<E extends SQLEntity> extends BatchQuery<E> {
             }
 
             Watch w = Watch.start();
-            PreparedStatement stmt = prepareStmt();
             int i = 1;
             for (Tuple<Operator, Property> filter : getPropertyFilters()) {
-                Databases.convertAndSetParameter(stmt,
-                                                 i++,
-                                                 filter.getSecond().getValueForDatasource(OMA.class, example));
+                bindParameter(i++, filter.getSecond().getValueForDatasource(OMA.class, example));
             }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (!rs.next()) {
-                    return Optional.empty();
+            return executeStatement(stmt -> {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+
+                    return Optional.of((E) make(rs));
+                } finally {
+                    average.addValue(w.elapsedMillis());
                 }
+            });
+        } catch (SQLException e) {
+            context.safeClose();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage(
+                                    "A database error occurred while executing a FindQuery for %s: %s (%s)",
+                                    type.getName())
+                            .handle();
+        } catch (Exception e) {
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("An error occurred while executing a FindQuery for %s: %s (%s)",
+                                                    type.getName())
+                            .handle();
+        }
+    }
+
+    /**
+     * Specifies the maximal number of keys being looked up by a single statement in {@link #findAll(Collection)}.
+     * <p>
+     * Note that the number is automatically reduced so that a statement doesn't exceed 32767 parameters.
+     *
+     * @param maxKeysPerStatement the maximal number of keys per statement
+     * @return the query itself for fluent method calls
+     */
+    public FindQuery<E> withMaxKeysPerStatement(int maxKeysPerStatement) {
+        if (!multiKeyStatements.isEmpty()) {
+            throw new IllegalStateException("The number of keys per statement has to be specified before the first"
+                                            + " lookup.");
+        }
 
-                return Optional.of((E) make(rs));
-            } finally {
-                average.addValue(w.elapsedMillis());
+        int maxKeysPerParameterLimit = Math.max(1, MAX_PARAMETERS_PER_STATEMENT / Math.max(1, filters.size()));
+        this.maxKeysPerStatement = Math.max(1, Math.min(maxKeysPerStatement, maxKeysPerParameterLimit));
+        return this;
+    }
+
+    /**
+     * Tries to find the real database entities for all the given example entities.
+     * <p>
+     * Instead of one select per example, the distinct keys are resolved in chunks using
+     * <tt>WHERE (a, b) IN ((?, ?), ...)</tt>. As a statement is prepared per chunk size, the chunks are padded to
+     * the next power of two (by repeating a key), so that only a few statements need to be prepared and can be
+     * re-used by subsequent calls. Examples which contain a <tt>null</tt> value in one of the compared mappings are
+     * resolved via {@link #find(SQLEntity)}, as <tt>IN</tt> never matches <tt>null</tt>.
+     * <p>
+     * Note that this is only supported if all mappings are compared for equality. Also note that the keys are
+     * compared in Java, therefore a case-insensitive collation of the database might lead to matches which are not
+     * reported.
+     *
+     * @param examples the example entities to search by
+     * @return a map which contains the matching entity for each found key, where the key is the list of the values of
+     * the compared mappings (as they are sent to the database) in the order in which the mappings were given
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public Map<List<Object>, E> findAll(@Nonnull Collection<E> examples) {
+        if (getPropertyFilters().stream().anyMatch(filter -> filter.getFirst() != Operator.EQ)) {
+            throw new IllegalStateException("findAll is only supported if all mappings are compared for equality.");
+        }
+
+        Map<List<Object>, E> result = new HashMap<>();
+        Set<List<Object>> keysToLookup = new LinkedHashSet<>();
+        for (E example : examples) {
+            if (this.type == null) {
+                this.type = (Class<E>) example.getClass();
+            }
+
+            List<Object> key = computeKey(example);
+            if (key.contains(null)) {
+                find(example).ifPresent(entity -> result.put(key, entity));
+            } else {
+                keysToLookup.add(key);
+            }
+        }
+
+        try {
+            List<List<Object>> keys = new ArrayList<>(keysToLookup);
+            for (int offset = 0; offset < keys.size(); offset += maxKeysPerStatement) {
+                lookupChunk(keys.subList(offset, Math.min(keys.size(), offset + maxKeysPerStatement)), result);
             }
+
+            return result;
         } catch (SQLException e) {
             context.safeClose();
             throw Exceptions.handle()
@@ -96,6 +199,124 @@ public class FindQuery<E extends SQLEntity> extends BatchQuery<E> {
         }
     }
 
+    private List<Object> computeKey(SQLEntity entity) {
+        Object[] key = new Object[filters.size()];
+        int index = 0;
+        for (Tuple<Operator, Property> filter : getPropertyFilters()) {
+            key[index++] = filter.getSecond().getValueForDatasource(OMA.class, entity);
+        }
+
+        return Arrays.asList(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void lookupChunk(List<List<Object>> keys, Map<List<Object>, E> result) throws Exception {
+        Watch w = Watch.start();
+        int chunkSize = determineChunkSize(keys.size());
+        context.checkBackgroundFailure();
+        context.lockConnections();
+        try {
+            PreparedStatement statement = prepareMultiKeyStmt(chunkSize);
+            int parameterIndex = 1;
+            for (int index = 0; index < chunkSize; index++) {
+                // Pad the chunk by repeating the last key, which doesn't change the result...
+                for (Object value : keys.get(Math.min(index, keys.size() - 1))) {
+                    Databases.convertAndSetParameter(statement, parameterIndex++, value);
+                }
+            }
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    SQLEntity entity = make(rs);
+                    result.put(computeKey(entity), (E) entity);
+                }
+            }
+        } finally {
+            context.unlockConnections();
+            average.addValue(w.elapsedMillis());
+        }
+    }
+
+    private int determineChunkSize(int numberOfKeys) {
+        int chunkSize = Integer.highestOneBit(numberOfKeys);
+        if (chunkSize < numberOfKeys) {
+            chunkSize <<= 1;
+        }
+
+        return Math.min(maxKeysPerStatement, chunkSize);
+    }
+
+    private PreparedStatement prepareMultiKeyStmt(int numberOfKeys) throws SQLException {
+        PreparedStatement statement = multiKeyStatements.get(numberOfKeys);
+        if (statement == null) {
+            statement = context.getConnection(getDescriptor().getRealm())
+                               .prepareStatement(buildMultiKeySQL(numberOfKeys),
+                                                 ResultSet.TYPE_FORWARD_ONLY,
+                                                 ResultSet.CONCUR_READ_ONLY);
+            multiKeyStatements.put(numberOfKeys, statement);
+        }
+
+        return statement;
+    }
+
+    private String buildMultiKeySQL(int numberOfKeys) {
+        List<Tuple<Operator, Property>> propertyFilters = getPropertyFilters();
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(getDescriptor().getRelationName());
+        sql.append(" WHERE ");
+
+        String placeholders = "?";
+        if (propertyFilters.size() > 1) {
+            sql.append("(");
+            Monoflop mf = Monoflop.create();
+            for (Tuple<Operator, Property> filter : propertyFilters) {
+                if (mf.successiveCall()) {
+                    sql.append(", ");
+                }
+                sql.append(filter.getSecond().getPropertyName());
+            }
+            sql.append(")");
+            placeholders = "(" + String.join(", ", Collections.nCopies(propertyFilters.size(), "?")) + ")";
+        } else {
+            sql.append(propertyFilters.getFirst().getSecond().getPropertyName());
+        }
+
+        sql.append(" IN (");
+        sql.append(String.join(", ", Collections.nCopies(numberOfKeys, placeholders)));
+        sql.append(")");
+
+        return sql.toString();
+    }
+
+    @Override
+    public void close() {
+        if (stmt == null && !multiKeyStatements.isEmpty()) {
+            safeClose();
+            context.unregister(this);
+            return;
+        }
+
+        super.close();
+    }
+
+    @Override
+    protected void safeClose() {
+        for (PreparedStatement statement : multiKeyStatements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                Exceptions.handle()
+                          .to(OMA.LOG)
+                          .error(e)
+                          .withSystemErrorMessage("An error occurred while closing a prepared statement: %s (%s)")
+                          .handle();
+            }
+        }
+        multiKeyStatements.clear();
+
+        super.safeClose();
+    }
+
     /**
      * Returns a list of all mappings used to filter on.
      *
@@ -106,22 +327,11 @@ public class FindQuery<E extends SQLEntity> extends BatchQuery<E> {
     }
 
     private SQLEntity make(ResultSet rs) throws Exception {
-        Set<String> columns = dbs.readColumns(rs);
-        SQLEntity result = (SQLEntity) descriptor.make(OMA.class, null, key -> {
-            String effectiveKey = key.toUpperCase();
-            if (!columns.contains(effectiveKey)) {
-                return null;
-            }
-
-            try {
-                return Value.of(rs.getObject(effectiveKey));
-            } catch (SQLException e) {
-                throw Exceptions.handle(OMA.LOG, e);
-            }
-        });
+        ResultSetColumns columns = new ResultSetColumns(rs);
+        SQLEntity result = (SQLEntity) columns.make(descriptor.getRowMapper(OMA.class, null));
 
-        if (descriptor.isVersioned() && columns.contains(BaseMapper.VERSION.toUpperCase())) {
-            result.setVersion(rs.getInt(BaseMapper.VERSION.toUpperCase()));
+        if (descriptor.isVersioned() && columns.hasVersion()) {
+            result.setVersion(columns.readVersion());
         }
 
         return result;
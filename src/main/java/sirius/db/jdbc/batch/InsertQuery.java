@@ -22,21 +22,43 @@ import sirius.kernel.health.Exceptions;
 import sirius.kernel.health.HandledException;
 
 import javax.annotation.Nonnull;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a batch query which inserts an entity into the database.
+ * <p>
+ * By default, batched inserts are sent via JDBC batches of single-row <tt>INSERT</tt> statements. Whether these
+ * are combined into fewer round trips depends on the driver and its configuration. Using
+ * {@link #withMultiRowInserts(int)}, the query itself groups batched entities into multi-row
+ * <tt>INSERT ... VALUES (...), (...)</tt> statements.
  *
  * @param <E> the generic type of entities to insert with this query
  */
 public class InsertQuery<E extends SQLEntity> extends BatchQuery<E> {
 
+    /**
+     * Limits the number of parameters per statement, as most databases (e.g. PostgreSQL) and drivers reject
+     * statements with more than 32767 placeholders.
+     */
+    private static final int MAX_PARAMETERS_PER_STATEMENT = Short.MAX_VALUE;
+
     private boolean fetchId;
     private List<Property> propertiesToUpdate;
+    private int maxRowsPerStatement = 1;
+    private final List<PendingRow<E>> pendingRows = new ArrayList<>();
+    private final Map<Integer, PreparedStatement> multiRowStatements = new HashMap<>();
+
+    private record PendingRow<E>(E entity, Object[] parameters) {
+    }
 
     @Part
     private static Databases dbs;
@@ -53,6 +75,32 @@ public class InsertQuery<E extends SQLEntity> extends BatchQuery<E> {
         }
     }
 
+    /**
+     * Groups batched inserts into multi-row <tt>INSERT</tt> statements.
+     * <p>
+     * Once enabled, all entities which are inserted with <tt>addBatch</tt> set to <tt>true</tt> are buffered and
+     * sent using a single statement per up to <tt>maxRowsPerStatement</tt> entities. The statements are prepared once
+     * per row count (the maximal row count and decreasing powers of two for the remainder) and then re-used. If the
+     * generated IDs are to be fetched, these are applied to the buffered entities in the order in which they were
+     * inserted once the statement has been executed.
+     * <p>
+     * Note that the number of rows per statement is automatically reduced so that a statement doesn't exceed
+     * 32767 parameters.
+     *
+     * @param maxRowsPerStatement the maximal number of rows to insert per statement
+     * @return the query itself for fluent method calls
+     */
+    public InsertQuery<E> withMultiRowInserts(int maxRowsPerStatement) {
+        if (!multiRowStatements.isEmpty() || !pendingRows.isEmpty()) {
+            throw new IllegalStateException(
+                    "Multi-row inserts have to be enabled before the first entity is inserted.");
+        }
+
+        int maxRowsPerParameterLimit = Math.max(1, MAX_PARAMETERS_PER_STATEMENT / getColumnsPerRow());
+        this.maxRowsPerStatement = Math.max(1, Math.min(maxRowsPerStatement, maxRowsPerParameterLimit));
+        return this;
+    }
+
     /**
      * Inserts an entity into the database.
      * <p>
@@ -113,26 +161,11 @@ public class InsertQuery<E extends SQLEntity> extends BatchQuery<E> {
                 getDescriptor().beforeSave(entity);
             }
 
-            PreparedStatement stmt = prepareStmt();
-            int i = 1;
-            for (Property property : propertiesToUpdate) {
-                Databases.convertAndSetParameter(stmt, i++, property.getValueForDatasource(OMA.class, entity));
-            }
-
-            if (descriptor.isVersioned()) {
-                Databases.convertAndSetParameter(stmt, i, 1);
-            }
-
-            if (addBatch) {
-                addBatch();
+            Object[] parameters = computeParameters(entity);
+            if (addBatch && maxRowsPerStatement > 1) {
+                addPendingRow(entity, parameters);
             } else {
-                stmt.executeUpdate();
-                stmt.getConnection().commit();
-                if (fetchId) {
-                    Row keys = dbs.fetchGeneratedKeys(stmt);
-                    OMA.loadCreatedId(entity, keys);
-                }
-                entity.setVersion(1);
+                insertRow(parameters, entity, addBatch);
             }
 
             if (invokeChecks) {
@@ -161,10 +194,178 @@ public class InsertQuery<E extends SQLEntity> extends BatchQuery<E> {
         }
     }
 
+    private int getColumnsPerRow() {
+        return getDescriptor().isVersioned() ? propertiesToUpdate.size() + 1 : propertiesToUpdate.size();
+    }
+
+    private Object[] computeParameters(E entity) {
+        Object[] parameters = new Object[getColumnsPerRow()];
+        int index = 0;
+        for (Property property : propertiesToUpdate) {
+            parameters[index++] = property.getValueForDatasource(OMA.class, entity);
+        }
+
+        if (getDescriptor().isVersioned()) {
+            parameters[index] = 1;
+        }
+
+        return parameters;
+    }
+
+    private void insertRow(Object[] parameters, E entity, boolean addBatch) throws SQLException {
+        for (int index = 0; index < parameters.length; index++) {
+            bindParameter(index + 1, parameters[index]);
+        }
+
+        if (addBatch) {
+            addBatch();
+        } else {
+            executeStatement(stmt -> {
+                stmt.executeUpdate();
+                stmt.getConnection().commit();
+                if (fetchId) {
+                    Row keys = dbs.fetchGeneratedKeys(stmt);
+                    OMA.loadCreatedId(entity, keys);
+                }
+                return null;
+            });
+            entity.setVersion(1);
+        }
+    }
+
+    private void addPendingRow(E entity, Object[] parameters) {
+        pendingRows.add(new PendingRow<>(entity, parameters));
+        batchBacklog = pendingRows.size();
+        if (query == null) {
+            query = buildInsertSQL(1);
+        }
+        if (pendingRows.size() >= maxRowsPerStatement) {
+            if (context.isFlushingInBackground()) {
+                submitPendingRows();
+            } else {
+                commit();
+            }
+        }
+    }
+
+    private void submitPendingRows() {
+        if (!pendingRows.isEmpty()) {
+            List<PendingRow<E>> rows = new ArrayList<>(pendingRows);
+            pendingRows.clear();
+            batchBacklog = 0;
+            context.submitFlush(() -> executeRows(rows));
+        }
+    }
+
+    @Override
+    protected void tryCommit(boolean cascade) {
+        if (context.isFlushingInBackground()) {
+            submitPendingRows();
+        } else if (!pendingRows.isEmpty()) {
+            try {
+                executeRows(pendingRows);
+            } catch (SQLException e) {
+                if (cascade) {
+                    context.safeClose();
+                }
+                throw Exceptions.handle()
+                                .to(OMA.LOG)
+                                .error(e)
+                                .withSystemErrorMessage("An error occurred while executing a multi-row InsertQuery"
+                                                        + " for %s: %s (%s)", type.getName())
+                                .handle();
+            } finally {
+                pendingRows.clear();
+                batchBacklog = 0;
+            }
+        }
+
+        super.tryCommit(cascade);
+    }
+
+    private void executeRows(List<PendingRow<E>> rows) throws SQLException {
+        Watch w = Watch.start();
+        int offset = 0;
+        while (offset < rows.size()) {
+            int numberOfRows = determineRowsPerStatement(rows.size() - offset);
+            PreparedStatement statement = prepareMultiRowStmt(numberOfRows);
+            int parameterIndex = 1;
+            for (PendingRow<E> row : rows.subList(offset, offset + numberOfRows)) {
+                for (Object parameter : row.parameters()) {
+                    Databases.convertAndSetParameter(statement, parameterIndex++, parameter);
+                }
+            }
+
+            statement.executeUpdate();
+            if (fetchId) {
+                loadCreatedIds(statement, rows.subList(offset, offset + numberOfRows));
+            }
+
+            offset += numberOfRows;
+        }
+
+        rows.forEach(row -> row.entity().setVersion(1));
+
+        Connection connection = context.getConnection(getDescriptor().getRealm());
+        if (!connection.getAutoCommit()) {
+            // Do not send a commit statement for connections using auto-commit
+            connection.commit();
+        }
+        recordFlush(rows.size(), w.elapsedMillis());
+    }
+
+    /**
+     * Determines the number of rows to insert with the next statement.
+     * <p>
+     * Full statements use the configured maximum, the remainder is split into decreasing powers of two, so that
+     * at most <tt>log2(maxRowsPerStatement) + 1</tt> distinct statements need to be prepared.
+     *
+     * @param remainingRows the number of rows which still need to be inserted
+     * @return the number of rows to insert with the next statement
+     */
+    private int determineRowsPerStatement(int remainingRows) {
+        if (remainingRows >= maxRowsPerStatement) {
+            return maxRowsPerStatement;
+        }
+
+        return Integer.highestOneBit(remainingRows);
+    }
+
+    private PreparedStatement prepareMultiRowStmt(int numberOfRows) throws SQLException {
+        PreparedStatement statement = multiRowStatements.get(numberOfRows);
+        if (statement == null) {
+            int generatedKeys = fetchId ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS;
+            statement = context.getConnection(getDescriptor().getRealm())
+                               .prepareStatement(buildInsertSQL(numberOfRows), generatedKeys);
+            multiRowStatements.put(numberOfRows, statement);
+        }
+
+        return statement;
+    }
+
+    private void loadCreatedIds(PreparedStatement statement, List<PendingRow<E>> rows) throws SQLException {
+        List<Row> keys = dbs.fetchAllGeneratedKeys(statement);
+        if (keys.size() < rows.size()) {
+            OMA.LOG.WARN("A multi-row InsertQuery for %s only reported %s generated keys for %s rows. "
+                         + "Check the driver configuration or disable multi-row inserts for this query.",
+                         type.getName(),
+                         keys.size(),
+                         rows.size());
+        }
+
+        for (int index = 0; index < Math.min(keys.size(), rows.size()); index++) {
+            OMA.loadCreatedId(rows.get(index).entity(), keys.get(index));
+        }
+    }
+
     @Override
     protected void buildSQL() throws SQLException {
+        createStmt(buildInsertSQL(1), fetchId);
+    }
+
+    private String buildInsertSQL(int numberOfRows) {
         StringBuilder sql = new StringBuilder("INSERT INTO ");
-        StringBuilder values = new StringBuilder(" VALUES(");
+        StringBuilder values = new StringBuilder("(");
         sql.append(getDescriptor().getRelationName());
         sql.append(" (");
         Monoflop mf = Monoflop.create();
@@ -190,7 +391,49 @@ public class InsertQuery<E extends SQLEntity> extends BatchQuery<E> {
 
         sql.append(")");
         values.append(")");
+        sql.append(" VALUES");
         sql.append(values);
-        createStmt(sql.toString(), fetchId);
+        for (int row = 1; row < numberOfRows; row++) {
+            sql.append(", ");
+            sql.append(values);
+        }
+
+        return sql.toString();
+    }
+
+    @Override
+    public void close() {
+        if (stmt == null
+            && (!multiRowStatements.isEmpty() || !pendingRows.isEmpty() || context.isFlushingInBackground())) {
+            try {
+                commit();
+            } catch (HandledException e) {
+                Exceptions.ignore(e);
+            }
+
+            safeClose();
+            context.unregister(this);
+            return;
+        }
+
+        super.close();
+    }
+
+    @Override
+    protected void safeClose() {
+        for (PreparedStatement statement : multiRowStatements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                Exceptions.handle()
+                          .to(OMA.LOG)
+                          .error(e)
+                          .withSystemErrorMessage("An error occurred while closing a prepared statement: %s (%s)")
+                          .handle();
+            }
+        }
+        multiRowStatements.clear();
+
+        super.safeClose();
     }
 }
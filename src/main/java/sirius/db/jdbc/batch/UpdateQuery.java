@@ -8,7 +8,6 @@
 
 package sirius.db.jdbc.batch;
 
-import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.OMA;
 import sirius.db.jdbc.Operator;
 import sirius.db.jdbc.SQLEntity;
@@ -23,7 +22,6 @@ import sirius.kernel.commons.Watch;
 import sirius.kernel.health.Exceptions;
 
 import javax.annotation.Nonnull;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -86,14 +84,19 @@ public class UpdateQuery<E extends SQLEntity> extends BatchQuery<E> {
                 getDescriptor().beforeSave(entity);
             }
 
-            PreparedStatement stmt = prepareAndFillForUpdate(entity);
+            fillForUpdate(entity);
 
             if (addBatch) {
+                invalidateCachesAfterBatch(entity);
                 addBatch();
             } else {
-                stmt.executeUpdate();
-                stmt.getConnection().commit();
+                executeStatement(stmt -> {
+                    stmt.executeUpdate();
+                    stmt.getConnection().commit();
+                    return null;
+                });
                 average.addValue(w.elapsedMillis());
+                invalidateCaches(entity);
                 if (descriptor.isVersioned()) {
                     entity.setVersion(entity.getVersion() + 1);
                 }
@@ -121,19 +124,18 @@ public class UpdateQuery<E extends SQLEntity> extends BatchQuery<E> {
         }
     }
 
-    protected PreparedStatement prepareAndFillForUpdate(@Nonnull E entity) throws SQLException {
-        PreparedStatement stmt = prepareStmt();
+    protected void fillForUpdate(@Nonnull E entity) throws SQLException {
         int i = 1;
         for (Property property : getPropertiesToUpdate()) {
-            Databases.convertAndSetParameter(stmt, i++, property.getValueForDatasource(OMA.class, entity));
+            bindParameter(i++, property.getValueForDatasource(OMA.class, entity));
         }
 
-        if (descriptor.isVersioned()) {
-            Databases.convertAndSetParameter(stmt, i++, entity.getVersion() + 1);
+        if (getDescriptor().isVersioned()) {
+            bindParameter(i++, entity.getVersion() + 1);
         }
 
         for (Tuple<Operator, Property> filter : getPropertyFilters()) {
-            Databases.convertAndSetParameter(stmt, i++, filter.getSecond().getValueForDatasource(OMA.class, entity));
+            bindParameter(i++, filter.getSecond().getValueForDatasource(OMA.class, entity));
         }
 
         if (descriptor.isVersioned()) {
@@ -145,9 +147,8 @@ public class UpdateQuery<E extends SQLEntity> extends BatchQuery<E> {
                                 .handle();
             }
 
-            Databases.convertAndSetParameter(stmt, i, entity.getVersion());
+            bindParameter(i, entity.getVersion());
         }
-        return stmt;
     }
 
     @Override
@@ -0,0 +1,318 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc.batch;
+
+import sirius.db.jdbc.Capability;
+import sirius.db.jdbc.Database;
+import sirius.db.jdbc.OMA;
+import sirius.db.jdbc.Operator;
+import sirius.db.jdbc.SQLEntity;
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Property;
+import sirius.kernel.commons.Explain;
+import sirius.kernel.commons.Monoflop;
+import sirius.kernel.commons.Tuple;
+import sirius.kernel.commons.Watch;
+import sirius.kernel.health.Exceptions;
+import sirius.kernel.health.HandledException;
+
+import javax.annotation.Nonnull;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Represents a batch query which inserts an entity or updates the existing row if a row with the same values for
+ * the conflict mappings already exists.
+ * <p>
+ * This replaces a {@link FindQuery} followed by either an {@link InsertQuery} or an {@link UpdateQuery} by a single
+ * statement (and thus a single round trip). The conflict mappings have to form a unique key (or the primary key) of
+ * the table. An insert writes all fields of the entity (except the id, unless it is a conflict mapping), whereas an
+ * update only writes the mappings to update. For versioned entities, a new row starts with version 1 and the
+ * version of an existing row is incremented by each update. Note however, that the version isn't checked, as the
+ * entity isn't known to be persisted in the first place.
+ * <p>
+ * The generated SQL depends on the capabilities of the database: MySQL and MariaDB use
+ * <tt>ON DUPLICATE KEY UPDATE</tt> ({@link Capability#UPSERT_ON_DUPLICATE_KEY}), PostgreSQL uses
+ * <tt>ON CONFLICT (...) DO UPDATE</tt> ({@link Capability#UPSERT_ON_CONFLICT}).
+ * <p>
+ * Note that neither the id nor the version of the given entity are updated, as the database doesn't reliably report
+ * whether a row has been inserted or updated.
+ *
+ * @param <E> the generic type of entities to upsert with this query
+ */
+public class UpsertQuery<E extends SQLEntity> extends BatchQuery<E> {
+
+    private final List<String> mappingsToUpdate;
+    private List<Property> propertiesToInsert;
+    private List<Property> propertiesToUpdate;
+
+    protected UpsertQuery(BatchContext context,
+                          Class<E> type,
+                          List<Tuple<Operator, String>> conflictMappings,
+                          List<String> mappingsToUpdate) {
+        super(context, type, conflictMappings);
+        if (conflictMappings.isEmpty()) {
+            throw new IllegalArgumentException("An UpsertQuery requires at least one conflict mapping.");
+        }
+        this.mappingsToUpdate = mappingsToUpdate;
+    }
+
+    /**
+     * Determines the properties to write when inserting a new row.
+     * <p>
+     * These are all properties except the id, unless the id is used as conflict mapping.
+     *
+     * @return the properties to insert
+     */
+    protected List<Property> getPropertiesToInsert() {
+        if (propertiesToInsert == null) {
+            String idName = SQLEntity.ID.getName();
+            boolean conflictOnId = isConflictOnId();
+            propertiesToInsert = getDescriptor().getProperties()
+                                                .stream()
+                                                .filter(p -> conflictOnId || !idName.equals(p.getName()))
+                                                .toList();
+        }
+
+        return propertiesToInsert;
+    }
+
+    private boolean isConflictOnId() {
+        return filters.stream().anyMatch(filter -> SQLEntity.ID.getName().equals(filter.getSecond()));
+    }
+
+    /**
+     * Determines the properties to write when a row already exists.
+     * <p>
+     * If no mappings to update were given, all inserted properties except the conflict mappings are updated.
+     *
+     * @return the properties to update
+     */
+    protected List<Property> getPropertiesToUpdate() {
+        if (propertiesToUpdate == null) {
+            EntityDescriptor ed = getDescriptor();
+            if (mappingsToUpdate.isEmpty()) {
+                List<Property> conflictProperties = getPropertyFilters().stream().map(Tuple::getSecond).toList();
+                propertiesToUpdate =
+                        getPropertiesToInsert().stream().filter(p -> !conflictProperties.contains(p)).toList();
+            } else {
+                propertiesToUpdate = mappingsToUpdate.stream().map(ed::getProperty).toList();
+            }
+        }
+
+        return propertiesToUpdate;
+    }
+
+    /**
+     * Inserts the given entity or updates the existing row with the same values for the conflict mappings.
+     * <p>
+     * Note that if the id is used as conflict mapping, the entity must not be new, as its (not yet generated) id
+     * would be inserted literally.
+     *
+     * @param entity       the entity to upsert
+     * @param invokeChecks determines if before- and after save checks should be performed (<tt>true</tt>)
+     *                     or skipped (<tt>false</tt>)
+     * @param addBatch     determines if the query should be executed instantly (<tt>false</tt>) or added to the
+     *                     batch update (<tt>true</tt>).
+     */
+    @SuppressWarnings({"unchecked", "resource"})
+    @Explain("We don't want to close the statement here - this is done in close() globally.")
+    public void upsert(@Nonnull E entity, boolean invokeChecks, boolean addBatch) {
+        try {
+            if (this.type == null) {
+                this.type = (Class<E>) entity.getClass();
+            }
+            if (entity.isNew() && isConflictOnId()) {
+                throw Exceptions.handle()
+                                .to(OMA.LOG)
+                                .withSystemErrorMessage("Cannot upsert a new %s using its id as conflict mapping,"
+                                                        + " as it has no id yet.",
+                                                        type.getName())
+                                .handle();
+            }
+
+            Watch w = Watch.start();
+            if (invokeChecks) {
+                getDescriptor().beforeSave(entity);
+            }
+
+            fillForUpsert(entity);
+
+            if (addBatch) {
+                invalidateCachesAfterBatch(entity);
+                addBatch();
+            } else {
+                executeStatement(stmt -> {
+                    stmt.executeUpdate();
+                    stmt.getConnection().commit();
+                    return null;
+                });
+                average.addValue(w.elapsedMillis());
+                invalidateCaches(entity);
+            }
+
+            if (invokeChecks) {
+                getDescriptor().afterSave(entity);
+            }
+        } catch (HandledException e) {
+            throw e;
+        } catch (SQLException e) {
+            context.safeClose();
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage(
+                                    "A database error occurred while executing an UpsertQuery for %s: %s (%s)",
+                                    type.getName())
+                            .handle();
+        } catch (Exception e) {
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("An error occurred while executing an UpsertQuery for %s: %s (%s)",
+                                                    type.getName())
+                            .handle();
+        }
+    }
+
+    protected void fillForUpsert(@Nonnull E entity) throws SQLException {
+        int i = 1;
+        for (Property property : getPropertiesToInsert()) {
+            bindParameter(i++, property.getValueForDatasource(OMA.class, entity));
+        }
+
+        if (getDescriptor().isVersioned()) {
+            bindParameter(i, 1);
+        }
+    }
+
+    @Override
+    protected void buildSQL() throws SQLException {
+        Database database = oma.getDatabase(getDescriptor().getRealm());
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        sql.append(getDescriptor().getRelationName());
+        appendInsertedColumns(sql);
+
+        if (database.hasCapability(Capability.UPSERT_ON_DUPLICATE_KEY)) {
+            appendOnDuplicateKey(sql);
+        } else if (database.hasCapability(Capability.UPSERT_ON_CONFLICT)) {
+            appendOnConflict(sql);
+        } else {
+            throw Exceptions.handle()
+                            .to(OMA.LOG)
+                            .withSystemErrorMessage("Cannot execute an UpsertQuery for %s as the database of realm"
+                                                    + " '%s' doesn't support upserts.",
+                                                    descriptor.getType(),
+                                                    descriptor.getRealm())
+                            .handle();
+        }
+
+        createStmt(sql.toString(), false);
+    }
+
+    private void appendInsertedColumns(StringBuilder sql) {
+        StringBuilder values = new StringBuilder();
+        Monoflop mf = Monoflop.create();
+        sql.append(" (");
+        for (Property p : getPropertiesToInsert()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(p.getPropertyName());
+            values.append("?");
+        }
+
+        if (descriptor.isVersioned()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(BaseMapper.VERSION);
+            values.append("?");
+        }
+
+        sql.append(") VALUES (");
+        sql.append(values);
+        sql.append(")");
+    }
+
+    private void appendOnDuplicateKey(StringBuilder sql) {
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        Monoflop mf = Monoflop.create();
+        for (Property p : getPropertiesToUpdate()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+            }
+            sql.append(p.getPropertyName());
+            sql.append(" = VALUES(");
+            sql.append(p.getPropertyName());
+            sql.append(")");
+        }
+
+        if (descriptor.isVersioned()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+            }
+            sql.append(BaseMapper.VERSION);
+            sql.append(" = ");
+            sql.append(BaseMapper.VERSION);
+            sql.append(" + 1");
+        }
+
+        if (mf.firstCall()) {
+            // There is nothing to update, therefore we only "touch" a conflict column to ignore the duplicate...
+            String conflictColumn = getPropertyFilters().getFirst().getSecond().getPropertyName();
+            sql.append(conflictColumn);
+            sql.append(" = ");
+            sql.append(conflictColumn);
+        }
+    }
+
+    private void appendOnConflict(StringBuilder sql) {
+        sql.append(" ON CONFLICT (");
+        Monoflop mf = Monoflop.create();
+        for (Tuple<Operator, Property> filter : getPropertyFilters()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+            }
+            sql.append(filter.getSecond().getPropertyName());
+        }
+        sql.append(")");
+
+        if (getPropertiesToUpdate().isEmpty() && !descriptor.isVersioned()) {
+            sql.append(" DO NOTHING");
+            return;
+        }
+
+        sql.append(" DO UPDATE SET ");
+        mf = Monoflop.create();
+        for (Property p : getPropertiesToUpdate()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+            }
+            sql.append(p.getPropertyName());
+            sql.append(" = EXCLUDED.");
+            sql.append(p.getPropertyName());
+        }
+
+        if (descriptor.isVersioned()) {
+            if (mf.successiveCall()) {
+                sql.append(", ");
+            }
+            sql.append(BaseMapper.VERSION);
+            sql.append(" = ");
+            sql.append(descriptor.getRelationName());
+            sql.append(".");
+            sql.append(BaseMapper.VERSION);
+            sql.append(" + 1");
+        }
+    }
+}
@@ -12,6 +12,7 @@ import sirius.db.jdbc.BaseSQLQuery;
 import sirius.db.jdbc.Databases;
 import sirius.db.jdbc.OMA;
 import sirius.db.jdbc.Row;
+import sirius.db.jdbc.batch.AdaptiveBatchLimit;
 import sirius.kernel.commons.Limit;
 import sirius.kernel.commons.Watch;
 import sirius.kernel.health.Average;
@@ -25,6 +26,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.function.Predicate;
 
 /**
@@ -40,6 +42,7 @@ public class ExternalBatchQuery extends BaseSQLQuery {
     protected final PreparedStatement statement;
     protected int batchBacklog;
     protected int batchBacklogLimit = MAX_BATCH_BACKLOG;
+    protected AdaptiveBatchLimit adaptiveBatchLimit;
     protected ExternalBatchContext context;
     protected String query;
     protected Average avarage = new Average();
@@ -58,6 +61,51 @@ public class ExternalBatchQuery extends BaseSQLQuery {
      */
     public void withCustomBatchLimit(int maxBacklog) {
         this.batchBacklogLimit = maxBacklog;
+        this.adaptiveBatchLimit = null;
+    }
+
+    /**
+     * Adapts the batch size of this query so that each flush takes about the given duration.
+     * <p>
+     * The batch size is kept within {@link AdaptiveBatchLimit#DEFAULT_MIN_BACKLOG} and
+     * {@link AdaptiveBatchLimit#DEFAULT_MAX_BACKLOG}.
+     *
+     * @param targetFlushDuration the desired duration of a single flush
+     * @see AdaptiveBatchLimit
+     */
+    public void withAdaptiveBatchLimit(Duration targetFlushDuration) {
+        withAdaptiveBatchLimit(targetFlushDuration,
+                               AdaptiveBatchLimit.DEFAULT_MIN_BACKLOG,
+                               AdaptiveBatchLimit.DEFAULT_MAX_BACKLOG);
+    }
+
+    /**
+     * Adapts the batch size of this query so that each flush takes about the given duration.
+     *
+     * @param targetFlushDuration the desired duration of a single flush
+     * @param minBacklog          the minimal batch size to use
+     * @param maxBacklog          the maximal batch size to use. This limits the memory being occupied by a pending
+     *                            batch as well as the number of rows being locked by a single flush
+     * @see AdaptiveBatchLimit
+     */
+    public void withAdaptiveBatchLimit(Duration targetFlushDuration, int minBacklog, int maxBacklog) {
+        this.adaptiveBatchLimit =
+                new AdaptiveBatchLimit(targetFlushDuration, minBacklog, maxBacklog, batchBacklogLimit);
+        this.batchBacklogLimit = adaptiveBatchLimit.getLimit();
+    }
+
+    /**
+     * Records the execution of a batch and adapts the batch size if requested.
+     *
+     * @param numberOfRows   the number of rows which were executed
+     * @param durationMillis the duration of the flush
+     */
+    protected void recordFlush(int numberOfRows, long durationMillis) {
+        avarage.addValues(numberOfRows, durationMillis);
+        Databases.recordBatchExecution(numberOfRows, batchBacklogLimit);
+        if (adaptiveBatchLimit != null) {
+            batchBacklogLimit = adaptiveBatchLimit.recordFlush(numberOfRows, durationMillis);
+        }
     }
 
     /**
@@ -103,7 +151,7 @@ public class ExternalBatchQuery extends BaseSQLQuery {
             try {
                 Watch w = Watch.start();
                 statement.executeBatch();
-                avarage.addValues(batchBacklog, w.elapsedMillis());
+                recordFlush(batchBacklog, w.elapsedMillis());
                 batchBacklog = 0;
             } catch (SQLException e) {
                 if (cascade) {
@@ -189,6 +237,10 @@ public class ExternalBatchQuery extends BaseSQLQuery {
             sb.append("|Backlog: ");
             sb.append(batchBacklog);
         }
+        if (adaptiveBatchLimit != null) {
+            sb.append("|Limit: ");
+            sb.append(adaptiveBatchLimit);
+        }
         if (avarage.getCount() > 0) {
             sb.append("|Executed: ");
             sb.append(avarage.getCount());
@@ -8,6 +8,9 @@
 
 package sirius.db.jdbc.schema;
 
+import com.clickhouse.client.api.Client;
+import com.clickhouse.data.ClickHouseFormat;
+import com.clickhouse.jdbc.ConnectionImpl;
 import sirius.db.mixing.annotations.Length;
 import sirius.db.mixing.properties.EnumProperty;
 import sirius.kernel.commons.Monoflop;
@@ -15,10 +18,15 @@ import sirius.kernel.commons.Strings;
 import sirius.kernel.di.std.Register;
 
 import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Defines the dialect used to sync the schema against a Clickhouse database.
@@ -263,4 +271,35 @@ public class ClickhouseDatabaseDialect extends BasicDatabaseDialect {
     public boolean shouldDropKey(Table targetTable, Table currentTable, Key key) {
         return false;
     }
+
+    /**
+     * Loads the data using the <tt>TabSeparatedWithNames</tt> format of the native client.
+     * <p>
+     * The stream is directly sent as body of the insert request, therefore no statement needs to be prepared.
+     */
+    @Override
+    public void bulkLoad(Connection connection, String table, List<String> columns, InputStream data)
+            throws SQLException {
+        Client client = connection.unwrap(ConnectionImpl.class).getClient();
+        try (var _ = client.insert(table, data, ClickHouseFormat.TabSeparatedWithNames).get()) {
+            // The response only needs to be closed...
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading data into " + table, exception);
+        } catch (ExecutionException exception) {
+            throw new SQLException("Failed to load data into " + table, exception.getCause());
+        } catch (Exception exception) {
+            throw new SQLException("Failed to load data into " + table, exception);
+        }
+    }
+
+    /**
+     * Formats timestamps as epoch seconds, so that these are not shifted by the time zone of the server.
+     * <p>
+     * Note that milliseconds are dropped, as timestamps are mapped to <tt>DateTime</tt> columns.
+     */
+    @Override
+    public String formatBulkLoadTimestamp(Timestamp timestamp) {
+        return String.valueOf(Math.floorDiv(timestamp.getTime(), 1000));
+    }
 }
@@ -9,8 +9,11 @@
 package sirius.db.jdbc.schema;
 
 import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.List;
 
@@ -199,6 +202,52 @@ public interface DatabaseDialect {
      */
     boolean shouldDropKey(Table targetTable, Table currentTable, Key key);
 
+    /**
+     * Loads the rows provided by the given stream into the given table.
+     * <p>
+     * The stream contains one row per line, where the values are separated by tabs. Tabs, line breaks and
+     * backslashes within values are escaped using a backslash and <tt>NULL</tt> is represented as <tt>\N</tt>.
+     * The first line contains the column names.
+     * <p>
+     * Only dialects of databases which report {@link sirius.db.jdbc.Capability#BULK_LOAD} support this.
+     *
+     * @param connection the connection to use
+     * @param table      the name of the table to load the data into
+     * @param columns    the columns (in the order of the values within each line)
+     * @param data       the stream which provides the data
+     * @throws SQLException                  in case of a database error
+     * @throws UnsupportedOperationException if the database doesn't support bulk loads
+     */
+    default void bulkLoad(Connection connection, String table, List<String> columns, InputStream data)
+            throws SQLException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support bulk loads.");
+    }
+
+    /**
+     * Determines if the server behind the given connection permits {@link #bulkLoad(Connection, String, List,
+     * InputStream) bulk loads}.
+     * <p>
+     * This is used to detect server side settings which would make a bulk load fail, even though the database
+     * reports {@link sirius.db.jdbc.Capability#BULK_LOAD}.
+     *
+     * @param connection the connection to check
+     * @return <tt>true</tt> if bulk loads are permitted, <tt>false</tt> otherwise
+     * @throws SQLException in case of a database error
+     */
+    default boolean isBulkLoadPermitted(Connection connection) throws SQLException {
+        return true;
+    }
+
+    /**
+     * Formats a timestamp so that it can be used as value in {@link #bulkLoad(Connection, String, List, InputStream)}.
+     *
+     * @param timestamp the timestamp to format
+     * @return the string representation of the timestamp as expected by the database
+     */
+    default String formatBulkLoadTimestamp(Timestamp timestamp) {
+        return timestamp.toString();
+    }
+
     /**
      * Computes the effective name used for a key.
      *
@@ -9,9 +9,14 @@
 package sirius.db.jdbc.schema;
 
 import sirius.kernel.di.std.Register;
+import sirius.kernel.health.Exceptions;
 
+import java.io.InputStream;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.text.MessageFormat;
 import java.util.Collections;
@@ -26,6 +31,13 @@ public class MySQLDatabaseDialect extends BasicDatabaseDialect {
     private static final String NOT_NULL = "NOT NULL";
     private static final String AUTO_INCREMENT = "AUTO_INCREMENT";
 
+    /**
+     * Contains the statement interfaces of the MariaDB and MySQL driver which accept a stream for local infiles.
+     */
+    private static final List<String> LOCAL_INFILE_STATEMENT_TYPES =
+            List.of("org.mariadb.jdbc.Statement", "com.mysql.cj.jdbc.JdbcStatement");
+    private static final String METHOD_SET_LOCAL_INFILE_INPUT_STREAM = "setLocalInfileInputStream";
+
     @Override
     protected boolean areTypesEqual(int type, int other) {
         if (type == other) {
@@ -142,4 +154,66 @@ public class MySQLDatabaseDialect extends BasicDatabaseDialect {
 
         return defaultValue;
     }
+
+    /**
+     * Loads the data via <tt>LOAD DATA LOCAL INFILE</tt>.
+     * <p>
+     * Instead of reading a local file, the data is directly handed to the driver as stream. Note that this requires
+     * the connection to permit local infiles (e.g. by adding <tt>allowLocalInfile=true</tt> to the URL of the
+     * MariaDB driver).
+     */
+    @Override
+    public void bulkLoad(Connection connection, String table, List<String> columns, InputStream data)
+            throws SQLException {
+        String sql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE "
+                     + table
+                     + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'"
+                     + " LINES TERMINATED BY '\\n' IGNORE 1 LINES ("
+                     + String.join(", ", columns)
+                     + ")";
+        try (Statement statement = connection.createStatement()) {
+            provideLocalInfileStream(statement, data);
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * Checks if <tt>local_infile</tt> is enabled on the server, which is required for <tt>LOAD DATA LOCAL INFILE</tt>.
+     */
+    @Override
+    public boolean isBulkLoadPermitted(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT @@GLOBAL.local_infile")) {
+            if (!resultSet.next()) {
+                return false;
+            }
+
+            String value = resultSet.getString(1);
+            return "1".equals(value) || "ON".equalsIgnoreCase(value);
+        }
+    }
+
+    /**
+     * Hands the given stream to the driver, which reads it instead of a file when executing <tt>LOAD DATA</tt>.
+     * <p>
+     * As the MariaDB and MySQL drivers are not required at compile time, the method is looked up reflectively.
+     */
+    private void provideLocalInfileStream(Statement statement, InputStream data) throws SQLException {
+        for (String statementType : LOCAL_INFILE_STATEMENT_TYPES) {
+            try {
+                Class<?> type = Class.forName(statementType);
+                if (statement.isWrapperFor(type)) {
+                    type.getMethod(METHOD_SET_LOCAL_INFILE_INPUT_STREAM, InputStream.class)
+                        .invoke(statement.unwrap(type), data);
+                    return;
+                }
+            } catch (ClassNotFoundException exception) {
+                Exceptions.ignore(exception);
+            } catch (ReflectiveOperationException exception) {
+                throw new SQLException("Cannot provide a local infile stream to the driver.", exception);
+            }
+        }
+
+        throw new SQLFeatureNotSupportedException("The driver doesn't support providing a local infile stream.");
+    }
 }
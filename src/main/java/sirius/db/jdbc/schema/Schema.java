@@ -107,6 +107,21 @@ public class Schema implements Startable, Initializable {
         return getDatabases(realm).map(Tuple::getFirst).orElse(null);
     }
 
+    /**
+     * Determines the dialect configured for the given realm.
+     *
+     * @param realm the realm to determine the dialect for
+     * @return the dialect of the database of the given realm or an empty optional if no dialect is configured
+     */
+    public Optional<DatabaseDialect> getDialect(String realm) {
+        Extension ext = Sirius.getSettings().getExtension(EXTENSION_MIXING_JDBC, realm);
+        if (ext.isDefault() || Strings.isEmpty(ext.get("dialect").asString())) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(globalContext.getPart(ext.get("dialect").asString(), DatabaseDialect.class));
+    }
+
     /**
      * Determines if a JDBC database is configured for the given realm
      *
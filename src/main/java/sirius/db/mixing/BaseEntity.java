@@ -19,7 +19,8 @@ import sirius.kernel.nls.NLS;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiPredicate;
@@ -50,7 +51,7 @@ public abstract class BaseEntity<I> extends Mixable implements Entity {
     protected static Mixing mixing;
 
     @Transient
-    protected Map<Property, Object> persistedData = new HashMap<>();
+    protected PersistedData persistedData = new PersistedData();
 
     /**
      * Contains the unique id of the entity.
@@ -97,6 +98,19 @@ public abstract class BaseEntity<I> extends Mixable implements Entity {
         return getId() == null;
     }
 
+    /**
+     * Determines if the entity has been loaded by a {@link sirius.db.mixing.query.BaseQuery#readOnly() read-only}
+     * query.
+     * <p>
+     * Such entities do not track any changes and are therefore rejected by
+     * {@link BaseMapper#update(BaseEntity)} and its variants.
+     *
+     * @return <tt>true</tt> if the entity is read-only, <tt>false</tt> otherwise
+     */
+    public boolean isReadOnly() {
+        return persistedData.isReadOnly();
+    }
+
     @Override
     public String getTypeName() {
         return Mixing.getNameForType(getClass());
@@ -410,13 +424,25 @@ public abstract class BaseEntity<I> extends Mixable implements Entity {
      * The persisted data is the value which was/is present in the database and commonly compared to the current
      * value in the entity to perform change tracking for differential updates and journaling.
      *
+     * <p>
+     * Note that lists and maps are returned as unmodifiable views, as these might be shared with the field of the
+     * entity (see {@link sirius.db.mixing.types.SafeList#share()}).
+     *
      * @param property the property to lookup
      * @return the value which has been loaded from the database or <tt>null</tt> if either no value was present
      * or if the property wasn't loaded
      */
     @Nullable
     public Object getPersistedValue(Property property) {
-        return persistedData.get(property);
+        Object persistedValue = persistedData.get(property);
+        if (persistedValue instanceof List<?> list) {
+            return Collections.unmodifiableList(list);
+        }
+        if (persistedValue instanceof Map<?, ?> map) {
+            return Collections.unmodifiableMap(map);
+        }
+
+        return persistedValue;
     }
 
     /**
@@ -14,6 +14,7 @@ import sirius.db.mixing.query.Query;
 import sirius.db.mixing.query.constraints.Constraint;
 import sirius.db.mixing.query.constraints.FilterFactory;
 import sirius.db.mixing.types.BaseEntityRef;
+import sirius.db.util.BaseEntityCache;
 import sirius.kernel.Sirius;
 import sirius.kernel.async.TaskContext;
 import sirius.kernel.commons.Callback;
@@ -30,8 +31,14 @@ import sirius.kernel.health.Exceptions;
 import sirius.kernel.health.HandledException;
 
 import javax.annotation.CheckReturnValue;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -194,6 +201,15 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
         if (entity == null) {
             return;
         }
+        if (entity.isReadOnly()) {
+            throw Exceptions.handle()
+                            .to(Mixing.LOG)
+                            .withSystemErrorMessage(
+                                    "Cannot UPDATE %s (%s) as it has been loaded by a read-only query.",
+                                    entity,
+                                    entity.getClass().getSimpleName())
+                            .handle();
+        }
 
         try {
             EntityDescriptor entityDescriptor = entity.getDescriptor();
@@ -205,6 +221,7 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
                 updateEntity(entity, force, entityDescriptor);
             }
 
+            BaseEntityCache.invalidate(entity);
             invokeAfterSaveHandlers(entity, entityDescriptor);
         } catch (IntegrityConstraintFailedException | OptimisticLockException exception) {
             throw exception;
@@ -313,6 +330,7 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
             invokeBeforeDeleteHandlers(entity, entityDescriptor);
             if (TaskContext.get().isActive()) {
                 deleteEntity(entity, force, entityDescriptor);
+                BaseEntityCache.invalidate(entity);
                 invokeAfterDeleteHandlers(entity, entityDescriptor);
             }
         } catch (OptimisticLockException exception) {
@@ -455,6 +473,85 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
         }
     }
 
+    /**
+     * Performs a database lookup to select all entities of the given type with the given IDs.
+     * <p>
+     * In contrast to calling {@link #find(Class, Object, ContextInfo...)} for each ID, this uses as few round trips
+     * as possible (e.g. chunked <tt>IN</tt> queries for JDBC, <tt>$in</tt> for MongoDB and <tt>_mget</tt> for
+     * Elasticsearch).
+     *
+     * @param type the type of entities to select
+     * @param ids  the IDs (which can be either a long, int or String) to select. Empty IDs and duplicates are ignored.
+     * @param info info provided as context (e.g. routing infos for Elasticsearch)
+     * @param <E>  the generic type of the entities to select
+     * @return a map containing all entities which were found, keyed by their {@link BaseEntity#getIdAsString() ID}
+     * and ordered like the given IDs. IDs of entities which don't exist are not contained in the map.
+     */
+    public <E extends B> Map<String, E> findAll(Class<E> type, Collection<?> ids, ContextInfo... info) {
+        try {
+            LinkedHashSet<Object> effectiveIds = new LinkedHashSet<>();
+            for (Object id : ids) {
+                if (Strings.isFilled(id)) {
+                    if (!isPossibleId(id.getClass())) {
+                        throw Exceptions.handle()
+                                        .to(Mixing.LOG)
+                                        .withSystemErrorMessage(
+                                                "The given object is not an ID (String, long, int): %s (%s)",
+                                                id,
+                                                type)
+                                        .handle();
+                    }
+                    effectiveIds.add(id);
+                }
+            }
+
+            if (effectiveIds.isEmpty()) {
+                return Collections.emptyMap();
+            }
+
+            EntityDescriptor entityDescriptor = mixing.getDescriptor(type);
+            List<E> entities = findEntities(new ArrayList<>(effectiveIds), entityDescriptor, makeContext(info));
+
+            Map<String, E> entitiesById = new LinkedHashMap<>();
+            for (E entity : entities) {
+                entitiesById.put(entity.getIdAsString(), entity);
+            }
+
+            Map<String, E> result = new LinkedHashMap<>();
+            for (Object id : effectiveIds) {
+                E entity = entitiesById.get(String.valueOf(id));
+                if (entity != null) {
+                    result.put(entity.getIdAsString(), entity);
+                }
+            }
+
+            return result;
+        } catch (HandledException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw Exceptions.handle()
+                            .to(Mixing.LOG)
+                            .error(exception)
+                            .withSystemErrorMessage("Unable to FIND ALL %s (%s IDs): %s (%s)",
+                                                    type.getSimpleName(),
+                                                    ids.size())
+                            .handle();
+        }
+    }
+
+    /**
+     * Determines if entities of the given type can be looked up without providing any context info.
+     * <p>
+     * This is used when {@link sirius.db.mixing.query.BaseQuery#prefetch(sirius.db.mixing.Mapping) prefetching}
+     * references, as there is no context (like a routing for Elasticsearch) available in this case.
+     *
+     * @param entityDescriptor the descriptor of the entities to check
+     * @return <tt>true</tt> if entities can be found without context info, <tt>false</tt> otherwise
+     */
+    public boolean canFindWithoutContext(EntityDescriptor entityDescriptor) {
+        return true;
+    }
+
     @SuppressWarnings("java:S1067")
     @Explain("We rather keep all possible cases in one place.")
     private boolean isPossibleId(Class<?> clazz) {
@@ -496,6 +593,31 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
                                                             EntityDescriptor entityDescriptor,
                                                             Function<String, Value> context) throws Exception;
 
+    /**
+     * Tries to find all entities with the given IDs.
+     * <p>
+     * By default, this invokes {@link #findEntity(Object, EntityDescriptor, Function)} for each ID. Mappers should
+     * override this to fetch all entities using a minimal number of round trips.
+     *
+     * @param ids              the IDs of the entities to find (non-empty, without duplicates)
+     * @param entityDescriptor the descriptor of the entities to find
+     * @param context          the advanced search context which can be populated using {@link ContextInfo} in
+     *                         {@link #findAll(Class, Collection, ContextInfo...)}
+     * @param <E>              the effective type of the entities
+     * @return all entities which were found in any order
+     * @throws Exception in case of a database error
+     */
+    protected <E extends B> List<E> findEntities(List<Object> ids,
+                                                 EntityDescriptor entityDescriptor,
+                                                 Function<String, Value> context) throws Exception {
+        List<E> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            this.<E>findEntity(id, entityDescriptor, context).ifPresent(result::add);
+        }
+
+        return result;
+    }
+
     /**
      * Tries to {@link #find(Class, Object, ContextInfo...)} the entity with the given ID.
      * <p>
@@ -644,4 +766,27 @@ public abstract class BaseMapper<B extends BaseEntity<?>, C extends Constraint,
      * @throws Exception in case of an error during a lookup
      */
     public abstract Value fetchField(Class<? extends B> type, Object id, Mapping field) throws Exception;
+
+    /**
+     * Provides the most efficient way of retrieving the field values of many entities at once.
+     * <p>
+     * By default, this performs a {@link #fetchField(Class, Object, Mapping)} per ID. Mappers which can resolve many
+     * IDs in a single query should override this method. Note that it is probably advisable to not call this method
+     * directly but rather {@link FieldLookupCache#lookupAll(Class, Collection, Mapping)} which provides a cache.
+     *
+     * @param type  the type of the entities
+     * @param ids   the IDs of the entities (non-empty, without duplicates)
+     * @param field the field to resolve
+     * @return the field values keyed by the ID of their entity (as string). IDs of entities which don't exist may be
+     * missing in the result.
+     * @throws Exception in case of an error during a lookup
+     */
+    public Map<String, Value> fetchFields(Class<? extends B> type, List<?> ids, Mapping field) throws Exception {
+        Map<String, Value> result = new HashMap<>();
+        for (Object id : ids) {
+            result.put(String.valueOf(id), fetchField(type, id, field));
+        }
+
+        return result;
+    }
 }
@@ -65,6 +65,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
@@ -222,6 +223,16 @@ public class EntityDescriptor {
     protected boolean versioned;
     protected BaseMapper<?, ?, ?> mapper;
 
+    /**
+     * Contains the row mappers compiled for this descriptor.
+     *
+     * @see #getRowMapper(Class, String)
+     */
+    private final Map<RowMapperKey, EntityRowMapper> rowMappers = new ConcurrentHashMap<>();
+
+    private record RowMapperKey(Class<?> mapperType, String alias) {
+    }
+
     /**
      * Creates a new entity for the given reference instance.
      *
@@ -482,6 +493,9 @@ public class EntityDescriptor {
                              Property property,
                              BiPredicate<? super Object, ? super Object> equalsFunction) {
         Object persistedValue = entity.persistedData.get(property);
+        if (persistedValue != null && property.isSnapshotUnchanged(entity, persistedValue)) {
+            return false;
+        }
         Object newValue = property.getValue(entity);
         if (property.isConsideredNull(persistedValue) && property.isConsideredNull(newValue)) {
             return false;
@@ -560,7 +574,7 @@ public class EntityDescriptor {
             // Reset persisted data
             asBaseEntity(entity).persistedData.clear();
             for (Property p : getProperties()) {
-                asBaseEntity(entity).persistedData.put(p, p.getValueAsCopy(entity));
+                asBaseEntity(entity).persistedData.put(p, p.getValueAsSnapshot(entity));
             }
         }
     }
@@ -789,6 +803,11 @@ public class EntityDescriptor {
                 properties.put(p.getName(), p);
             }
         });
+
+        int ordinal = 0;
+        for (Property property : properties.values()) {
+            property.ordinal = ordinal++;
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -1056,20 +1075,23 @@ public class EntityDescriptor {
      */
     public Object make(Class<? extends BaseMapper<?, ?, ?>> mapperType, String alias, ValueSupplier<String> supplier)
             throws Exception {
-        Object entity = type.getDeclaredConstructor().newInstance();
-
-        for (Property p : getProperties()) {
-            String columnName = (alias == null) ? p.getPropertyName() : alias + "_" + p.getPropertyName();
-            Value data = supplier.apply(columnName);
-            if (data != null) {
-                p.setValueFromDatasource(mapperType, entity, data);
-                if (isBaseEntity(entity)) {
-                    asBaseEntity(entity).persistedData.put(p, p.getValueAsCopy(entity));
-                }
-            }
-        }
+        return getRowMapper(mapperType, alias).make(supplier);
+    }
 
-        return entity;
+    /**
+     * Returns the row mapper which creates entities for the given mapper and alias.
+     * <p>
+     * The mapper is compiled once and then cached. Callers which materialize many rows should fetch the mapper once
+     * and re-use it for all rows of a result.
+     *
+     * @param mapperType the mapper which is currently active
+     * @param alias      the field alias used to generate unique column names or <tt>null</tt> to use the plain
+     *                   property names
+     * @return the row mapper for the given mapper type and alias
+     */
+    public EntityRowMapper getRowMapper(Class<? extends BaseMapper<?, ?, ?>> mapperType, @Nullable String alias) {
+        return rowMappers.computeIfAbsent(new RowMapperKey(mapperType, alias),
+                                          key -> new EntityRowMapper(this, mapperType, alias));
     }
 
     /**
@@ -0,0 +1,215 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.mixing;
+
+import sirius.kernel.commons.Value;
+import sirius.kernel.commons.ValueSupplier;
+import sirius.kernel.health.Exceptions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.IntFunction;
+
+/**
+ * Materializes entities of a given {@link EntityDescriptor} from result rows of a datasource.
+ * <p>
+ * A row mapper is compiled once per descriptor, mapper type and alias (see
+ * {@link EntityDescriptor#getRowMapper(Class, String)}). It pre-computes the column name of each property and
+ * resolves the constructor of the entity into a {@link MethodHandle}, so that materializing a row neither requires
+ * reflection nor any string concatenation.
+ * <p>
+ * Columns are addressed by their index, which is the position of the property as returned by {@link #getProperty(int)}. Callers
+ * which can resolve the column names once per result (e.g. a JDBC <tt>ResultSet</tt>) should use
+ * {@link #make(IntFunction)}, all others can still use {@link #make(ValueSupplier)} which looks up values by name.
+ */
+public class EntityRowMapper {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final EntityDescriptor descriptor;
+    private final Class<? extends BaseMapper<?, ?, ?>> mapperType;
+    private final MethodHandle constructor;
+    private final Property[] properties;
+    private final String[] columnNames;
+    private final boolean baseEntity;
+
+    /**
+     * Compiles a new row mapper.
+     *
+     * @param descriptor the descriptor of the entities to create
+     * @param mapperType the mapper which is in charge of loading the entities
+     * @param alias      the field alias used to generate unique column names or <tt>null</tt> to use the plain
+     *                   property names
+     */
+    protected EntityRowMapper(@Nonnull EntityDescriptor descriptor,
+                              @Nonnull Class<? extends BaseMapper<?, ?, ?>> mapperType,
+                              @Nullable String alias) {
+        this.descriptor = descriptor;
+        this.mapperType = mapperType;
+        this.constructor = compileConstructor(descriptor.getType());
+        this.properties = descriptor.getProperties().toArray(Property[]::new);
+        this.columnNames = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            String propertyName = properties[i].getPropertyName();
+            columnNames[i] = alias == null ? propertyName : alias + "_" + propertyName;
+        }
+        this.baseEntity = BaseEntity.class.isAssignableFrom(descriptor.getType());
+    }
+
+    private static MethodHandle compileConstructor(Class<?> type) {
+        try {
+            Constructor<?> defaultConstructor = type.getDeclaredConstructor();
+            defaultConstructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(defaultConstructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw Exceptions.handle()
+                            .to(Mixing.LOG)
+                            .error(e)
+                            .withSystemErrorMessage("Cannot access the default constructor of %s: %s (%s)",
+                                                    type.getName())
+                            .handle();
+        }
+    }
+
+    /**
+     * Returns the descriptor of the entities created by this mapper.
+     *
+     * @return the underlying entity descriptor
+     */
+    public EntityDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Returns the number of columns (properties) handled by this mapper.
+     *
+     * @return the number of columns being read per row
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * Returns the column name of the property with the given index.
+     *
+     * @param index the index of the column
+     * @return the column name (including the alias) which contains the value of the property at the given index
+     */
+    public String getColumnName(int index) {
+        return columnNames[index];
+    }
+
+    /**
+     * Returns the property with the given index.
+     *
+     * @param index the index of the column
+     * @return the property which is filled by the column with the given index
+     */
+    public Property getProperty(int index) {
+        return properties[index];
+    }
+
+    /**
+     * Creates a new and empty instance of the entity.
+     *
+     * @return a new instance created via the default constructor
+     * @throws Exception in case of an error within the constructor
+     */
+    public Object newInstance() throws Exception {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates an entity from the given result row.
+     *
+     * @param supplier used to provide values for a given column name
+     * @return an entity containing the values of the given result row
+     * @throws Exception in case of an error while building the entity
+     */
+    public Object make(ValueSupplier<String> supplier) throws Exception {
+        return make(index -> supplier.apply(columnNames[index]), false);
+    }
+
+    /**
+     * Creates an entity from the given result row.
+     *
+     * @param supplier used to provide values for a given column name
+     * @param readOnly <tt>true</tt> to create a read-only entity which skips all change tracking
+     * @return an entity containing the values of the given result row
+     * @throws Exception in case of an error while building the entity
+     */
+    public Object make(ValueSupplier<String> supplier, boolean readOnly) throws Exception {
+        return make(index -> supplier.apply(columnNames[index]), readOnly);
+    }
+
+    /**
+     * Creates an entity from the given result row.
+     *
+     * @param columnSupplier used to provide values for a given column index. This may return <tt>null</tt> to
+     *                       signal that the column is not present in the result at all.
+     * @return an entity containing the values of the given result row
+     * @throws Exception in case of an error while building the entity
+     */
+    public Object make(IntFunction<Value> columnSupplier) throws Exception {
+        return make(columnSupplier, false);
+    }
+
+    /**
+     * Creates an entity from the given result row.
+     * <p>
+     * In read-only mode, no snapshots of the loaded values are created. The entity only remembers which properties
+     * were fetched and is marked as {@link BaseEntity#isReadOnly() read-only}, so that it cannot be updated.
+     *
+     * @param columnSupplier used to provide values for a given column index. This may return <tt>null</tt> to
+     *                       signal that the column is not present in the result at all.
+     * @param readOnly       <tt>true</tt> to create a read-only entity which skips all change tracking
+     * @return an entity containing the values of the given result row
+     * @throws Exception in case of an error while building the entity
+     */
+    public Object make(IntFunction<Value> columnSupplier, boolean readOnly) throws Exception {
+        Object entity = newInstance();
+        PersistedData persistedData = baseEntity ? ((BaseEntity<?>) entity).persistedData : null;
+        if (persistedData != null && readOnly) {
+            persistedData.markReadOnly();
+        }
+
+        for (int index = 0; index < properties.length; index++) {
+            Value data = columnSupplier.apply(index);
+            if (data != null) {
+                Property property = properties[index];
+                property.setValueFromDatasource(mapperType, entity, data);
+                if (persistedData == null) {
+                    continue;
+                }
+                if (readOnly) {
+                    persistedData.markFetched(property);
+                } else {
+                    persistedData.put(property, property.getValueAsSnapshot(entity));
+                }
+            }
+        }
+
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityRowMapper [" + descriptor.getType().getName() + "/" + mapperType.getSimpleName() + "]";
+    }
+}
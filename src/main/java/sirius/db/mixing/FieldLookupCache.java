@@ -19,16 +19,38 @@ import sirius.kernel.health.Exceptions;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Provides a global cache for field values.
  * <p>
- * This can be used to quickly resolve IDs into names / label when rendering tables of items.
+ * This can be used to quickly resolve IDs into names / label when rendering tables of items. Use
+ * {@link #lookupAll(Class, Collection, Mapping)} to resolve all IDs of such a table at once, as this only requires a
+ * single query per mapper for all IDs which aren't cached yet.
+ * <p>
+ * IDs of nonexistent entities are cached as empty values, so that these don't cause a query on each lookup.
  * Note that the cache isn't invalidated automatically but rather short lived.
  */
 @Register(classes = FieldLookupCache.class)
 public class FieldLookupCache {
-    private final Cache<String, Value> cache = CacheManager.createLocalCache("mixing-field-lookup");
+
+    /**
+     * Represents the key of a cached field value.
+     * <p>
+     * The ID is normalized to a string so that e.g. a long and a string ID of the same entity share the same entry.
+     *
+     * @param type  the type of the entity
+     * @param id    the ID of the entity
+     * @param field the field being cached
+     */
+    private record FieldKey(Class<?> type, String id, Mapping field) {
+    }
+
+    private final Cache<FieldKey, Value> cache = CacheManager.createLocalCache("mixing-field-lookup");
 
     @Part
     private Mixing mixing;
@@ -37,6 +59,11 @@ public class FieldLookupCache {
         return mixing.getDescriptor(type).getMapper().fetchField(type, id, field);
     }
 
+    private <E extends BaseEntity<?>> Map<String, Value> loadAll(Class<E> type, List<String> ids, Mapping field)
+            throws Exception {
+        return mixing.getDescriptor(type).getMapper().fetchFields(type, ids, field);
+    }
+
     /**
      * Provides the value of the given entity and field.
      * <p>
@@ -55,7 +82,7 @@ public class FieldLookupCache {
         }
 
         try {
-            String cacheKey = getCacheKey(type, id, field);
+            FieldKey cacheKey = new FieldKey(type, id.toString(), field);
             Value result = cache.get(cacheKey);
             if (result == null) {
                 result = load(type, id, field);
@@ -77,6 +104,73 @@ public class FieldLookupCache {
         }
     }
 
+    /**
+     * Provides the values of the given field for all given entities.
+     * <p>
+     * All IDs which aren't cached yet are resolved using a single
+     * {@link BaseMapper#fetchFields(Class, List, Mapping) lookup}. Empty IDs are skipped and IDs of nonexistent
+     * entities are reported (and cached) as empty values.
+     *
+     * @param type  the type of the entities to resolve
+     * @param ids   the ids of the entities to resolve
+     * @param field the field to resolve
+     * @param <E>   the generic type of the entities
+     * @return the values of the field keyed by the ID (as string) and ordered like the given IDs
+     */
+    public <E extends BaseEntity<?>> Map<String, Value> lookupAll(Class<E> type, Collection<?> ids, Mapping field) {
+        Map<String, Value> result = new LinkedHashMap<>();
+        List<String> idsToLoad = new ArrayList<>();
+        for (Object id : ids) {
+            if (Strings.isFilled(id) && !result.containsKey(id.toString())) {
+                Value value = cache.get(new FieldKey(type, id.toString(), field));
+                if (value == null) {
+                    idsToLoad.add(id.toString());
+                }
+                result.put(id.toString(), value);
+            }
+        }
+
+        if (idsToLoad.isEmpty()) {
+            return result;
+        }
+
+        try {
+            Map<String, Value> loadedValues = loadAll(type, idsToLoad, field);
+            for (String id : idsToLoad) {
+                Value value = loadedValues.getOrDefault(id, Value.EMPTY);
+                cache.put(new FieldKey(type, id, field), value);
+                result.put(id, value);
+            }
+        } catch (Exception e) {
+            Exceptions.handle()
+                      .to(Mixing.LOG)
+                      .error(e)
+                      .withSystemErrorMessage(
+                              "An error occurred when performing a lookup on field %s for %s entities of type %s: %s (%s)",
+                              field,
+                              idsToLoad.size(),
+                              type)
+                      .handle();
+            idsToLoad.forEach(id -> result.put(id, Value.EMPTY));
+        }
+
+        return result;
+    }
+
+    /**
+     * Provides the values of the given field for all given entities.
+     *
+     * @param type  the type of the entities to resolve
+     * @param ids   the ids of the entities to resolve
+     * @param field the field to resolve
+     * @param <E>   the generic type of the entities
+     * @return the values of the field keyed by the ID (as string) and ordered like the given IDs
+     * @see #lookupAll(Class, Collection, Mapping)
+     */
+    public <E extends BaseEntity<?>> Map<String, Value> lookupAll(Class<E> type, Collection<?> ids, String field) {
+        return lookupAll(type, ids, Mapping.named(field));
+    }
+
     /**
      * Provides the cache key of the given entity and field.
      *
@@ -85,8 +179,10 @@ public class FieldLookupCache {
      * @param field the field to resolve
      * @param <E>   the generic type of the entity
      * @return the value of the cache key or an empty string if either the field is empty or the given ID was <tt>null</tt>
+     * @deprecated the cache is no longer keyed by strings, therefore this key isn't used anymore
      */
     @Nonnull
+    @Deprecated(forRemoval = true)
     public <E extends BaseEntity<?>> String getCacheKey(Class<E> type, Object id, Mapping field) {
         return Mixing.getUniqueName(type, id) + "-" + field;
     }
@@ -0,0 +1,124 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.mixing;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Keeps the values of an entity as they were last loaded from or written into the database.
+ * <p>
+ * These snapshots are used for change tracking (see {@link EntityDescriptor#isChanged(BaseEntity, Property)}).
+ * Instead of a hash map, the values are kept in a compact array which is indexed by the
+ * {@link Property#getOrdinal() ordinal} of each property. A slot which is <tt>null</tt> represents a property which
+ * has not been fetched at all, whereas fetched <tt>null</tt> values are represented by a marker.
+ * <p>
+ * Note that collection based properties hand in copy-on-write snapshots (see
+ * {@link Property#getValueAsSnapshot(Object)}), therefore no copy of a collection is created unless the entity
+ * actually modifies it.
+ */
+public class PersistedData {
+
+    private static final Object NULL_VALUE = new Object();
+    private static final Object FETCHED = new Object();
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] values = EMPTY;
+    private boolean readOnly;
+
+    /**
+     * Stores the given value as persisted value for the given property.
+     *
+     * @param property the property to store the value for
+     * @param value    the value to store
+     */
+    public void put(Property property, @Nullable Object value) {
+        store(property, value == null ? NULL_VALUE : value);
+    }
+
+    /**
+     * Only records that the given property has been fetched, without keeping a snapshot of its value.
+     * <p>
+     * This is used for {@link #markReadOnly() read-only} entities, which still need to know which properties were
+     * loaded (see {@link EntityDescriptor#isFetched(BaseEntity, Property)}), but never perform any change tracking.
+     *
+     * @param property the property which has been fetched
+     */
+    public void markFetched(Property property) {
+        store(property, FETCHED);
+    }
+
+    private void store(Property property, Object value) {
+        int ordinal = property.getOrdinal();
+        if (ordinal < 0) {
+            return;
+        }
+        if (ordinal >= values.length) {
+            values = Arrays.copyOf(values, Math.max(ordinal + 1, property.getDescriptor().getProperties().size()));
+        }
+
+        values[ordinal] = value;
+    }
+
+    /**
+     * Returns the persisted value of the given property.
+     *
+     * @param property the property to fetch the value for
+     * @return the persisted value or <tt>null</tt> if either <tt>null</tt> was stored or if the property was not
+     * fetched at all
+     */
+    @Nullable
+    public Object get(Property property) {
+        int ordinal = property.getOrdinal();
+        if (ordinal < 0 || ordinal >= values.length) {
+            return null;
+        }
+
+        Object value = values[ordinal];
+        return value == NULL_VALUE || value == FETCHED ? null : value;
+    }
+
+    /**
+     * Determines if a persisted value is present for the given property.
+     *
+     * @param property the property to check
+     * @return <tt>true</tt> if a value (which might be <tt>null</tt>) was stored, <tt>false</tt> otherwise
+     */
+    public boolean containsKey(Property property) {
+        int ordinal = property.getOrdinal();
+        return ordinal >= 0 && ordinal < values.length && values[ordinal] != null;
+    }
+
+    /**
+     * Removes all persisted values.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+
+    /**
+     * Marks the owning entity as read-only.
+     * <p>
+     * Read-only entities are created by queries which were marked via
+     * {@link sirius.db.mixing.query.BaseQuery#readOnly()}. These carry no snapshots and must therefore never be
+     * written back into the database.
+     */
+    public void markReadOnly() {
+        this.readOnly = true;
+    }
+
+    /**
+     * Determines if the owning entity has been loaded in read-only mode.
+     *
+     * @return <tt>true</tt> if the entity is read-only, <tt>false</tt> otherwise
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+}
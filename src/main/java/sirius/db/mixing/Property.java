@@ -28,6 +28,9 @@ import sirius.kernel.nls.NLS;
 
 import javax.annotation.Nonnull;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.List;
@@ -46,6 +49,10 @@ public abstract class Property extends Composable {
     @Part
     private static GlobalContext globalContext;
 
+    private static final MethodHandles.Lookup FIELD_LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     /**
      * Contains the effective property name. If the field, for which this property was created, resides
      * inside a mixin or composite, the name will be prefixed appropriately. Names are separated by
@@ -145,6 +152,25 @@ public abstract class Property extends Composable {
      */
     protected boolean strictValidation = true;
 
+    /**
+     * Contains the index of this property within its descriptor.
+     *
+     * @see #getOrdinal()
+     */
+    protected int ordinal = -1;
+
+    /**
+     * Contains a pre-compiled handle which reads the {@link #field}. This is <tt>null</tt> if the field cannot be
+     * accessed via a method handle, in which case we fall back to plain reflection.
+     */
+    private MethodHandle fieldGetter;
+
+    /**
+     * Contains a pre-compiled handle which writes the {@link #field}. This is <tt>null</tt> if the field cannot be
+     * accessed via a method handle, in which case we fall back to plain reflection.
+     */
+    private MethodHandle fieldSetter;
+
     /**
      * Creates a new property for the given descriptor, access path and field.
      *
@@ -161,6 +187,7 @@ public abstract class Property extends Composable {
                            + field.getName();
         this.alternativePropertyKey = "Model." + field.getName();
         this.field.setAccessible(true);
+        compileFieldAccessors();
         this.name = accessPath.qualify(field.getName());
         if (Strings.isFilled(accessPath.prefix())) {
             this.localPropertyKey = descriptor.getTranslationSource().getSimpleName() + "." + name;
@@ -175,6 +202,17 @@ public abstract class Property extends Composable {
         determinePropertyValidator();
     }
 
+    private void compileFieldAccessors() {
+        try {
+            this.fieldGetter = FIELD_LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+            this.fieldSetter = FIELD_LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            Exceptions.ignore(e);
+            this.fieldGetter = null;
+            this.fieldSetter = null;
+        }
+    }
+
     /**
      * Determines the default value of the property by checking for a {@link DefaultValue} annotation on the field, or its initial value.
      */
@@ -284,6 +322,17 @@ public abstract class Property extends Composable {
         return propertyName;
     }
 
+    /**
+     * Returns the index of this property within the properties of its descriptor.
+     * <p>
+     * This is used to store per-property data (like {@link PersistedData}) in compact arrays.
+     *
+     * @return the zero-based index of this property or <tt>-1</tt> if the property isn't registered in its descriptor
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     /**
      * Returns the field which will store the database value.
      *
@@ -424,7 +473,11 @@ public abstract class Property extends Composable {
      */
     protected void setValueToField(Object value, Object target) {
         try {
-            field.set(target, value);
+            if (fieldSetter != null) {
+                writeViaHandle(value, target);
+            } else {
+                field.set(target, value);
+            }
         } catch (IllegalAccessException | IllegalArgumentException e) {
             throw Exceptions.handle()
                             .to(Mixing.LOG)
@@ -436,6 +489,27 @@ public abstract class Property extends Composable {
         }
     }
 
+    private void writeViaHandle(Object value, Object target) throws IllegalAccessException {
+        if (value == null && field.getType().isPrimitive()) {
+            // The handle would fail with a NullPointerException, whereas Field.set reports a proper
+            // IllegalArgumentException...
+            field.set(target, null);
+            return;
+        }
+
+        try {
+            fieldSetter.invokeExact(target, value);
+        } catch (ClassCastException e) {
+            // The handle only performs unboxing but no widening of primitives (e.g. Integer into a long field).
+            // Field.set is less strict here, therefore we fall back to it for such values...
+            field.set(target, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Applies the given database value to the given entity.
      * <p>
@@ -545,6 +619,33 @@ public abstract class Property extends Composable {
         return getValue(entity);
     }
 
+    /**
+     * Returns the value to remember as persisted value for change tracking.
+     * <p>
+     * By default, this is the same as {@link #getValueAsCopy(Object)}. Properties which are backed by copy-on-write
+     * collections can return the internal data here, which is then only copied once the entity modifies it.
+     *
+     * @param entity the entity to fetch the value from
+     * @return a value which will not change if the entity is modified
+     */
+    public Object getValueAsSnapshot(Object entity) {
+        return getValueAsCopy(entity);
+    }
+
+    /**
+     * Determines if the given snapshot is still shared with the current value of the entity.
+     * <p>
+     * This permits to skip comparing collections for change tracking, as long as the entity didn't modify them
+     * since the snapshot was taken via {@link #getValueAsSnapshot(Object)}.
+     *
+     * @param entity   the entity to check
+     * @param snapshot the snapshot which has been taken earlier
+     * @return <tt>true</tt> if the value is known to be unchanged, <tt>false</tt> if the values have to be compared
+     */
+    protected boolean isSnapshotUnchanged(Object entity, Object snapshot) {
+        return false;
+    }
+
     /**
      * Obtains the value from the field in the given target object
      *
@@ -553,6 +654,9 @@ public abstract class Property extends Composable {
      */
     protected Object getValueFromField(Object target) {
         try {
+            if (fieldGetter != null) {
+                return readViaHandle(target);
+            }
             return field.get(target);
         } catch (IllegalAccessException e) {
             throw Exceptions.handle()
@@ -565,6 +669,16 @@ public abstract class Property extends Composable {
         }
     }
 
+    private Object readViaHandle(Object target) {
+        try {
+            return (Object) fieldGetter.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Obtains the database value from the given entity.
      * <p>
@@ -113,6 +113,16 @@ public class BaseEntityRefListProperty extends Property implements ESPropertyInf
         return getEntityRefList(accessPath.apply(entity)).copyList();
     }
 
+    @Override
+    public Object getValueAsSnapshot(Object entity) {
+        return getEntityRefList(accessPath.apply(entity)).share();
+    }
+
+    @Override
+    protected boolean isSnapshotUnchanged(Object entity, Object snapshot) {
+        return getEntityRefList(accessPath.apply(entity)).isSharedWith(snapshot);
+    }
+
     @Override
     public Object transformValue(Value value) {
         if (value.isEmptyString()) {
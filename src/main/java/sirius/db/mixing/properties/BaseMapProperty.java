@@ -50,6 +50,18 @@ public abstract class BaseMapProperty extends Property {
         return ((SafeMap<?, ?>) super.getValueFromField(target)).copyMap();
     }
 
+    @Override
+    public Object getValueAsSnapshot(Object entity) {
+        Object target = accessPath.apply(entity);
+        return ((SafeMap<?, ?>) super.getValueFromField(target)).share();
+    }
+
+    @Override
+    protected boolean isSnapshotUnchanged(Object entity, Object snapshot) {
+        Object target = accessPath.apply(entity);
+        return ((SafeMap<?, ?>) super.getValueFromField(target)).isSharedWith(snapshot);
+    }
+
     @Override
     public Object transformValue(Value value) {
         if (value.isEmptyString()) {
@@ -113,6 +113,11 @@ public class NestedListProperty extends Property implements ESPropertyInfo {
         return getNestedList(accessPath.apply(entity)).copyList();
     }
 
+    @Override
+    public Object getValueAsSnapshot(Object entity) {
+        return getNestedList(accessPath.apply(entity)).share();
+    }
+
     @Override
     public Object transformValue(Value value) {
         if (value.isEmptyString()) {
@@ -120,6 +120,18 @@ public class StringListProperty extends Property implements ESPropertyInfo, SQLP
         return ((StringList) super.getValueFromField(target)).copyList();
     }
 
+    @Override
+    public Object getValueAsSnapshot(Object entity) {
+        Object target = accessPath.apply(entity);
+        return ((StringList) super.getValueFromField(target)).share();
+    }
+
+    @Override
+    protected boolean isSnapshotUnchanged(Object entity, Object snapshot) {
+        Object target = accessPath.apply(entity);
+        return ((StringList) super.getValueFromField(target)).isSharedWith(snapshot);
+    }
+
     @Override
     public Object transformValue(Value value) {
         if (value.isEmptyString()) {
@@ -10,9 +10,12 @@ package sirius.db.mixing.query;
 
 import sirius.db.mixing.BaseEntity;
 import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Mapping;
 import sirius.db.mixing.Mixing;
+import sirius.db.mixing.properties.BaseEntityRefProperty;
 import sirius.kernel.async.TaskContext;
 import sirius.kernel.commons.Limit;
+import sirius.kernel.commons.Strings;
 import sirius.kernel.commons.Value;
 import sirius.kernel.commons.ValueHolder;
 import sirius.kernel.di.std.Part;
@@ -70,6 +73,21 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
      */
     protected boolean forceFail;
 
+    /**
+     * If true, entities are materialized without any change tracking.
+     */
+    protected boolean readOnly;
+
+    /**
+     * Contains the number of blocks to fetch ahead in {@link #streamBlockwise()} (or 0 to fetch synchronously).
+     */
+    protected int prefetchedBlocks;
+
+    /**
+     * Contains the reference fields which are resolved blockwise while processing the result.
+     */
+    protected List<Mapping> prefetchedReferences = new ArrayList<>();
+
     @Part
     protected static Mixing mixing;
 
@@ -98,6 +116,15 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
         return forceFail;
     }
 
+    /**
+     * Determines if the entities of this query are loaded in read-only mode.
+     *
+     * @return <tt>true</tt> if the query was marked via {@link #readOnly()}, <tt>false</tt> otherwise
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     /**
      * Returns the underlying descriptor
      *
@@ -167,6 +194,93 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
         return (Q) this;
     }
 
+    /**
+     * Marks this query as read-only (projection) query.
+     * <p>
+     * The resulting entities are materialized without creating any snapshots of their loaded values, which saves
+     * a considerable amount of allocations for large reporting or export workloads. Note that such entities
+     * can neither detect changes nor be updated - any attempt to do so will be rejected by the
+     * {@link sirius.db.mixing.BaseMapper}. However, they can still be deleted.
+     * <p>
+     * When combined with a field selection, properties which were not selected are skipped entirely.
+     *
+     * @return the query itself for fluent method calls
+     */
+    @SuppressWarnings("unchecked")
+    public Q readOnly() {
+        this.readOnly = true;
+        return (Q) this;
+    }
+
+    /**
+     * Enables the pipelined mode of {@link #streamBlockwise()}.
+     * <p>
+     * In this mode, the next blocks are fetched by a background thread while the current block is being processed.
+     * This overlaps the network round-trip and the materialization of the entities with the processing of the
+     * results. At most the given number of blocks are kept in memory, waiting to be consumed.
+     * <p>
+     * Note that streams which aren't fully consumed should be closed (e.g. using <tt>try-with-resources</tt>),
+     * so that the background thread is stopped immediately. Also note that not all queries support this mode, in
+     * which case the blocks are still fetched synchronously.
+     *
+     * @param numberOfBlocks the max number of blocks to fetch ahead. Values &lt;= 0 disable the pipelined mode
+     * @return the query itself for fluent method calls
+     */
+    @SuppressWarnings("unchecked")
+    public Q prefetchBlocks(int numberOfBlocks) {
+        this.prefetchedBlocks = Math.max(0, numberOfBlocks);
+        return (Q) this;
+    }
+
+    /**
+     * Resolves the given reference field of all entities in the result using as few lookups as possible.
+     * <p>
+     * Entities are processed in blocks. For each block, the IDs of the given reference are collected and resolved
+     * via a single {@link sirius.db.mixing.BaseMapper#findAll(Class, java.util.Collection,
+     * sirius.db.mixing.ContextInfo...) multi-get}, before the entities are handed to the consumer. Therefore,
+     * {@link sirius.db.mixing.types.BaseEntityRef#fetchCachedValue()} doesn't cause a lookup per entity.
+     * <p>
+     * Note that references which are already loaded (e.g. by a join fetch in a <tt>SmartQuery</tt>) are skipped.
+     *
+     * @param refField the reference field to resolve
+     * @return the query itself for fluent method calls
+     */
+    @SuppressWarnings("unchecked")
+    public Q prefetch(Mapping refField) {
+        if (!(descriptor.getProperty(refField) instanceof BaseEntityRefProperty<?, ?, ?>)) {
+            throw new IllegalArgumentException(Strings.apply("Cannot prefetch '%s' of %s as it is not a reference.",
+                                                             refField,
+                                                             descriptor.getType().getName()));
+        }
+
+        prefetchedReferences.add(refField);
+        return (Q) this;
+    }
+
+    /**
+     * Resolves the {@link #prefetch(Mapping) prefetched references} of the given block of entities.
+     * <p>
+     * This has to be invoked by implementations of {@link #streamBlockwise()} for each block.
+     *
+     * @param block the block of entities to resolve the references for
+     * @return the given block for fluent method calls
+     */
+    protected List<E> prefetchReferences(List<E> block) {
+        if (block != null && !prefetchedReferences.isEmpty()) {
+            new ReferencePrefetcher<E>(descriptor, prefetchedReferences).prefetch(block);
+        }
+
+        return block;
+    }
+
+    private void iterateWithPrefetch(Predicate<E> handler) {
+        if (prefetchedReferences.isEmpty()) {
+            doIterate(handler);
+        } else {
+            new ReferencePrefetcher<E>(descriptor, prefetchedReferences).iterate(this::doIterate, handler);
+        }
+    }
+
     /**
      * Returns a list of all items in the result.
      * <p>
@@ -200,7 +314,7 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
             limit = MAX_LIST_SIZE + 1;
         }
 
-        doIterate(entity -> {
+        iterateWithPrefetch(entity -> {
             result.add(entity);
             failOnOverflow(result);
             return true;
@@ -240,7 +354,7 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
      */
     public void iterate(Predicate<E> handler) {
         TaskContext taskContext = TaskContext.get();
-        doIterate(handler.and(ignored -> taskContext.isActive()));
+        iterateWithPrefetch(handler.and(ignored -> taskContext.isActive()));
     }
 
     /**
@@ -320,7 +434,7 @@ public abstract class BaseQuery<Q, E extends BaseEntity<?>> {
     public E queryFirst() {
         ValueHolder<E> result = ValueHolder.of(null);
         limit(1);
-        doIterate(r -> {
+        iterateWithPrefetch(r -> {
             result.set(r);
             return false;
         });
@@ -0,0 +1,206 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.mixing.query;
+
+import sirius.db.mixing.Mixing;
+import sirius.kernel.async.TaskContext;
+import sirius.kernel.health.Exceptions;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fetches the blocks of a {@link BaseQuery#streamBlockwise()} in a background thread.
+ * <p>
+ * While the consumer processes block <tt>N</tt>, block <tt>N+1</tt> (and up to the given number of further blocks)
+ * is already being fetched and materialized by a virtual thread. The number of blocks being kept in memory is
+ * limited by a bounded queue, so that a slow consumer cannot cause an unbounded memory usage.
+ * <p>
+ * The supplier is invoked sequentially, one block after another, until it either returns an empty block, the
+ * prefetcher is {@link #close() closed} or the given {@link TaskContext} is no longer active.
+ *
+ * @param <E> the type of entities in a block
+ */
+public class BlockPrefetcher<E> implements AutoCloseable {
+
+    /**
+     * Determines how long the producer waits for the consumer to pick up a block before giving up.
+     * <p>
+     * This ensures that streams which are neither fully consumed nor closed do not leak a background thread forever.
+     */
+    private static final Duration MAX_CONSUMER_IDLE = Duration.ofHours(1);
+
+    /**
+     * Determines how long {@link #close()} waits for a block which is currently being fetched.
+     */
+    private static final Duration MAX_CLOSE_WAIT = Duration.ofSeconds(10);
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private final String name;
+    private final Supplier<List<E>> blockSupplier;
+    private final TaskContext taskContext;
+    private final BlockingQueue<Block<E>> queue;
+    private volatile boolean closed;
+    private volatile boolean abandoned;
+    private Thread producer;
+    private boolean completed;
+
+    private record Block<E>(@Nullable List<E> entities, @Nullable Throwable failure) {
+    }
+
+    /**
+     * Creates a new prefetcher.
+     *
+     * @param name              the name of the query (used to name the background thread)
+     * @param maxBufferedBlocks the maximal number of fetched blocks which are waiting to be consumed
+     * @param taskContext       the task context of the consumer which is used to detect a cancellation
+     * @param blockSupplier     the supplier which fetches the next block. This is invoked in the background thread
+     *                          and has to return an empty list once all entities have been fetched
+     */
+    public BlockPrefetcher(String name,
+                           int maxBufferedBlocks,
+                           TaskContext taskContext,
+                           Supplier<List<E>> blockSupplier) {
+        this.name = name;
+        this.blockSupplier = blockSupplier;
+        this.taskContext = taskContext;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, maxBufferedBlocks));
+    }
+
+    /**
+     * Returns the next block.
+     * <p>
+     * The background thread is started on the first invocation, therefore no query is executed unless the stream
+     * is actually being consumed.
+     *
+     * @return the next block, an empty list if all entities have been fetched or <tt>null</tt> if either the
+     * prefetcher was closed or the task context has been cancelled
+     * @throws sirius.kernel.health.HandledException if fetching a block failed in the background thread or if the
+     *                                               background thread stopped without providing a block
+     */
+    @Nullable
+    public List<E> nextBlock() {
+        if (completed) {
+            return List.of();
+        }
+        if (producer == null) {
+            producer = Thread.ofVirtual().name("prefetch-" + name).start(this::fetchBlocks);
+        }
+
+        try {
+            Block<E> block = null;
+            while (block == null) {
+                if (closed || !taskContext.isActive()) {
+                    return null;
+                }
+                block = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (block == null && abandoned) {
+                    throw Exceptions.handle()
+                                    .to(Mixing.LOG)
+                                    .withSystemErrorMessage(
+                                            "%s has been abandoned, as no block was consumed for %s.",
+                                            this,
+                                            MAX_CONSUMER_IDLE)
+                                    .handle();
+                }
+                if (block == null && !producer.isAlive()) {
+                    // The producer might have enqueued a last block right before terminating...
+                    block = queue.poll();
+                    if (block == null) {
+                        throw Exceptions.handle()
+                                        .to(Mixing.LOG)
+                                        .withSystemErrorMessage("%s has stopped without providing a block.", this)
+                                        .handle();
+                    }
+                }
+            }
+
+            if (block.failure() != null) {
+                completed = true;
+                throw Exceptions.handle(Mixing.LOG, block.failure());
+            }
+            if (block.entities().isEmpty()) {
+                completed = true;
+            }
+
+            return block.entities();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            close();
+            return null;
+        }
+    }
+
+    private void fetchBlocks() {
+        try {
+            while (!closed && taskContext.isActive()) {
+                List<E> entities = blockSupplier.get();
+                if (!enqueue(new Block<>(entities, null)) || entities.isEmpty()) {
+                    return;
+                }
+            }
+        } catch (Throwable exception) {
+            enqueue(new Block<>(null, exception));
+        }
+    }
+
+    private boolean enqueue(Block<E> block) {
+        try {
+            long deadline = System.currentTimeMillis() + MAX_CONSUMER_IDLE.toMillis();
+            while (!closed && taskContext.isActive()) {
+                if (queue.offer(block, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    Mixing.LOG.WARN("Stopped prefetching %s as the consumer didn't pick up a block for %s. "
+                                    + "Make sure to close streams which are not fully consumed.",
+                                    name,
+                                    MAX_CONSUMER_IDLE);
+                    abandoned = true;
+                    return false;
+                }
+            }
+
+            return false;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stops prefetching any further blocks and discards all blocks which have not been consumed yet.
+     * <p>
+     * If a block is currently being fetched, this waits (up to {@link #MAX_CLOSE_WAIT}) for the request to complete,
+     * so that the caller can safely release resources (like cursors) used by the block supplier.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+        if (producer != null && producer != Thread.currentThread()) {
+            try {
+                producer.join(MAX_CLOSE_WAIT);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Prefetching " + name;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.mixing.query;
+
+import sirius.db.mixing.BaseEntity;
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Mapping;
+import sirius.db.mixing.properties.BaseEntityRefProperty;
+import sirius.db.mixing.types.BaseEntityRef;
+import sirius.kernel.commons.Monoflop;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Resolves the references of a block of entities using one lookup per reference field.
+ * <p>
+ * This is used by {@link BaseQuery#prefetch(Mapping)} to avoid a lookup per entity and reference when
+ * {@link BaseEntityRef#fetchCachedValue()} is invoked while processing a query result. The IDs of all references of
+ * a block are collected and resolved via {@link BaseMapper#findAll(Class, java.util.Collection,
+ * sirius.db.mixing.ContextInfo...)}. References which are already loaded (e.g. via a join fetch of a
+ * {@link sirius.db.jdbc.SmartQuery}) are skipped, references to entities which don't exist are left untouched.
+ * <p>
+ * References to entities which cannot be found without context info (e.g. routed Elasticsearch entities, see
+ * {@link BaseMapper#canFindWithoutContext(EntityDescriptor)}) are not prefetched at all and are resolved on demand as
+ * usual.
+ *
+ * @param <E> the type of entities being processed
+ */
+class ReferencePrefetcher<E extends BaseEntity<?>> {
+
+    /**
+     * Contains the number of entities which are buffered by {@link #iterate(Consumer, Predicate)} before their
+     * references are resolved.
+     */
+    private static final int BLOCK_SIZE = 256;
+
+    private final List<BaseEntityRefProperty<?, ?, ?>> properties;
+
+    /**
+     * Creates a new prefetcher for the given reference fields.
+     *
+     * @param descriptor the descriptor of the entities being processed
+     * @param references the reference fields to resolve
+     */
+    ReferencePrefetcher(EntityDescriptor descriptor, List<Mapping> references) {
+        this.properties = references.stream()
+                                    .map(descriptor::getProperty)
+                                    .<BaseEntityRefProperty<?, ?, ?>>map(BaseEntityRefProperty.class::cast)
+                                    .filter(ReferencePrefetcher::canPrefetch)
+                                    .toList();
+    }
+
+    private static boolean canPrefetch(BaseEntityRefProperty<?, ?, ?> property) {
+        EntityDescriptor referencedDescriptor = property.getReferencedDescriptor();
+        return referencedDescriptor.getMapper().canFindWithoutContext(referencedDescriptor);
+    }
+
+    /**
+     * Resolves the references of all given entities.
+     *
+     * @param entities the entities to resolve the references for
+     */
+    void prefetch(List<E> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        for (BaseEntityRefProperty<?, ?, ?> property : properties) {
+            prefetch(property, entities);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void prefetch(BaseEntityRefProperty<?, ?, ?> property, List<E> entities) {
+        List<BaseEntityRef> references = new ArrayList<>(entities.size());
+        Set<Object> ids = new LinkedHashSet<>();
+        for (E entity : entities) {
+            BaseEntityRef<?, ?> reference = property.getEntityRef(entity);
+            if (reference != null && !reference.isValueLoaded()) {
+                references.add(reference);
+                ids.add(reference.getId());
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        EntityDescriptor referencedDescriptor = property.getReferencedDescriptor();
+        BaseMapper mapper = referencedDescriptor.getMapper();
+        Map<String, BaseEntity<?>> referencedEntities = mapper.findAll(referencedDescriptor.getType(), ids);
+        for (BaseEntityRef reference : references) {
+            BaseEntity<?> referencedEntity = referencedEntities.get(reference.getIdAsString());
+            if (referencedEntity != null) {
+                reference.setValue(referencedEntity);
+            }
+        }
+    }
+
+    /**
+     * Performs the given iteration while resolving the references in blocks of {@link #BLOCK_SIZE} entities
+     * before handing them to the handler.
+     *
+     * @param iteration the iteration to perform, which is supplied with the handler to invoke for each entity
+     * @param handler   the handler to invoke for each entity once its references have been resolved
+     */
+    void iterate(Consumer<Predicate<E>> iteration, Predicate<E> handler) {
+        List<E> buffer = new ArrayList<>(BLOCK_SIZE);
+        Monoflop aborted = Monoflop.create();
+        iteration.accept(entity -> {
+            buffer.add(entity);
+            if (buffer.size() < BLOCK_SIZE || flush(buffer, handler)) {
+                return true;
+            }
+
+            aborted.toggle();
+            return false;
+        });
+
+        if (!aborted.isToggled()) {
+            flush(buffer, handler);
+        }
+    }
+
+    private boolean flush(List<E> buffer, Predicate<E> handler) {
+        prefetch(buffer);
+        try {
+            for (E entity : buffer) {
+                if (!handler.test(entity)) {
+                    return false;
+                }
+            }
+
+            return true;
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -11,6 +11,11 @@ package sirius.db.mixing.types;
 import sirius.db.mixing.BaseEntity;
 import sirius.db.mixing.ContextInfo;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -43,6 +48,26 @@ public abstract class BaseEntityRefList<E extends BaseEntity<String>, L extends
      */
     protected abstract Optional<E> resolve(String id, ContextInfo... context);
 
+    /**
+     * Resolves the given IDs into entity instances.
+     * <p>
+     * By default, this resolves each ID on its own. Subclasses should use
+     * {@link sirius.db.mixing.BaseMapper#findAll(Class, java.util.Collection, ContextInfo...)} to resolve all IDs
+     * at once.
+     *
+     * @param ids     the IDs to resolve
+     * @param context the context used for resolving (routing etc.)
+     * @return a map containing all resolved entities by their ID. IDs which couldn't be resolved are skipped.
+     */
+    protected Map<String, E> resolveAll(List<String> ids, ContextInfo... context) {
+        Map<String, E> result = new HashMap<>();
+        for (String id : ids) {
+            resolve(id, context).ifPresent(entity -> result.put(id, entity));
+        }
+
+        return result;
+    }
+
     /**
      * Adds the given entity to the list.
      * <p>
@@ -114,6 +139,24 @@ public abstract class BaseEntityRefList<E extends BaseEntity<String>, L extends
         return fetchAll(context).filter(Optional::isPresent).map(Optional::get);
     }
 
+    /**
+     * Returns all entities in the list by resolving them against the database using as few lookups as possible.
+     * <p>
+     * In contrast to {@link #fetchAll(ContextInfo...)} this resolves all IDs at once (e.g. using an <tt>IN</tt>
+     * query), which is way more efficient for larger lists.
+     *
+     * @param context the lookup context
+     * @return a list of all entities in the list which also exist in the database, in the order of the list
+     */
+    public List<E> fetchValues(ContextInfo... context) {
+        if (data().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, E> entities = resolveAll(data(), context);
+        return data().stream().map(entities::get).filter(Objects::nonNull).toList();
+    }
+
     @Override
     protected boolean valueNeedsCopy() {
         return false;
@@ -29,6 +29,12 @@ public abstract class SafeList<T> implements Iterable<T> {
 
     private List<T> data;
 
+    /**
+     * Determines if {@link #data} is shared with a snapshot (see {@link #share()}) and therefore has to be copied
+     * before being modified.
+     */
+    private boolean shared;
+
     /**
      * Provides readonly access to the underlying list.
      *
@@ -50,7 +56,10 @@ public abstract class SafeList<T> implements Iterable<T> {
     public List<T> modify() {
         if (data == null) {
             data = new ArrayList<>();
+        } else if (shared) {
+            data = new ArrayList<>(data);
         }
+        shared = false;
 
         return data;
     }
@@ -97,6 +106,7 @@ public abstract class SafeList<T> implements Iterable<T> {
      */
     public void setData(List<T> newData) {
         this.data = newData;
+        this.shared = false;
     }
 
     /**
@@ -151,7 +161,10 @@ public abstract class SafeList<T> implements Iterable<T> {
      * @return the list itself for fluent method calls
      */
     public SafeList<T> clear() {
-        if (data != null) {
+        if (shared) {
+            data = null;
+            shared = false;
+        } else if (data != null) {
             data.clear();
         }
 
@@ -260,4 +273,38 @@ public abstract class SafeList<T> implements Iterable<T> {
             return new ArrayList<>(data);
         }
     }
+
+    /**
+     * Provides a snapshot of the underlying list which is used for change tracking.
+     * <p>
+     * In contrast to {@link #copyList()}, this doesn't copy the list if the values themselves are immutable. Rather
+     * the list is shared with the snapshot and only copied once this list is modified (copy-on-write). Lists with
+     * mutable values (see {@link #valueNeedsCopy()}) are still copied, as these values might be modified in place.
+     *
+     * @return a snapshot of the internally stored list which will not be modified by this list
+     */
+    public List<T> share() {
+        if (data == null) {
+            return Collections.emptyList();
+        }
+
+        if (valueNeedsCopy()) {
+            return copyList();
+        }
+
+        shared = true;
+        return data;
+    }
+
+    /**
+     * Determines if the given snapshot, obtained via {@link #share()}, is still shared with this list.
+     * <p>
+     * If this is the case, this list has not been modified since the snapshot was taken.
+     *
+     * @param snapshot the snapshot to check
+     * @return <tt>true</tt> if the snapshot is still shared, <tt>false</tt> otherwise
+     */
+    public boolean isSharedWith(Object snapshot) {
+        return shared && data == snapshot;
+    }
 }
@@ -27,6 +27,12 @@ public abstract class SafeMap<K, V> implements Iterable<Map.Entry<K, V>> {
 
     protected Map<K, V> data;
 
+    /**
+     * Determines if {@link #data} is shared with a snapshot (see {@link #share()}) and therefore has to be copied
+     * before being modified.
+     */
+    private boolean shared;
+
     /**
      * Provides readonly access to the underlying map.
      *
@@ -48,7 +54,10 @@ public abstract class SafeMap<K, V> implements Iterable<Map.Entry<K, V>> {
     public Map<K, V> modify() {
         if (data == null) {
             data = new LinkedHashMap<>();
+        } else if (shared) {
+            data = new LinkedHashMap<>(data);
         }
+        shared = false;
 
         return data;
     }
@@ -82,7 +91,10 @@ public abstract class SafeMap<K, V> implements Iterable<Map.Entry<K, V>> {
      * @return the map itself for fluent method calls
      */
     public SafeMap<K, V> clear() {
-        if (data != null) {
+        if (shared) {
+            data = null;
+            shared = false;
+        } else if (data != null) {
             data.clear();
         }
 
@@ -112,6 +124,40 @@ public abstract class SafeMap<K, V> implements Iterable<Map.Entry<K, V>> {
         return result;
     }
 
+    /**
+     * Provides a snapshot of the underlying map which is used for change tracking.
+     * <p>
+     * In contrast to {@link #copyMap()}, this doesn't copy the map if the values themselves are immutable. Rather
+     * the map is shared with the snapshot and only copied once this map is modified (copy-on-write). Maps with
+     * mutable values (see {@link #valueNeedsCopy()}) are still copied, as these values might be modified in place.
+     *
+     * @return a snapshot of the internally stored map which will not be modified by this map
+     */
+    public Map<K, V> share() {
+        if (data == null) {
+            return Collections.emptyMap();
+        }
+
+        if (valueNeedsCopy()) {
+            return copyMap();
+        }
+
+        shared = true;
+        return data;
+    }
+
+    /**
+     * Determines if the given snapshot, obtained via {@link #share()}, is still shared with this map.
+     * <p>
+     * If this is the case, this map has not been modified since the snapshot was taken.
+     *
+     * @param snapshot the snapshot to check
+     * @return <tt>true</tt> if the snapshot is still shared, <tt>false</tt> otherwise
+     */
+    public boolean isSharedWith(Object snapshot) {
+        return shared && data == snapshot;
+    }
+
     /**
      * Determines if values in this map must be copied if the map is copied.
      *
@@ -154,6 +200,7 @@ public abstract class SafeMap<K, V> implements Iterable<Map.Entry<K, V>> {
      */
     public void setData(Map<K, V> newData) {
         this.data = newData;
+        this.shared = false;
     }
 
     /**
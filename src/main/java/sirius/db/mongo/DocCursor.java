@@ -0,0 +1,88 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.mongo;
+
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import sirius.kernel.commons.Watch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a server-side cursor which is used to read a result batch by batch.
+ * <p>
+ * In contrast to issuing a new query per block, the query is only planned once and each further batch is obtained
+ * via a single <tt>getMore</tt> round trip. Each round trip is reported to the same metrics as any other query
+ * executed by the {@link Finder}.
+ * <p>
+ * Note that a cursor has to be {@link #close() closed} once it is no longer used. Also note that the server will
+ * discard an idle cursor after a while (10 minutes by default), therefore each batch should be processed in a timely
+ * manner.
+ *
+ * @see Finder#openCursorIn(String)
+ */
+public class DocCursor implements AutoCloseable {
+
+    private final Finder finder;
+    private final String collection;
+    private final MongoCursor<Document> cursor;
+    private boolean firstBatch = true;
+    private boolean exhausted;
+
+    protected DocCursor(Finder finder, String collection, MongoCursor<Document> cursor) {
+        this.finder = finder;
+        this.collection = collection;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Returns all documents of the next batch as provided by the server.
+     * <p>
+     * The size of each batch is controlled via {@link Finder#batchSize(int)}.
+     *
+     * @return the documents of the next batch or an empty list, if the cursor is exhausted
+     */
+    public List<Doc> nextBatch() {
+        if (exhausted) {
+            return List.of();
+        }
+
+        Watch watch = Watch.start();
+        boolean roundTrip = cursor.available() == 0;
+        if (!cursor.hasNext()) {
+            reportRoundTrip(roundTrip, watch);
+            close();
+            return List.of();
+        }
+        reportRoundTrip(roundTrip, watch);
+
+        List<Doc> batch = new ArrayList<>(cursor.available());
+        do {
+            batch.add(new Doc(cursor.next()));
+        } while (cursor.available() > 0);
+
+        return batch;
+    }
+
+    private void reportRoundTrip(boolean roundTrip, Watch watch) {
+        if (roundTrip) {
+            finder.reportCall(collection, watch, firstBatch ? "FIND ALL" : "FIND MORE");
+            firstBatch = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!exhausted) {
+            exhausted = true;
+            cursor.close();
+        }
+    }
+}
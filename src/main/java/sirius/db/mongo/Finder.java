@@ -355,17 +355,44 @@ public class Finder extends QueryBuilder<Finder> {
     }
 
     private void handleTracingAndReporting(String collection, Watch watch) {
+        reportCall(collection, watch, "FIND ALL");
+    }
+
+    protected void reportCall(String collection, Watch watch, String operation) {
         long callDuration = watch.elapsedMillis();
         mongo.callDuration.addValue(callDuration);
         if (readPreference != null && readPreference.isSecondaryOk()) {
             mongo.secondaryCallDuration.addValue(callDuration);
         }
         if (Microtiming.isEnabled()) {
-            watch.submitMicroTiming(KEY_MONGO, "FIND ALL - " + collection + ": " + filterObject.keySet());
+            watch.submitMicroTiming(KEY_MONGO, operation + " - " + collection + ": " + filterObject.keySet());
         }
         traceIfRequired(collection, watch);
     }
 
+    /**
+     * Executes the query for the given collection and returns a cursor which reads the result batch by batch.
+     * <p>
+     * Other than {@link #eachIn(String, Predicate)}, this leaves the control of the iteration to the caller, which
+     * e.g. permits to fetch the next batch in another thread while the current one is being processed.
+     *
+     * @param collection the collection to search in
+     * @return a cursor for the result of the query which has to be closed by the caller
+     */
+    public DocCursor openCursorIn(String collection) {
+        if (Mongo.LOG.isFINE()) {
+            Mongo.LOG.FINE("FIND (CURSOR): %s\nFilter: %s", collection, filterObject);
+        }
+
+        FindIterable<Document> cursor = buildCursor(collection);
+        if (limit > 0) {
+            cursor.limit(limit);
+        }
+        applyBatchSize(cursor);
+
+        return new DocCursor(this, collection, cursor.iterator());
+    }
+
     /**
      * Executes the query for the given collection and calls the given processor for each document.
      *
@@ -31,6 +31,8 @@ import sirius.kernel.di.std.Part;
 import sirius.kernel.di.std.Register;
 import sirius.kernel.health.Exceptions;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IntSummaryStatistics;
 import java.util.List;
@@ -67,6 +69,11 @@ public class Mango extends SecondaryCapableMapper<MongoEntity, MongoConstraint,
      */
     public static final String INDEX_AS_FULLTEXT = "text";
 
+    /**
+     * Contains the maximal number of IDs which are resolved by a single query in {@link #findEntities}.
+     */
+    private static final int MAX_IDS_PER_FIND_ALL = 1000;
+
     @Part
     private Mongo mongo;
 
@@ -249,6 +256,27 @@ public class Mango extends SecondaryCapableMapper<MongoEntity, MongoConstraint,
                      .map(doc -> make(entityDescriptor, doc));
     }
 
+    @Override
+    protected <E extends MongoEntity> List<E> findEntities(List<Object> ids,
+                                                           EntityDescriptor entityDescriptor,
+                                                           Function<String, Value> context) throws Exception {
+        boolean inSecondary = context.apply(CONTEXT_IN_SECONDARY).asBoolean(false);
+        List<E> result = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_FIND_ALL) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_FIND_ALL))
+                                    .stream()
+                                    .map(Object::toString)
+                                    .toList();
+            Finder finder = inSecondary ?
+                            mongo.findInSecondary(entityDescriptor.getRealm()) :
+                            mongo.find(entityDescriptor.getRealm());
+            finder.where(QueryBuilder.FILTERS.oneInField(MongoEntity.ID, chunk).build())
+                  .allIn(entityDescriptor.getRelationName(), doc -> result.add(make(entityDescriptor, doc)));
+        }
+
+        return result;
+    }
+
     /**
      * Creates a new entity for the given descriptor based on the given doc.
      *
@@ -257,12 +285,26 @@ public class Mango extends SecondaryCapableMapper<MongoEntity, MongoConstraint,
      * @param <E>        the effective type of the generated entity
      * @return the generated entity
      */
-    @SuppressWarnings("unchecked")
     public static <E extends MongoEntity> E make(EntityDescriptor descriptor, Doc doc) {
+        return make(descriptor, doc, false);
+    }
+
+    /**
+     * Creates a new entity for the given descriptor based on the given doc.
+     *
+     * @param descriptor the descriptor of the entity to create
+     * @param doc        the document to read the values from
+     * @param readOnly   <tt>true</tt> to create a read-only entity which skips all change tracking
+     * @param <E>        the effective type of the generated entity
+     * @return the generated entity
+     * @see sirius.db.mixing.query.BaseQuery#readOnly()
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends MongoEntity> E make(EntityDescriptor descriptor, Doc doc, boolean readOnly) {
         try {
-            E result = (E) descriptor.make(Mango.class,
-                                           null,
-                                           key -> doc.getUnderlyingObject().containsKey(key) ? doc.get(key) : null);
+            E result = (E) descriptor.getRowMapper(Mango.class, null)
+                                     .make(key -> doc.getUnderlyingObject().containsKey(key) ? doc.get(key) : null,
+                                           readOnly);
             if (descriptor.isVersioned()) {
                 result.setVersion(doc.get(VERSION).asInt(0));
             }
@@ -439,6 +481,37 @@ public class Mango extends SecondaryCapableMapper<MongoEntity, MongoConstraint,
                     .orElse(Value.EMPTY);
     }
 
+    /**
+     * Fetches the field values by querying the IDs in chunks of at most {@link #MAX_IDS_PER_FIND_ALL} IDs.
+     *
+     * @param type  the type of the entities
+     * @param ids   the IDs of the entities (non-empty, without duplicates)
+     * @param field the field to resolve
+     * @return the field values keyed by the ID of their entity
+     * @throws Exception in case of a database error
+     */
+    @Override
+    public Map<String, Value> fetchFields(Class<? extends MongoEntity> type, List<?> ids, Mapping field)
+            throws Exception {
+        EntityDescriptor descriptor = mixing.getDescriptor(type);
+        Property property = descriptor.getProperty(field);
+        Map<String, Value> result = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_FIND_ALL) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_FIND_ALL))
+                                    .stream()
+                                    .map(Object::toString)
+                                    .toList();
+            mongo.find(descriptor.getRealm())
+                 .selectFields(field)
+                 .where(QueryBuilder.FILTERS.oneInField(MongoEntity.ID, chunk).build())
+                 .allIn(descriptor.getRelationName(),
+                        doc -> result.put(doc.id(),
+                                          Value.of(property.transformFromDatasource(getClass(), doc.get(field)))));
+        }
+
+        return result;
+    }
+
     @Override
     protected int determineRetryTimeoutFactor() {
         return 50;
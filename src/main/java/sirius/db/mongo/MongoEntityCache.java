@@ -8,11 +8,17 @@
 
 package sirius.db.mongo;
 
+import sirius.db.mixing.BaseMapper;
 import sirius.db.util.BaseEntityCache;
 import sirius.kernel.di.std.Part;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Provides a template for caching mongo entities in an on-heap cache.
+ * <p>
+ * Override {@link #getSharedCacheTTL()} to additionally keep the entities in a shared cache in Redis.
  *
  * @param <E> the type of entities being cached
  */
@@ -25,4 +31,24 @@ public abstract class MongoEntityCache<E extends MongoEntity> extends BaseEntity
     protected E fetchFromDb(String id) {
         return mango.find(getEntityClass(), id).orElse(null);
     }
+
+    @Override
+    protected Map<String, E> fetchAllFromDb(List<String> ids) {
+        return mango.findAll(getEntityClass(), ids);
+    }
+
+    @Override
+    protected Class<? extends BaseMapper<?, ?, ?>> getMapperType() {
+        return Mango.class;
+    }
+
+    @Override
+    protected int getVersion(E entity) {
+        return entity.getVersion();
+    }
+
+    @Override
+    protected void setVersion(E entity, int version) {
+        entity.setVersion(version);
+    }
 }
@@ -12,6 +12,7 @@ import com.mongodb.ReadPreference;
 import sirius.db.mixing.EntityDescriptor;
 import sirius.db.mixing.Mapping;
 import sirius.db.mixing.Mixing;
+import sirius.db.mixing.query.BlockPrefetcher;
 import sirius.db.mixing.query.Query;
 import sirius.db.mixing.query.constraints.FilterFactory;
 import sirius.db.mongo.constraints.MongoConstraint;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -45,6 +47,8 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
 
     private List<MongoFacet> facets;
 
+    private boolean singleCursor;
+
     @Part
     private static Mango mango;
 
@@ -150,12 +154,45 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
         return this;
     }
 
+    /**
+     * Specifies the number of documents fetched per round trip.
+     *
+     * @param batchSize the number of documents per batch. Values &lt;= 0 are ignored.
+     * @return the query itself for fluent method calls
+     * @see Finder#batchSize(int)
+     */
+    public MongoQuery<E> batchSize(int batchSize) {
+        finder.batchSize(batchSize);
+
+        return this;
+    }
+
+    /**
+     * Makes {@link #streamBlockwise()} read the whole result using a single server-side cursor.
+     * <p>
+     * By default, each block is fetched by a separate query which continues after the last seen id. This is robust
+     * against long processing times, but requires the server to plan and execute a new query for each block. Using
+     * a single cursor, each block is a batch (see {@link #batchSize(int)}) fetched via a single round trip. In
+     * this mode, also explicit orderings are permitted. Combine this with {@link #prefetchBlocks(int)} to fetch the
+     * next batch while the current one is being processed.
+     * <p>
+     * Note that the server discards idle cursors (after 10 minutes by default), therefore each batch has to be
+     * processed in a timely manner.
+     *
+     * @return the query itself for fluent method calls
+     */
+    public MongoQuery<E> singleCursor() {
+        this.singleCursor = true;
+
+        return this;
+    }
+
     @Override
     protected void doIterate(Predicate<E> resultHandler) {
         if (forceFail) {
             return;
         }
-        finder.eachIn(descriptor.getRelationName(), doc -> resultHandler.test(Mango.make(descriptor, doc)));
+        finder.eachIn(descriptor.getRelationName(), doc -> resultHandler.test(Mango.make(descriptor, doc, readOnly)));
     }
 
     @Override
@@ -171,6 +208,15 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
         if (skip > 0) {
             throw new UnsupportedOperationException("MongoQuery doesn't allow 'skip' in streamBlockwise");
         }
+
+        if (singleCursor) {
+            // Just like in ElasticQuery, we use flatMap to ensure that the cursor is closed once the stream
+            // is terminated...
+            MongoCursorSpliterator spliterator = new MongoCursorSpliterator(relation);
+            return Stream.of(StreamSupport.stream(spliterator, false).onClose(spliterator::close))
+                         .flatMap(Function.identity());
+        }
+
         if (finder.orderBy != null && !finder.orderBy.isEmpty()) {
             throw new UnsupportedOperationException("MongoQuery doesn't allow any explicit ordering in streamBlockwise");
         }
@@ -178,6 +224,63 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
         return StreamSupport.stream(new MongoQuerySpliterator(relation), false);
     }
 
+    private class MongoCursorSpliterator extends PullBasedSpliterator<E> {
+
+        private final String relation;
+        private final TaskContext taskContext = TaskContext.get();
+        private final BlockPrefetcher<E> prefetcher;
+        private DocCursor cursor;
+
+        protected MongoCursorSpliterator(String relation) {
+            this.relation = relation;
+            if (prefetchedBlocks > 0) {
+                this.prefetcher = new BlockPrefetcher<>(relation, prefetchedBlocks, taskContext, this::fetchNextBatch);
+            } else {
+                this.prefetcher = null;
+            }
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+
+        @Nullable
+        @Override
+        protected Iterator<E> pullNextBlock() {
+            if (!taskContext.isActive()) {
+                return null;
+            }
+
+            List<E> block = prefetcher != null ? prefetcher.nextBlock() : fetchNextBatch();
+            return block == null ? null : block.iterator();
+        }
+
+        private List<E> fetchNextBatch() {
+            if (cursor == null) {
+                cursor = finder.openCursorIn(relation);
+            }
+
+            List<Doc> batch = cursor.nextBatch();
+            List<E> entities = new ArrayList<>(batch.size());
+            for (Doc doc : batch) {
+                entities.add(Mango.make(descriptor, doc, readOnly));
+            }
+
+            return prefetchReferences(entities);
+        }
+
+        private void close() {
+            if (prefetcher != null) {
+                // Ensure that the cursor is no longer used by the prefetcher...
+                prefetcher.close();
+            }
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
     private class MongoQuerySpliterator extends PullBasedSpliterator<E> {
 
         private final String relation;
@@ -206,13 +309,13 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
             if (lastId != null) {
                 query.where(QueryBuilder.FILTERS.gt(MongoEntity.ID, lastId));
             }
-            query.allIn(relation, doc -> buffer.add(Mango.make(descriptor, doc)));
+            query.allIn(relation, doc -> buffer.add(Mango.make(descriptor, doc, readOnly)));
 
             if (!buffer.isEmpty()) {
                 lastId = buffer.getLast().getId();
             }
 
-            return buffer.iterator();
+            return prefetchReferences(buffer).iterator();
         }
     }
 
@@ -273,7 +376,7 @@ public class MongoQuery<E extends MongoEntity> extends Query<MongoQuery<E>, E, M
         }
 
         finder.sample(descriptor.getRelationName(), doc -> {
-            result.add(Mango.make(descriptor, doc));
+            result.add(Mango.make(descriptor, doc, readOnly));
             failOnOverflow(result);
             return true;
         });
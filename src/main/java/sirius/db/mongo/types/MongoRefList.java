@@ -15,6 +15,8 @@ import sirius.db.mongo.Mango;
 import sirius.db.mongo.MongoEntity;
 import sirius.kernel.di.std.Part;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -43,4 +45,9 @@ public class MongoRefList<E extends MongoEntity> extends BaseEntityRefList<E, Mo
     protected Optional<E> resolve(String id, ContextInfo... context) {
         return mango.find(type, id);
     }
+
+    @Override
+    protected Map<String, E> resolveAll(List<String> ids, ContextInfo... context) {
+        return mango.findAll(type, ids, context);
+    }
 }
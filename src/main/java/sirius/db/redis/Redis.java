@@ -228,6 +228,18 @@ public class Redis implements Startable, Stoppable {
         return getSystem().query(description, task);
     }
 
+    /**
+     * Invokes {@link RedisDB#queryCached(Supplier, Function)} for the {@link #getSystem() system database}.
+     *
+     * @param description a description of the actions performed used for debugging and tracing
+     * @param task        the actual task to perform using redis
+     * @param <T>         the generic type of the result
+     * @return a result computed by <tt>task</tt>
+     */
+    public <T> T queryCached(Supplier<String> description, Function<UnifiedJedis, T> task) {
+        return getSystem().queryCached(description, task);
+    }
+
     /**
      * Invokes {@link RedisDB#exec(Supplier, Consumer)} for the {@link #getSystem() system database}.
      *
@@ -13,8 +13,13 @@ import redis.clients.jedis.ConnectionPoolConfig;
 import redis.clients.jedis.DefaultJedisClientConfig;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.RedisClient;
+import redis.clients.jedis.RedisProtocol;
 import redis.clients.jedis.RedisSentinelClient;
 import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.csc.CacheConfig;
+import redis.clients.jedis.csc.CacheStats;
+import redis.clients.jedis.csc.DefaultCacheable;
 import sirius.kernel.async.CallContext;
 import sirius.kernel.async.Operation;
 import sirius.kernel.commons.Strings;
@@ -42,6 +47,11 @@ import java.util.stream.Collectors;
  * Represents a connection pool to either a redis database or a set of sentinels which elect a master.
  * <p>
  * An instance is obtained via {@link Redis#getPool(String)} or {@link Redis#getSystem()}.
+ * <p>
+ * If a <tt>clientSideCacheSize</tt> is configured, the pool uses RESP3 along with server-assisted client-side
+ * caching. Read commands issued within {@link #queryCached(Supplier, Function)} are then served from a local cache,
+ * which is invalidated by the server once a cached key is modified. All other calls are never cached, therefore
+ * callers have to opt in for keys which are read often but rarely change (e.g. feature flags or configuration).
  */
 public class RedisDB {
 
@@ -68,6 +78,16 @@ public class RedisDB {
      */
     private final boolean enableClientInfo;
 
+    /**
+     * Contains the maximal number of entries kept in the client-side cache (0 disables the cache).
+     */
+    private final int clientSideCacheSize;
+
+    /**
+     * Determines if the current thread is within {@link #queryCached(Supplier, Function)}.
+     */
+    private final ThreadLocal<Boolean> cachedCall = ThreadLocal.withInitial(() -> false);
+
     protected UnifiedJedis jedis;
 
     protected RedisDB(Redis redisInstance, Extension config) {
@@ -84,6 +104,7 @@ public class RedisDB {
         this.masterName = config.getString("masterName");
         this.sentinels = config.getString("sentinels");
         this.enableClientInfo = config.get("enableClientInfo").asBoolean(false);
+        this.clientSideCacheSize = config.get("clientSideCacheSize").asInt(0);
     }
 
     /**
@@ -133,6 +154,7 @@ public class RedisDB {
                                        .clientConfig(createClientConfig())
                                        .sentinelClientConfig(createClientConfig())
                                        .poolConfig(createPoolConfig())
+                                       .cacheConfig(createCacheConfig())
                                        .build();
             return jedis;
         }
@@ -151,6 +173,7 @@ public class RedisDB {
                            .hostAndPort(hostAndPort)
                            .clientConfig(createClientConfig())
                            .poolConfig(createPoolConfig())
+                           .cacheConfig(createCacheConfig())
                            .build();
 
         return jedis;
@@ -182,8 +205,22 @@ public class RedisDB {
         return poolConfig;
     }
 
+    @Nullable
+    private CacheConfig createCacheConfig() {
+        if (!isClientSideCacheEnabled()) {
+            return null;
+        }
+
+        return CacheConfig.builder().maxSize(clientSideCacheSize).cacheable(this::isCacheable).build();
+    }
+
+    private boolean isCacheable(ProtocolCommand command, List<Object> keys) {
+        return Boolean.TRUE.equals(cachedCall.get()) && DefaultCacheable.isDefaultCacheableCommand(command);
+    }
+
     private DefaultJedisClientConfig createClientConfig() {
         return DefaultJedisClientConfig.builder()
+                                       .protocol(isClientSideCacheEnabled() ? RedisProtocol.RESP3 : null)
                                        .database(db)
                                        .clientName(CallContext.getNodeName())
                                        .connectionTimeoutMillis(connectTimeout)
@@ -220,6 +257,58 @@ public class RedisDB {
         }
     }
 
+    /**
+     * Executes one or more Redis commands and permits their results to be served from the client-side cache.
+     * <p>
+     * Only read commands (like <tt>GET</tt>) are cached. The server tracks all keys read this way and notifies the
+     * client once one of them is modified, so that the cached value is evicted. Still, this should only be used for
+     * keys which are read frequently but modified rarely, as each cached key occupies an entry of the bounded cache
+     * and causes tracking overhead on the server.
+     * <p>
+     * If no client-side cache is configured, this behaves exactly like {@link #query(Supplier, Function)}.
+     *
+     * @param description a description of the actions performed used for debugging and tracing
+     * @param task        the actual task to perform using redis
+     * @param <T>         the generic type of the result
+     * @return a result computed by <tt>task</tt>
+     */
+    public <T> T queryCached(Supplier<String> description, Function<UnifiedJedis, T> task) {
+        if (!isClientSideCacheEnabled() || Boolean.TRUE.equals(cachedCall.get())) {
+            return query(description, task);
+        }
+
+        cachedCall.set(true);
+        try {
+            return query(description, task);
+        } finally {
+            cachedCall.remove();
+        }
+    }
+
+    /**
+     * Determines if a client-side cache is configured for this pool.
+     *
+     * @return <tt>true</tt> if a client-side cache is used, <tt>false</tt> otherwise
+     */
+    public boolean isClientSideCacheEnabled() {
+        return clientSideCacheSize > 0;
+    }
+
+    /**
+     * Returns the statistics of the client-side cache.
+     *
+     * @return the statistics of the client-side cache or <tt>null</tt> if there is no such cache (yet)
+     */
+    @Nullable
+    public CacheStats getClientSideCacheStats() {
+        UnifiedJedis currentJedis = this.jedis;
+        if (currentJedis == null || currentJedis.getCache() == null) {
+            return null;
+        }
+
+        return currentJedis.getCache().getStats();
+    }
+
     /**
      * Executes one or more Redis commands without any return value.
      *
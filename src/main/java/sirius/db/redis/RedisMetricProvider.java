@@ -8,6 +8,8 @@
 
 package sirius.db.redis;
 
+import redis.clients.jedis.csc.CacheStats;
+import sirius.db.util.BaseEntityCache;
 import sirius.kernel.commons.Value;
 import sirius.kernel.di.std.Part;
 import sirius.kernel.di.std.Register;
@@ -63,6 +65,44 @@ public class RedisMetricProvider implements MetricProvider {
                              "Redis PubSub Message Duration",
                              redis.messageDuration.getAndClear(),
                              "ms");
+            collector.differentialMetric("redis_entity_cache_hits",
+                                         "redis-entity-cache-hits",
+                                         "Shared Entity Cache Hits",
+                                         BaseEntityCache.numSharedCacheHits.getCount(),
+                                         "/min");
+            collector.differentialMetric("redis_entity_cache_misses",
+                                         "redis-entity-cache-misses",
+                                         "Shared Entity Cache Misses",
+                                         BaseEntityCache.numSharedCacheMisses.getCount(),
+                                         "/min");
+            gatherClientSideCacheMetrics(collector);
+        }
+    }
+
+    private void gatherClientSideCacheMetrics(MetricsCollector collector) {
+        long hits = 0;
+        long misses = 0;
+        boolean enabled = false;
+        for (RedisDB database : redis.databases.values()) {
+            CacheStats stats = database.getClientSideCacheStats();
+            if (stats != null) {
+                enabled = true;
+                hits += stats.getHitCount();
+                misses += stats.getMissCount();
+            }
+        }
+
+        if (enabled) {
+            collector.differentialMetric("redis_client_cache_hits",
+                                         "redis-client-cache-hits",
+                                         "Redis Client-Side Cache Hits",
+                                         hits,
+                                         "/min");
+            collector.differentialMetric("redis_client_cache_misses",
+                                         "redis-client-cache-misses",
+                                         "Redis Client-Side Cache Misses",
+                                         misses,
+                                         "/min");
         }
     }
 }
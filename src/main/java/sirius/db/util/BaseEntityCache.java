@@ -8,28 +8,153 @@
 
 package sirius.db.util;
 
+import org.bson.Document;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resultset.ScanResult;
 import sirius.db.mixing.BaseEntity;
+import sirius.db.mixing.BaseMapper;
+import sirius.db.mixing.EntityDescriptor;
+import sirius.db.mixing.Mixing;
+import sirius.db.mixing.Property;
 import sirius.db.mixing.types.BaseEntityRef;
+import sirius.db.redis.Redis;
 import sirius.kernel.cache.Cache;
 import sirius.kernel.cache.CacheManager;
+import sirius.kernel.commons.Json;
 import sirius.kernel.commons.Strings;
+import sirius.kernel.commons.Value;
+import sirius.kernel.di.std.Part;
+import sirius.kernel.health.Counter;
 import sirius.kernel.health.Exceptions;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 /**
  * Provides a template for caching entities using a coherent on-heap cache.
+ * <p>
+ * Concurrent misses for the same entity are coalesced into a single lookup. Also, {@link #fetchAllById(Collection)}
+ * loads all entities which are not cached yet using a single query.
+ * <p>
+ * Optionally, a shared second level cache can be enabled by overriding {@link #getSharedCacheTTL()} and
+ * {@link #getMapperType()}. This keeps the entities in {@link Redis} for the given TTL, so that a miss of the
+ * on-heap cache (e.g. after a restart or an eviction) only hits the database if no other node has loaded the
+ * entity recently. The entities are stored as JSON which maps the property names to their datasource values (as
+ * provided by the mapper), along with their version. Values which have no JSON counterpart (e.g. dates) are stored
+ * with a type tag, entities with values of unsupported types aren't put into the shared cache. The key contains a
+ * stamp of the entity schema, therefore entries written by nodes with a different entity layout (e.g. during a
+ * rolling deploy) are ignored.
+ * <p>
+ * {@link #remove(BaseEntity)} and {@link #removeById(String)} purge both tiers. Note that an entry which is written
+ * by a concurrent miss right after being purged can survive until its TTL expires.
+ * <p>
+ * Caches which return <tt>true</tt> in {@link #isInvalidatedOnWrite()} are invalidated automatically as soon as
+ * they have been created. Each write performed by a {@link sirius.db.mixing.BaseMapper mapper}, a
+ * <tt>BatchContext</tt> or a <tt>BulkContext</tt> then purges the written entity from all caches of its type or one
+ * of its super types (see {@link #invalidate(BaseEntity)}). Batch writes which don't address rows by their ID purge
+ * all entities of their type (see {@link #invalidateAll(Class)}). As the purge is propagated to all nodes, caches
+ * should be created eagerly (e.g. as {@link sirius.kernel.di.std.Register registered} part), so that nodes which
+ * only write entities also purge the caches of all other nodes.
  *
  * @param <I> the type of the ID field used by the entity
  * @param <E> the type of entities being cached
  */
 public abstract class BaseEntityCache<I extends Serializable, E extends BaseEntity<I>> {
 
+    private static final String SHARED_CACHE_PREFIX = "entity-cache-";
+
+    private static final int SHARED_CACHE_SCAN_SIZE = 1000;
+
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_FIELDS = "fields";
+    private static final String KEY_TYPE = "t";
+    private static final String KEY_VALUE = "v";
+
+    private static final String TYPE_INT = "int";
+    private static final String TYPE_FLOAT = "float";
+    private static final String TYPE_DECIMAL = "decimal";
+    private static final String TYPE_TIMESTAMP = "timestamp";
+    private static final String TYPE_SQL_DATE = "sql-date";
+    private static final String TYPE_SQL_TIME = "sql-time";
+    private static final String TYPE_DATE = "date";
+    private static final String TYPE_LOCAL_DATE = "local-date";
+    private static final String TYPE_LOCAL_DATE_TIME = "local-date-time";
+    private static final String TYPE_LOCAL_TIME = "local-time";
+    private static final String TYPE_INSTANT = "instant";
+    private static final String TYPE_BYTES = "bytes";
+    private static final String TYPE_DOCUMENT = "document";
+    private static final String TYPE_MAP = "map";
+
+    /**
+     * Counts the hits of the shared (second level) cache of all entity caches.
+     */
+    public static final Counter numSharedCacheHits = new Counter();
+
+    /**
+     * Counts the misses of the shared (second level) cache of all entity caches.
+     */
+    public static final Counter numSharedCacheMisses = new Counter();
+
+    /**
+     * Contains all caches which have been created.
+     * <p>
+     * Only weak references are kept, so that the registration doesn't prevent a cache from being garbage collected.
+     */
+    private static final List<WeakReference<BaseEntityCache<?, ?>>> caches = new CopyOnWriteArrayList<>();
+
+    @Part
+    private static Redis redis;
+
+    @Part
+    private static Mixing mixing;
+
     protected final Cache<String, E> entityByIdCache =
-            CacheManager.createCoherentCache(getCacheName(), this::fetchFromDb, null);
+            CacheManager.createCoherentCache(getCacheName(), this::loadCoalesced, null);
+
+    /**
+     * Contains the loads which are currently in progress, so that concurrent misses for the same ID share a single
+     * lookup instead of stampeding the database.
+     */
+    private final Map<String, CompletableFuture<E>> pendingLoads = new ConcurrentHashMap<>();
+
+    private String sharedCachePrefix;
+
+    /**
+     * Creates a new cache and registers it for {@link #isInvalidatedOnWrite() automatic invalidation}.
+     */
+    protected BaseEntityCache() {
+        // Only the reference is registered here, as the cache is not fully initialized yet. Its entity type and
+        // settings are inspected once an entity is being invalidated...
+        caches.add(new WeakReference<>(this));
+    }
 
     /**
      * Determines the name of the underlying cache.
@@ -46,6 +171,415 @@ public abstract class BaseEntityCache<I extends Serializable, E extends BaseEnti
      */
     protected abstract E fetchFromDb(String id);
 
+    /**
+     * Fetches the actual entity instances with the given IDs from the database.
+     * <p>
+     * By default, this invokes {@link #fetchFromDb(String)} for each ID. Subclasses should override this to
+     * load all entities using a single query.
+     *
+     * @param ids the ids to fetch
+     * @return all entities which were found, keyed by their ID
+     */
+    protected Map<String, E> fetchAllFromDb(List<String> ids) {
+        Map<String, E> result = new HashMap<>();
+        for (String id : ids) {
+            E entity = fetchFromDb(id);
+            if (entity != null) {
+                result.put(id, entity);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Determines if the cache is automatically invalidated whenever an entity of its type is written.
+     * <p>
+     * Note that this also covers entities of subclasses of the {@link #getEntityClass() entity class}.
+     *
+     * @return <tt>true</tt> to register the cache for automatic invalidation, <tt>false</tt> otherwise
+     */
+    protected boolean isInvalidatedOnWrite() {
+        return false;
+    }
+
+    /**
+     * Determines if there are caches which have to be invalidated when entities of the given type are written.
+     *
+     * @param type the type of entities to check
+     * @return <tt>true</tt> if at least one cache is registered for automatic invalidation of the given type
+     */
+    public static boolean isInvalidatedOnWrite(Class<?> type) {
+        return caches.stream()
+                     .map(WeakReference::get)
+                     .anyMatch(cache -> cache != null && cache.isInvalidatedBy(type));
+    }
+
+    private static void forEachInvalidatedCache(Class<?> type, Consumer<BaseEntityCache<?, ?>> consumer) {
+        for (WeakReference<BaseEntityCache<?, ?>> reference : caches) {
+            BaseEntityCache<?, ?> cache = reference.get();
+            if (cache == null) {
+                caches.remove(reference);
+            } else if (cache.isInvalidatedBy(type)) {
+                consumer.accept(cache);
+            }
+        }
+    }
+
+    private boolean isInvalidatedBy(Class<?> type) {
+        Class<E> entityClass = getEntityClass();
+        return entityClass != null && entityClass.isAssignableFrom(type) && isInvalidatedOnWrite();
+    }
+
+    /**
+     * Purges the given entity from all caches which are registered for automatic invalidation.
+     * <p>
+     * This is invoked by the mappers (and batch or bulk contexts) once an entity has been written or deleted.
+     *
+     * @param entity the entity which has been written
+     */
+    public static void invalidate(@Nullable BaseEntity<?> entity) {
+        if (entity == null || entity.isNew()) {
+            return;
+        }
+
+        String id = entity.getIdAsString();
+        forEachInvalidatedCache(entity.getClass(), cache -> cache.removeById(id));
+    }
+
+    /**
+     * Purges all entities of the given type from all caches which are registered for automatic invalidation.
+     * <p>
+     * This is used for writes which cannot determine the IDs of the affected entities, e.g. a batch update or delete
+     * which filters on other fields than the ID or an upsert which resolves conflicts on other fields.
+     *
+     * @param type the type of entities which have been written
+     */
+    public static void invalidateAll(Class<?> type) {
+        forEachInvalidatedCache(type, BaseEntityCache::clear);
+    }
+
+    /**
+     * Determines how long entities are kept in the shared second level cache.
+     *
+     * @return the TTL of entities in the shared cache or {@link Duration#ZERO} to disable the shared cache
+     */
+    protected Duration getSharedCacheTTL() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Determines the mapper which is used to convert the entities into their datasource values and back.
+     *
+     * @return the mapper responsible for the cached entities or <tt>null</tt> if the shared cache isn't supported
+     */
+    @Nullable
+    protected Class<? extends BaseMapper<?, ?, ?>> getMapperType() {
+        return null;
+    }
+
+    /**
+     * Reads the version of the given entity so that it can be stored in the shared cache.
+     *
+     * @param entity the entity to read the version from
+     * @return the version of the entity
+     */
+    protected int getVersion(E entity) {
+        return 0;
+    }
+
+    /**
+     * Restores the version of an entity which has been read from the shared cache.
+     *
+     * @param entity  the entity to update
+     * @param version the version to apply
+     */
+    protected void setVersion(E entity, int version) {
+        // Only required by mappers which support optimistic locking...
+    }
+
+    private boolean isSharedCacheEnabled() {
+        return getMapperType() != null
+               && getSharedCacheTTL().isPositive()
+               && redis != null
+               && redis.isConfigured();
+    }
+
+    /**
+     * Loads the entity with the given ID unless another thread is already loading it, in which case its result is
+     * awaited and shared.
+     */
+    private E loadCoalesced(String id) {
+        CompletableFuture<E> load = new CompletableFuture<>();
+        CompletableFuture<E> pendingLoad = pendingLoads.putIfAbsent(id, load);
+        if (pendingLoad != null) {
+            return awaitLoad(pendingLoad);
+        }
+
+        try {
+            E entity = fetchFromSharedCacheOrDb(id);
+            load.complete(entity);
+            return entity;
+        } catch (RuntimeException exception) {
+            load.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            pendingLoads.remove(id, load);
+        }
+    }
+
+    private E awaitLoad(CompletableFuture<E> load) {
+        try {
+            return load.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw Exceptions.handle(exception.getCause());
+        }
+    }
+
+    private E fetchFromSharedCacheOrDb(String id) {
+        if (!isSharedCacheEnabled()) {
+            return fetchFromDb(id);
+        }
+
+        E entity = fetchFromSharedCache(id);
+        if (entity != null) {
+            numSharedCacheHits.inc();
+            return entity;
+        }
+
+        numSharedCacheMisses.inc();
+        entity = fetchFromDb(id);
+        if (entity != null) {
+            storeInSharedCache(id, entity);
+        }
+
+        return entity;
+    }
+
+    @Nullable
+    private E fetchFromSharedCache(String id) {
+        byte[] key = determineSharedCacheKey(id);
+        try {
+            byte[] data = redis.query(() -> "Fetch from shared entity cache: " + getCacheName(),
+                                      jedis -> jedis.get(key));
+            return data == null ? null : deserialize(data);
+        } catch (Exception exception) {
+            // Redis errors have already been logged, broken or outdated entries are simply re-fetched...
+            Exceptions.ignore(exception);
+            return null;
+        }
+    }
+
+    private Map<String, E> fetchAllFromSharedCache(List<String> ids) {
+        Map<String, E> result = new HashMap<>();
+        try {
+            byte[][] keys = ids.stream().map(this::determineSharedCacheKey).toArray(byte[][]::new);
+            List<byte[]> entries = redis.query(() -> "Fetch all from shared entity cache: " + getCacheName(),
+                                               jedis -> jedis.mget(keys));
+            for (int index = 0; index < ids.size(); index++) {
+                byte[] data = entries.get(index);
+                if (data != null) {
+                    result.put(ids.get(index), deserialize(data));
+                }
+            }
+        } catch (Exception exception) {
+            Exceptions.ignore(exception);
+        }
+
+        return result;
+    }
+
+    private void storeInSharedCache(String id, E entity) {
+        try {
+            byte[] data = serialize(entity);
+            redis.exec(() -> "Store in shared entity cache: " + getCacheName(),
+                       jedis -> jedis.setex(determineSharedCacheKey(id), getSharedCacheTTL().toSeconds(), data));
+        } catch (Exception exception) {
+            Exceptions.ignore(exception);
+        }
+    }
+
+    private void removeFromSharedCache(String id) {
+        if (!isSharedCacheEnabled()) {
+            return;
+        }
+
+        try {
+            redis.exec(() -> "Remove from shared entity cache: " + getCacheName(),
+                       jedis -> jedis.del(determineSharedCacheKey(id)));
+        } catch (Exception exception) {
+            Exceptions.ignore(exception);
+        }
+    }
+
+    private void clearSharedCache() {
+        if (!isSharedCacheEnabled()) {
+            return;
+        }
+
+        try {
+            String pattern = new String(determineSharedCacheKey("*"), StandardCharsets.UTF_8);
+            redis.exec(() -> "Clear shared entity cache: " + getCacheName(), jedis -> {
+                ScanParams params = new ScanParams().match(pattern).count(SHARED_CACHE_SCAN_SIZE);
+                String cursor = ScanParams.SCAN_POINTER_START;
+                do {
+                    ScanResult<String> keys = jedis.scan(cursor, params);
+                    if (!keys.getResult().isEmpty()) {
+                        jedis.del(keys.getResult().toArray(String[]::new));
+                    }
+                    cursor = keys.getCursor();
+                } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+            });
+        } catch (Exception exception) {
+            Exceptions.ignore(exception);
+        }
+    }
+
+    private byte[] determineSharedCacheKey(String id) {
+        if (sharedCachePrefix == null) {
+            sharedCachePrefix = SHARED_CACHE_PREFIX + getCacheName() + "-" + computeSchemaStamp() + "-";
+        }
+
+        return (sharedCachePrefix + id).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes a checksum of the names and types of all properties, so that changes in the entity layout result in
+     * different cache keys.
+     */
+    private String computeSchemaStamp() {
+        CRC32 checksum = new CRC32();
+        for (Property property : getDescriptor().getProperties()) {
+            checksum.update((property.getPropertyName() + ":" + property.getClass().getName() + ";").getBytes(
+                    StandardCharsets.UTF_8));
+        }
+
+        return Long.toHexString(checksum.getValue());
+    }
+
+    private EntityDescriptor getDescriptor() {
+        return mixing.getDescriptor(getEntityClass());
+    }
+
+    private byte[] serialize(E entity) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (Property property : getDescriptor().getProperties()) {
+            fields.put(property.getPropertyName(),
+                       encodeValue(property.getValueForDatasource(getMapperType(), entity)));
+        }
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(KEY_VERSION, getVersion(entity));
+        entry.put(KEY_FIELDS, fields);
+        return Json.MAPPER.writeValueAsBytes(entry);
+    }
+
+    /**
+     * Converts a datasource value into a JSON compatible value.
+     * <p>
+     * Strings, longs, doubles, booleans and lists are stored as plain JSON values. All other supported types are
+     * stored as an object containing a type tag and the value, so that they can be restored without any loss.
+     */
+    private Object encodeValue(Object value) {
+        return switch (value) {
+            case null -> null;
+            case String string -> string;
+            case Long number -> number;
+            case Double number -> number;
+            case Boolean bool -> bool;
+            case Integer number -> tag(TYPE_INT, number);
+            case Float number -> tag(TYPE_FLOAT, number);
+            case BigDecimal decimal -> tag(TYPE_DECIMAL, decimal.toString());
+            case Timestamp timestamp -> tag(TYPE_TIMESTAMP, timestamp.toLocalDateTime().toString());
+            case java.sql.Date date -> tag(TYPE_SQL_DATE, date.toLocalDate().toString());
+            case Time time -> tag(TYPE_SQL_TIME, time.toLocalTime().toString());
+            case Date date -> tag(TYPE_DATE, date.getTime());
+            case LocalDate date -> tag(TYPE_LOCAL_DATE, date.toString());
+            case LocalDateTime dateTime -> tag(TYPE_LOCAL_DATE_TIME, dateTime.toString());
+            case LocalTime time -> tag(TYPE_LOCAL_TIME, time.toString());
+            case Instant instant -> tag(TYPE_INSTANT, instant.toString());
+            case byte[] bytes -> tag(TYPE_BYTES, Base64.getEncoder().encodeToString(bytes));
+            case List<?> list -> list.stream().map(this::encodeValue).toList();
+            case Document document -> tag(TYPE_DOCUMENT, encodeMap(document));
+            case Map<?, ?> map -> tag(TYPE_MAP, encodeMap(map));
+            default -> throw new IllegalArgumentException("Cannot store a "
+                                                          + value.getClass().getName()
+                                                          + " in the shared entity cache");
+        };
+    }
+
+    private Map<String, Object> encodeMap(Map<?, ?> map) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(String.valueOf(key), encodeValue(value)));
+        return result;
+    }
+
+    private Map<String, Object> tag(String type, Object value) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(KEY_TYPE, type);
+        result.put(KEY_VALUE, value);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E deserialize(byte[] data) {
+        // Only plain JSON values (maps, lists, strings, numbers and booleans) are created here - therefore, an entry
+        // written by a third party cannot instantiate any other classes...
+        Map<String, Object> entry = Json.MAPPER.readValue(data, Map.class);
+        Map<String, Object> fields = (Map<String, Object>) entry.get(KEY_FIELDS);
+        Property[] properties = getDescriptor().getProperties().toArray(Property[]::new);
+
+        EntityDescriptor descriptor = getDescriptor();
+        E entity = (E) descriptor.getRowMapper(getMapperType(), null)
+                                 .make(index -> Value.of(decodeValue(fields.get(properties[index].getPropertyName()))));
+        if (descriptor.isVersioned()) {
+            setVersion(entity, ((Number) entry.get(KEY_VERSION)).intValue());
+        }
+
+        return entity;
+    }
+
+    private Object decodeValue(Object value) {
+        return switch (value) {
+            case null -> null;
+            case Integer number -> number.longValue();
+            case List<?> list -> list.stream().map(this::decodeValue).collect(Collectors.toList());
+            case Map<?, ?> taggedValue -> decodeTaggedValue((String) taggedValue.get(KEY_TYPE),
+                                                            taggedValue.get(KEY_VALUE));
+            default -> value;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object decodeTaggedValue(String type, Object value) {
+        return switch (type) {
+            case TYPE_INT -> ((Number) value).intValue();
+            case TYPE_FLOAT -> ((Number) value).floatValue();
+            case TYPE_DECIMAL -> new BigDecimal((String) value);
+            case TYPE_TIMESTAMP -> Timestamp.valueOf(LocalDateTime.parse((String) value));
+            case TYPE_SQL_DATE -> java.sql.Date.valueOf(LocalDate.parse((String) value));
+            case TYPE_SQL_TIME -> Time.valueOf(LocalTime.parse((String) value));
+            case TYPE_DATE -> new Date(((Number) value).longValue());
+            case TYPE_LOCAL_DATE -> LocalDate.parse((String) value);
+            case TYPE_LOCAL_DATE_TIME -> LocalDateTime.parse((String) value);
+            case TYPE_LOCAL_TIME -> LocalTime.parse((String) value);
+            case TYPE_INSTANT -> Instant.parse((String) value);
+            case TYPE_BYTES -> Base64.getDecoder().decode((String) value);
+            case TYPE_DOCUMENT -> new Document(decodeMap((Map<String, Object>) value));
+            case TYPE_MAP -> decodeMap((Map<String, Object>) value);
+            default -> throw new IllegalArgumentException("Unknown type in the shared entity cache: " + type);
+        };
+    }
+
+    private Map<String, Object> decodeMap(Map<String, Object> map) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(key, decodeValue(value)));
+        return result;
+    }
+
     /**
      * Determines the type of entities being cached.
      *
@@ -67,6 +601,59 @@ public abstract class BaseEntityCache<I extends Serializable, E extends BaseEnti
         return Optional.ofNullable(entityByIdCache.get(id));
     }
 
+    /**
+     * Fetches all entities with the given {@link BaseEntity#ID ids}.
+     * <p>
+     * Entities which are already cached are served from the cache. All others are loaded at once (first from the
+     * shared cache, if enabled, then from the database using a single query) and put into the cache.
+     *
+     * @param ids the ids of the entities to fetch
+     * @return all entities which were found, keyed by their id and ordered like the given ids
+     */
+    @Nonnull
+    public Map<String, E> fetchAllById(Collection<String> ids) {
+        Map<String, E> result = new LinkedHashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String id : ids) {
+            if (Strings.isFilled(id) && !result.containsKey(id)) {
+                E entity = entityByIdCache.contains(id) ? entityByIdCache.get(id) : null;
+                result.put(id, entity);
+                if (entity == null) {
+                    missingIds.add(id);
+                }
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            loadAll(missingIds).forEach(result::put);
+        }
+
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    private Map<String, E> loadAll(List<String> ids) {
+        Map<String, E> entities = new HashMap<>();
+        List<String> idsToLoad = ids;
+        if (isSharedCacheEnabled()) {
+            entities.putAll(fetchAllFromSharedCache(ids));
+            numSharedCacheHits.add(entities.size());
+            numSharedCacheMisses.add(ids.size() - entities.size());
+            idsToLoad = ids.stream().filter(id -> !entities.containsKey(id)).toList();
+        }
+
+        if (!idsToLoad.isEmpty()) {
+            Map<String, E> loadedEntities = fetchAllFromDb(idsToLoad);
+            if (isSharedCacheEnabled()) {
+                loadedEntities.forEach(this::storeInSharedCache);
+            }
+            entities.putAll(loadedEntities);
+        }
+
+        entities.forEach(entityByIdCache::put);
+        return entities;
+    }
+
     /**
      * Fetches the entity with the given {@link BaseEntity#ID id} from the cache and returns it
      * or throws an appropriate exception when no entity could be found.
@@ -126,7 +713,9 @@ public abstract class BaseEntityCache<I extends Serializable, E extends BaseEnti
      */
     public void remove(@Nullable E entity) {
         if (entity != null && !entity.isNew()) {
+            pendingLoads.remove(entity.getIdAsString());
             entityByIdCache.remove(entity.getIdAsString());
+            removeFromSharedCache(entity.getIdAsString());
         }
     }
 
@@ -137,7 +726,20 @@ public abstract class BaseEntityCache<I extends Serializable, E extends BaseEnti
      */
     public void removeById(@Nullable String entityId) {
         if (Strings.isFilled(entityId)) {
+            pendingLoads.remove(entityId);
             entityByIdCache.remove(entityId);
+            removeFromSharedCache(entityId);
         }
     }
+
+    /**
+     * Purges all entities from the cache.
+     * <p>
+     * Note that this has to scan the keys of the shared cache (if enabled) and should therefore be used sparingly.
+     */
+    public void clear() {
+        pendingLoads.clear();
+        entityByIdCache.clear();
+        clearSharedCache();
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.util;
+
+import sirius.db.mixing.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects entities which have been queued for a batched write so that they can be
+ * {@link BaseEntityCache#invalidate(BaseEntity) purged from the caches} once the batch has been executed.
+ * <p>
+ * Invalidating the caches when an entity is queued would permit a concurrent reader to re-load and cache the old
+ * state before the batch is executed. Only entities of types with registered caches are collected.
+ * <p>
+ * This class is not thread-safe - use {@link #detach()} to hand the collected entities to another thread.
+ */
+public class DeferredCacheInvalidations {
+
+    private List<BaseEntity<?>> entities = new ArrayList<>();
+    private Set<Class<?>> types = new HashSet<>();
+
+    /**
+     * Records the given entity to be invalidated once the pending writes have been executed.
+     *
+     * @param entity the entity which is being written
+     */
+    public void add(BaseEntity<?> entity) {
+        if (!entity.isNew() && BaseEntityCache.isInvalidatedOnWrite(entity.getClass())) {
+            entities.add(entity);
+        }
+    }
+
+    /**
+     * Records that all entities of the given type are to be invalidated once the pending writes have been executed.
+     * <p>
+     * This is used for writes which don't know the IDs of the affected entities.
+     *
+     * @param type the type of entities being written
+     * @see BaseEntityCache#invalidateAll(Class)
+     */
+    public void addAllOfType(Class<?> type) {
+        if (BaseEntityCache.isInvalidatedOnWrite(type)) {
+            types.add(type);
+        }
+    }
+
+    /**
+     * Moves all recorded entities into a new instance.
+     *
+     * @return a new instance containing all entities recorded so far
+     */
+    public DeferredCacheInvalidations detach() {
+        DeferredCacheInvalidations result = new DeferredCacheInvalidations();
+        if (!entities.isEmpty()) {
+            result.entities = entities;
+            entities = new ArrayList<>();
+        }
+        if (!types.isEmpty()) {
+            result.types = types;
+            types = new HashSet<>();
+        }
+
+        return result;
+    }
+
+    /**
+     * Invalidates all recorded entities.
+     */
+    public void invalidate() {
+        types.forEach(BaseEntityCache::invalidateAll);
+        for (BaseEntity<?> entity : entities) {
+            if (!types.contains(entity.getClass())) {
+                BaseEntityCache.invalidate(entity);
+            }
+        }
+        entities.clear();
+        types.clear();
+    }
+}
@@ -37,6 +37,20 @@ class BulkContextTest {
         assertEquals(3, elastic.select(BatchTestEntity::class.java).count())
     }
 
+    @Test
+    fun `async batch insert works`() {
+        elastic.select(BatchTestEntity::class.java).delete()
+        val bulkContext = elastic.batch().withAsyncRequests(2).withMaxBatchSize(4)
+        for (i in 1..20) {
+            bulkContext.tryUpdate(BatchTestEntity().withValue(i))
+        }
+        val result = bulkContext.awaitCompletion()
+        elastic.refresh(BatchTestEntity::class.java)
+
+        assertTrue { result.isSuccessful }
+        assertEquals(20, elastic.select(BatchTestEntity::class.java).count())
+    }
+
     @Test
     fun `batch insert with routing works`() {
         val bulkContext = elastic.batch()
@@ -25,6 +25,7 @@ import sirius.kernel.commons.Value
 import sirius.kernel.di.std.Part
 import java.time.Duration
 import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentLinkedQueue
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
@@ -77,6 +78,59 @@ class ElasticQueryTest {
         }
     }
 
+    @Test
+    fun `prefetching and parallel streamBlockwise work`() {
+        // Index several blocks worth of entities so that search_after and the merging of slices are covered...
+        val bulkContext = elastic.batch()
+        for (i in 0..999) {
+            val queryTestEntity = QueryTestEntity()
+            queryTestEntity.value = "PARALLEL"
+            queryTestEntity.counter = i
+            bulkContext.tryUpdate(queryTestEntity)
+        }
+        bulkContext.commit().throwFailures()
+        elastic.refresh(QueryTestEntity::class.java)
+
+        val prefetched = elastic.select(QueryTestEntity::class.java).eq(QueryTestEntity.VALUE, "PARALLEL")
+                .prefetchBlocks(2).streamBlockwise().use { stream -> stream.map { it.counter }.toList() }
+        assertEquals(1000, prefetched.size)
+        assertEquals((0..999).toSet(), prefetched.toSet())
+
+        val sliced = ConcurrentLinkedQueue<Int>()
+        elastic.select(QueryTestEntity::class.java).eq(QueryTestEntity.VALUE, "PARALLEL")
+                .forEachParallel({ entity -> sliced.add(entity.counter) }, 4)
+        assertEquals(1000, sliced.size)
+        assertEquals((0..999).toSet(), sliced.toSet())
+    }
+
+    @Test
+    fun `streaming hits works`() {
+        for (i in 0..19) {
+            val queryTestEntity = QueryTestEntity()
+            queryTestEntity.value = "STREAMHITS" + (i % 2)
+            queryTestEntity.counter = i
+            elastic.update(queryTestEntity)
+        }
+        elastic.refresh(QueryTestEntity::class.java)
+
+        val query = elastic.select(QueryTestEntity::class.java).addTermAggregation(QueryTestEntity.VALUE)
+                .where(Elastic.FILTERS.prefix(QueryTestEntity.VALUE, "STREAMHITS"))
+                .orderAsc(QueryTestEntity.COUNTER).limit(10).streamHits()
+        val entities = query.queryList()
+
+        assertEquals(10, entities.size)
+        assertEquals(0, entities[0].counter)
+        assertEquals(9, entities[9].counter)
+        assertEquals(20, query.totalHits)
+        assertEquals(2, query.getAggregation(QueryTestEntity.VALUE.toString()).buckets.size)
+        assertEquals(listOf("9"), query.lastSortValues)
+
+        val first = elastic.select(QueryTestEntity::class.java)
+                .where(Elastic.FILTERS.prefix(QueryTestEntity.VALUE, "STREAMHITS"))
+                .orderAsc(QueryTestEntity.COUNTER).limit(10).streamHits().queryFirst()
+        assertEquals(0, first?.counter)
+    }
+
     @Test
     fun `sorting works`() {
         for (i in 0..99) {
@@ -18,6 +18,7 @@ import sirius.db.mixing.Mixing
 import sirius.db.mixing.OptimisticLockException
 import sirius.kernel.SiriusExtension
 import sirius.kernel.di.std.Part
+import sirius.kernel.health.HandledException
 import java.time.Duration
 import kotlin.test.*
 
@@ -74,6 +75,26 @@ class ElasticTest {
         assertNull(notFound)
     }
 
+    @Test
+    fun `findAll of routed entities requires a routing`() {
+        val routedTestEntity = RoutedTestEntity()
+        routedTestEntity.firstname = "FindAll"
+        routedTestEntity.lastname = "Routed"
+        elastic.update(routedTestEntity)
+        elastic.refresh(RoutedTestEntity::class.java)
+
+        assertThrows<HandledException> {
+            elastic.findAll(RoutedTestEntity::class.java, listOf(routedTestEntity.id))
+        }
+        assertEquals(
+                listOf(routedTestEntity.id),
+                elastic.findAll(RoutedTestEntity::class.java, listOf(routedTestEntity.id), Elastic.routedBy("Routed"))
+                        .keys.toList()
+        )
+
+        elastic.delete(routedTestEntity)
+    }
+
     /**
      * Note that this test only ensures that suppressing the routing works properly.
      * <p>
@@ -55,6 +55,40 @@ class JDBCTest {
         )
     }
 
+    @Test
+    fun `cached prepared statements are reset before being re-used`() {
+        val database = databases["test"]
+        database.connection.use { connection ->
+            connection.prepareStatement("SELECT b FROM test_a WHERE b >= ?").use { statement ->
+                statement.maxRows = 1
+                statement.setInt(1, 1)
+                statement.executeQuery().use { resultSet -> assertTrue(resultSet.next()) }
+            }
+        }
+
+        database.connection.use { connection ->
+            connection.prepareStatement("SELECT b FROM test_a WHERE b >= ?").use { statement ->
+                assertEquals(0, statement.maxRows)
+                // A statement with the same SQL being prepared while the first one is in use has to be independent...
+                connection.prepareStatement("SELECT b FROM test_a WHERE b >= ?").use { nestedStatement ->
+                    statement.setInt(1, 1)
+                    nestedStatement.setInt(1, 2)
+                    statement.executeQuery().use { resultSet ->
+                        var rows = 0
+                        while (resultSet.next()) {
+                            rows++
+                        }
+                        assertEquals(2, rows)
+                    }
+                    nestedStatement.executeQuery().use { resultSet ->
+                        assertTrue(resultSet.next())
+                        assertEquals(2, resultSet.getInt(1))
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     fun `an IllegalArgumentException is created if an unknown column is selected`() {
         val r = Row()
@@ -15,6 +15,7 @@ import sirius.db.mixing.IntegrityConstraintFailedException
 import sirius.db.mixing.OptimisticLockException
 import sirius.kernel.SiriusExtension
 import sirius.kernel.di.std.Part
+import sirius.kernel.health.HandledException
 import java.time.Duration
 import kotlin.test.*
 
@@ -94,6 +95,29 @@ class OMATest {
         oma.delete(testEntity)
     }
 
+    @Test
+    fun `read-only queries load entities which cannot be updated`() {
+        val testEntity = TestEntity()
+        testEntity.firstname = "Lisa"
+        testEntity.lastname = "Simpson"
+        testEntity.age = 8
+        oma.update(testEntity)
+
+        val readBack = oma.select(TestEntity::class.java)
+                .eq(TestEntity.ID, testEntity.getId())
+                .fields(TestEntity.ID, TestEntity.FIRSTNAME)
+                .readOnly()
+                .queryFirst()
+
+        assertNotNull(readBack)
+        assertTrue { readBack.isReadOnly }
+        assertEquals("Lisa", readBack.firstname)
+        assertTrue { readBack.descriptor.isFetched(readBack, readBack.descriptor.getProperty(TestEntity.FIRSTNAME)) }
+        assertFalse { readBack.descriptor.isFetched(readBack, readBack.descriptor.getProperty(TestEntity.LASTNAME)) }
+        assertThrows<HandledException> { oma.update(readBack) }
+        oma.delete(readBack)
+    }
+
     @Test
     fun `select not all fields`() {
         val testEntity = TestEntity()
@@ -162,6 +186,45 @@ class OMATest {
         oma.delete(testEntityWithMixin)
     }
 
+    @Test
+    fun `updates only write changed columns`() {
+        val testEntity = TestEntity()
+        testEntity.firstname = "Partial"
+        testEntity.lastname = "Update"
+        oma.update(testEntity)
+        val firstCopy = oma.refreshOrFail(testEntity)
+        val secondCopy = oma.refreshOrFail(testEntity)
+
+        firstCopy.firstname = "Changed"
+        oma.update(firstCopy)
+        secondCopy.lastname = "Changed"
+        oma.update(secondCopy)
+
+        val readBack = oma.refreshOrFail(testEntity)
+        assertEquals("Changed", readBack.firstname)
+        assertEquals("Changed", readBack.lastname)
+        oma.delete(readBack)
+    }
+
+    @Test
+    fun `findAll resolves many entities at once`() {
+        val entities = (1..5).map { index ->
+            val testEntity = TestEntity()
+            testEntity.firstname = "FindAll$index"
+            testEntity.lastname = "FindAll"
+            oma.update(testEntity)
+            testEntity
+        }
+        val ids = entities.map { it.id } + listOf(-1L, entities.first().id)
+
+        val found = oma.findAll(TestEntity::class.java, ids)
+
+        assertEquals(entities.map { it.idAsString }, found.keys.toList())
+        assertEquals("FindAll3", found[entities[2].idAsString]?.firstname)
+        assertTrue(oma.findAll(TestEntity::class.java, emptyList<Long>()).isEmpty())
+        entities.forEach { oma.delete(it) }
+    }
+
     @Test
     fun `optimistic locking works`() {
         val sqlLockedTestEntity = SQLLockedTestEntity()
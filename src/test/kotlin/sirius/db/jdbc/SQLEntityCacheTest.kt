@@ -0,0 +1,155 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.ExtendWith
+import sirius.db.jdbc.batch.BatchContext
+import sirius.db.util.BaseEntityCache
+import sirius.kernel.SiriusExtension
+import sirius.kernel.di.Injector
+import sirius.kernel.di.std.Part
+import java.time.Duration
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+@ExtendWith(SiriusExtension::class)
+class SQLEntityCacheTest {
+
+    class SharedTestEntityCache : SQLEntityCache<TestEntity>() {
+        override fun getCacheName() = "test-shared-entity-cache"
+
+        override fun getEntityClass() = TestEntity::class.java
+
+        override fun getSharedCacheTTL(): Duration = Duration.ofMinutes(1)
+
+        fun clearLocalCache() {
+            entityByIdCache.clear()
+        }
+    }
+
+    class InvalidatedTestEntityCache : SQLEntityCache<TestEntity>() {
+        override fun getCacheName() = "test-invalidated-entity-cache"
+
+        override fun getEntityClass() = TestEntity::class.java
+
+        override fun isInvalidatedOnWrite() = true
+    }
+
+    @Test
+    fun `entities are served by the shared cache until they are removed`() {
+        val testEntity = TestEntity()
+        testEntity.firstname = "Shared"
+        testEntity.lastname = "Cache"
+        oma.update(testEntity)
+
+        assertEquals("Shared", cache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        // Change the entity behind the back of the cache and only evict the local cache...
+        testEntity.firstname = "Changed"
+        oma.update(testEntity)
+        cache.clearLocalCache()
+        val sharedHits = BaseEntityCache.numSharedCacheHits.count
+
+        assertEquals("Shared", cache.fetchRequiredById(testEntity.idAsString).firstname)
+        assertTrue(BaseEntityCache.numSharedCacheHits.count > sharedHits)
+
+        cache.removeById(testEntity.idAsString)
+        assertEquals("Changed", cache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        oma.delete(testEntity)
+        cache.remove(testEntity)
+    }
+
+    @Test
+    fun `fetchAllById serves hits and loads all misses at once`() {
+        val entities = (1..3).map { index ->
+            val testEntity = TestEntity()
+            testEntity.firstname = "Bulk$index"
+            testEntity.lastname = "Cache"
+            oma.update(testEntity)
+            testEntity
+        }
+        cache.fetchRequiredById(entities[1].idAsString)
+
+        val result = cache.fetchAllById(entities.map { it.idAsString } + listOf("-1", entities[0].idAsString))
+
+        assertEquals(entities.map { it.idAsString }, result.keys.toList())
+        assertEquals(listOf("Bulk1", "Bulk2", "Bulk3"), result.values.map { it.firstname })
+        entities.forEach { testEntity ->
+            oma.delete(testEntity)
+            cache.remove(testEntity)
+        }
+    }
+
+    @Test
+    fun `writes via the mapper or a batch context invalidate registered caches`() {
+        val testEntity = TestEntity()
+        testEntity.firstname = "Invalidated"
+        testEntity.lastname = "Cache"
+        oma.update(testEntity)
+        // The cache is registered once it has been created, even if it hasn't been read yet...
+        assertNotNull(invalidatedCache)
+        assertTrue(BaseEntityCache.isInvalidatedOnWrite(TestEntity::class.java))
+        assertEquals("Invalidated", invalidatedCache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        testEntity.firstname = "Updated"
+        oma.update(testEntity)
+        assertEquals("Updated", invalidatedCache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        BatchContext({ "Test" }, Duration.ofMinutes(2)).use { batchContext ->
+            val update = batchContext.updateByIdQuery(TestEntity::class.java, TestEntity.FIRSTNAME)
+            testEntity.firstname = "Batched"
+            update.update(testEntity, true, false)
+        }
+        assertEquals("Batched", invalidatedCache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        oma.delete(testEntity)
+        assertTrue(invalidatedCache.fetchById(testEntity.idAsString).isEmpty)
+    }
+
+    @Test
+    fun `batch writes which don't filter by id invalidate all entities of the type`() {
+        val testEntity = TestEntity()
+        testEntity.firstname = "Filtered"
+        testEntity.lastname = "InvalidatedCacheFilter"
+        oma.update(testEntity)
+        assertEquals("Filtered", invalidatedCache.fetchRequiredById(testEntity.idAsString).firstname)
+
+        BatchContext({ "Test" }, Duration.ofMinutes(2)).use { batchContext ->
+            val update = batchContext.updateQuery(TestEntity::class.java, TestEntity.LASTNAME)
+                    .withUpdatedMappings(TestEntity.FIRSTNAME)
+            val example = TestEntity()
+            example.firstname = "FilteredUpdated"
+            example.lastname = "InvalidatedCacheFilter"
+            update.update(example, false, false)
+        }
+
+        assertEquals("FilteredUpdated", invalidatedCache.fetchRequiredById(testEntity.idAsString).firstname)
+        oma.delete(testEntity)
+    }
+
+    companion object {
+        @Part
+        private lateinit var oma: OMA
+
+        private val cache: SharedTestEntityCache by lazy {
+            val result = SharedTestEntityCache()
+            Injector.context().wire(result)
+            result
+        }
+
+        private val invalidatedCache: InvalidatedTestEntityCache by lazy {
+            val result = InvalidatedTestEntityCache()
+            Injector.context().wire(result)
+            result
+        }
+    }
+}
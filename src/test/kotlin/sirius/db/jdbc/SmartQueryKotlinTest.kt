@@ -19,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith
 import sirius.db.jdbc.constraints.CompoundValue
 import sirius.db.jdbc.schema.Schema
 import sirius.db.mixing.Mixing
+import sirius.db.mixing.query.BaseQuery
 import sirius.kernel.SiriusExtension
 import sirius.kernel.commons.Strings
 import sirius.kernel.di.std.Part
@@ -57,6 +58,35 @@ class SmartQueryKotlinTest {
         smartQueryTestEntity.copy().distinctFields(SmartQueryTestEntity.TEST_NUMBER).streamBlockwise().count()
     }
 
+    @Test
+    fun `streamBlockwise() with prefetched blocks works`() {
+        val smartQueryTestEntity = oma.select(SmartQueryTestEntity::class.java)
+            .fields(SmartQueryTestEntity.VALUE)
+            .orderAsc(SmartQueryTestEntity.TEST_NUMBER)
+            .prefetchBlocks(2)
+
+        smartQueryTestEntity.copy().streamBlockwise().use { stream ->
+            assertEquals(listOf("Test", "Hello", "World"), stream.map { it.value }.collect(Collectors.toList()))
+        }
+    }
+
+    @Test
+    fun `streamBlockwise() with prefetched blocks crosses block boundaries in order`() {
+        val query = oma.select(SmartQueryTestLargeTableEntity::class.java)
+            .fields(SmartQueryTestLargeTableEntity.TEST_NUMBER)
+            .orderAsc(SmartQueryTestLargeTableEntity.TEST_NUMBER)
+        val expected = query.copy().streamBlockwise().use { stream -> stream.map { it.testNumber }.toList() }
+
+        val prefetched = query.copy().prefetchBlocks(2).streamBlockwise().use { stream ->
+            stream.map { it.testNumber }.toList()
+        }
+
+        assertTrue { prefetched.size > BaseQuery.MAX_LIST_SIZE }
+        assertEquals(query.count().toInt(), prefetched.size)
+        assertEquals(prefetched.sorted(), prefetched)
+        assertEquals(expected, prefetched)
+    }
+
     @Test
     fun `count returns the number of entity`() {
         val smartQueryTestEntity = oma.select(SmartQueryTestEntity::class.java)
@@ -472,6 +502,23 @@ class SmartQueryKotlinTest {
         assertThrows<HandledException> { smartQueryTestCountEntity.count() }
     }
 
+    @Test
+    fun `prefetch resolves references blockwise`() {
+        val result = oma.select(SmartQueryTestChildEntity::class.java)
+            .prefetch(SmartQueryTestChildEntity.PARENT)
+            .orderAsc(SmartQueryTestChildEntity.NAME)
+            .queryList()
+
+        assertTrue(result.all { x -> x.parent.isValueLoaded })
+        assertEquals(listOf("Parent 1", "Parent 2"), result.map { x -> x.parent.fetchCachedValue().name })
+
+        val streamed = oma.select(SmartQueryTestChildEntity::class.java)
+            .prefetch(SmartQueryTestChildEntity.PARENT)
+            .streamBlockwise()
+            .toList()
+        assertTrue(streamed.all { x -> x.parent.isValueLoaded })
+    }
+
     @Test
     fun `fetchCachedValue and forceFetchCachedValue works`() {
         val child = SmartQueryTestChildEntity()
@@ -0,0 +1,46 @@
+/*
+ * Made with all the love in the world
+ * by scireum in Remshalden, Germany
+ *
+ * Copyright by scireum GmbH
+ * http://www.scireum.de - info@scireum.de
+ */
+
+package sirius.db.jdbc.batch
+
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.time.Duration
+import kotlin.test.assertEquals
+
+class AdaptiveBatchLimitTest {
+
+    @Test
+    fun `limit grows for fast flushes and shrinks for slow ones`() {
+        val limit = AdaptiveBatchLimit(Duration.ofMillis(100), 10, 1000, 100)
+
+        assertEquals(150, limit.recordFlush(100, 25))
+        assertEquals(75, limit.recordFlush(150, 500))
+        assertEquals(75, limit.limit)
+    }
+
+    @Test
+    fun `small batches are ignored`() {
+        val limit = AdaptiveBatchLimit(Duration.ofMillis(100), 10, 1000, 150)
+
+        assertEquals(150, limit.recordFlush(10, 1))
+    }
+
+    @Test
+    fun `limit stays within its bounds`() {
+        assertEquals(10, AdaptiveBatchLimit(Duration.ofMillis(100), 10, 1000, 1).limit)
+        assertEquals(120, AdaptiveBatchLimit(Duration.ofMillis(100), 10, 120, 100).recordFlush(100, 0))
+        assertEquals(10, AdaptiveBatchLimit(Duration.ofMillis(100), 10, 1000, 12).recordFlush(12, 1000))
+    }
+
+    @Test
+    fun `invalid bounds are rejected`() {
+        assertThrows<IllegalArgumentException> { AdaptiveBatchLimit(Duration.ofMillis(100), 0, 10, 5) }
+        assertThrows<IllegalArgumentException> { AdaptiveBatchLimit(Duration.ofMillis(100), 20, 10, 5) }
+    }
+}
@@ -9,21 +9,26 @@
 package sirius.db.jdbc.batch
 
 import org.junit.jupiter.api.BeforeAll
+import org.junit.jupiter.api.Assumptions.assumeTrue
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.ExtendWith
 import sirius.db.jdbc.OMA
 import sirius.db.jdbc.SQLEntity
+import sirius.db.jdbc.SQLLockedTestEntity
+import sirius.db.jdbc.SQLUniqueTestEntity
 import sirius.db.jdbc.TestEntity
 import sirius.db.mixing.Mixing
 import sirius.kernel.SiriusExtension
 import sirius.kernel.di.std.Part
 import sirius.kernel.health.HandledException
 import java.time.Duration
+import kotlin.streams.asStream
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotEquals
 import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
 
 @ExtendWith(SiriusExtension::class)
 class BatchContextTest {
@@ -73,6 +78,147 @@ class BatchContextTest {
         batchContext.close()
     }
 
+    @Test
+    fun `multi-row batch insert works`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val insert = batchContext.insertQuery(
+                TestEntity::class.java,
+                TestEntity.FIRSTNAME,
+                TestEntity.LASTNAME,
+                TestEntity.AGE
+        ).withMultiRowInserts(16)
+        val entities = ArrayList<TestEntity>()
+        for (i in 0..36) {
+            val testEntity = TestEntity()
+            testEntity.firstname = "BatchContextInsert$i"
+            testEntity.lastname = "MULTIROWINSERT"
+            insert.insert(testEntity, false, true)
+            entities.add(testEntity)
+        }
+
+        assertEquals(32, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "MULTIROWINSERT").count())
+
+        insert.commit()
+
+        assertEquals(37, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "MULTIROWINSERT").count())
+        for (entity in entities) {
+            assertEquals(entity.firstname, oma.find(TestEntity::class.java, entity.id).get().firstname)
+        }
+
+        batchContext.close()
+    }
+
+    @Test
+    fun `batch insert with an adaptive batch limit works`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val insert = batchContext.insertQuery(
+                TestEntity::class.java,
+                TestEntity.FIRSTNAME,
+                TestEntity.LASTNAME,
+                TestEntity.AGE
+        )
+        insert.withAdaptiveBatchLimit(Duration.ofSeconds(1))
+        for (i in 0..499) {
+            val testEntity = TestEntity()
+            testEntity.firstname = "BatchContextInsert$i"
+            testEntity.lastname = "ADAPTIVEINSERT"
+            insert.insert(testEntity, false, true)
+        }
+        insert.commit()
+
+        assertEquals(500, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "ADAPTIVEINSERT").count())
+        assertTrue(batchContext.toString().contains("|Limit: "))
+
+        batchContext.close()
+    }
+
+    @Test
+    fun `bulk load into mariadb works with or without local infile support`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val loader = batchContext.bulkLoader(TestEntity::class.java, TestEntity.FIRSTNAME, TestEntity.LASTNAME)
+
+        val entities = (0..299).asSequence().map { i ->
+            val testEntity = TestEntity()
+            testEntity.firstname = "Bulk\tLoad$i"
+            testEntity.lastname = "MARIADBBULKLOAD"
+            testEntity
+        }.asStream()
+
+        assertEquals(300, loader.load(entities, false))
+        batchContext.close()
+
+        assertEquals(300, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "MARIADBBULKLOAD").count())
+        assertNotNull(
+                oma.select(TestEntity::class.java)
+                        .eq(TestEntity.LASTNAME, "MARIADBBULKLOAD")
+                        .eq(TestEntity.FIRSTNAME, "Bulk\tLoad42")
+                        .first()
+                        .orElse(null)
+        )
+    }
+
+    @Test
+    fun `bulk load which fails while streaming loads no rows`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val loader = batchContext.bulkLoader(TestEntity::class.java, TestEntity.FIRSTNAME, TestEntity.LASTNAME)
+        // The fallback uses batched inserts, which keep the batches already executed...
+        assumeTrue(loader.isSupported)
+
+        val entities = (0..299).asSequence().map { i ->
+            if (i == 250) {
+                throw IllegalStateException("Stream failed")
+            }
+            val testEntity = TestEntity()
+            testEntity.firstname = "Bulk$i"
+            testEntity.lastname = "FAILINGBULKLOAD"
+            testEntity
+        }.asStream()
+
+        assertThrows<HandledException> { loader.load(entities, false) }
+        batchContext.close()
+
+        assertEquals(0, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "FAILINGBULKLOAD").count())
+    }
+
+    @Test
+    fun `batch insert with background flushes works`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2)).withBackgroundFlushes(2)
+        val find = batchContext.findQuery(TestEntity::class.java, TestEntity.FIRSTNAME)
+        val insert = batchContext.insertQuery(
+                TestEntity::class.java,
+                TestEntity.FIRSTNAME,
+                TestEntity.LASTNAME,
+                TestEntity.AGE
+        )
+        insert.withCustomBatchLimit(10)
+        for (i in 0..99) {
+            val testEntity = TestEntity()
+            testEntity.firstname = "BatchContextBackgroundInsert$i"
+            testEntity.lastname = "BACKGROUNDINSERT"
+            insert.insert(testEntity, false, true)
+        }
+
+        insert.commit()
+
+        assertEquals(100, oma.select(TestEntity::class.java).eq(TestEntity.LASTNAME, "BACKGROUNDINSERT").count())
+        val example = TestEntity()
+        example.firstname = "BatchContextBackgroundInsert42"
+        assertTrue(find.find(example).isPresent)
+
+        batchContext.close()
+    }
+
+    @Test
+    fun `errors of background flushes are reported`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2)).withBackgroundFlushes(1)
+        val insert = batchContext.customQuery(TestEntity::class.java, false, "INSERT INTO unknown_table VALUES(?)")
+        insert.setParameter(1, "test")
+        insert.executeBatchUpdate()
+
+        assertThrows<HandledException> { insert.commit() }
+        assertThrows<HandledException> { batchContext.close() }
+    }
+
     @Test
     fun `update works`() {
         val testEntity = TestEntity()
@@ -164,6 +310,69 @@ class BatchContextTest {
         oma.delete(testEntity)
     }
 
+    @Test
+    fun `batch upsert inserts new and ignores existing rows`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val upsert = batchContext.upsertQuery(SQLUniqueTestEntity::class.java, listOf(SQLUniqueTestEntity.VALUE))
+        for (i in 0..9) {
+            val uniqueTestEntity = SQLUniqueTestEntity()
+            uniqueTestEntity.value = "BatchContextUpsert${i % 5}"
+            upsert.upsert(uniqueTestEntity, true, true)
+        }
+        upsert.commit()
+
+        for (i in 0..4) {
+            assertEquals(
+                    1,
+                    oma.select(SQLUniqueTestEntity::class.java)
+                            .eq(SQLUniqueTestEntity.VALUE, "BatchContextUpsert$i")
+                            .count()
+            )
+        }
+
+        batchContext.close()
+    }
+
+    @Test
+    fun `upsert updates existing versioned rows`() {
+        val lockedTestEntity = SQLLockedTestEntity()
+        lockedTestEntity.value = "Upsert"
+        oma.update(lockedTestEntity)
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val upsert = batchContext.upsertQuery(
+                SQLLockedTestEntity::class.java,
+                listOf(SQLEntity.ID),
+                SQLLockedTestEntity.VALUE
+        )
+
+        lockedTestEntity.value = "Upserted"
+        upsert.upsert(lockedTestEntity, true, false)
+
+        val readBack = oma.refreshOrFail(lockedTestEntity)
+        assertEquals("Upserted", readBack.value)
+        assertEquals(lockedTestEntity.version + 1, readBack.version)
+
+        batchContext.close()
+        oma.delete(readBack)
+    }
+
+    @Test
+    fun `upsert on the id rejects new entities`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val upsert = batchContext.upsertQuery(
+                SQLLockedTestEntity::class.java,
+                listOf(SQLEntity.ID),
+                SQLLockedTestEntity.VALUE
+        )
+
+        val lockedTestEntity = SQLLockedTestEntity()
+        lockedTestEntity.value = "UpsertNew"
+        assertThrows<HandledException> { upsert.upsert(lockedTestEntity, true, false) }
+        assertEquals(0, oma.select(SQLLockedTestEntity::class.java).eq(SQLLockedTestEntity.VALUE, "UpsertNew").count())
+
+        batchContext.close()
+    }
+
     @Test
     fun `find works`() {
         val testEntity = TestEntity()
@@ -189,6 +398,35 @@ class BatchContextTest {
         oma.delete(found)
     }
 
+    @Test
+    fun `find all resolves many examples at once`() {
+        val entities = (0..39).map { i ->
+            val testEntity = TestEntity()
+            testEntity.firstname = "BatchContextFindAll$i"
+            testEntity.lastname = "FINDALL"
+            oma.update(testEntity)
+            testEntity
+        }
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val find = batchContext.findQuery(TestEntity::class.java, TestEntity.FIRSTNAME, TestEntity.LASTNAME)
+                .withMaxKeysPerStatement(16)
+        val examples = (0..49).map { i ->
+            val example = TestEntity()
+            example.firstname = "BatchContextFindAll$i"
+            example.lastname = "FINDALL"
+            example
+        }
+
+        val found = find.findAll(examples)
+
+        assertEquals(40, found.size)
+        assertEquals(entities[7], found[listOf("BatchContextFindAll7", "FINDALL")])
+        assertFalse { found.containsKey(listOf("BatchContextFindAll42", "FINDALL")) }
+
+        batchContext.close()
+        entities.forEach { oma.delete(it) }
+    }
+
     @Test
     fun `delete works`() {
         val testEntity = TestEntity()
@@ -20,6 +20,7 @@ import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.temporal.ChronoField
+import kotlin.streams.asStream
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNull
@@ -97,6 +98,42 @@ class ClickhouseTest {
         batchContext.close()
     }
 
+    @Test
+    fun `bulk load into clickhouse works`() {
+        val batchContext = BatchContext({ "Test" }, Duration.ofMinutes(2))
+        val loader = batchContext.bulkLoader(ClickhouseTestEntity::class.java)
+        assertTrue { loader.isSupported }
+
+        val entities = (0..249).asSequence().map { i ->
+            val clickhouseTestEntity = ClickhouseTestEntity()
+            clickhouseTestEntity.instant = Instant.now()
+            clickhouseTestEntity.date = LocalDate.now()
+            clickhouseTestEntity.dateTime = LocalDateTime.now()
+            clickhouseTestEntity.int8 = i % 100
+            clickhouseTestEntity.int16 = i
+            clickhouseTestEntity.int32 = i
+            clickhouseTestEntity.int64 = i.toLong()
+            clickhouseTestEntity.string = "Tab\tand\nnewline"
+            clickhouseTestEntity.fixedString = "L"
+            clickhouseTestEntity.int8WithDefault = 0
+            clickhouseTestEntity.stringList.add("it's").add("list")
+            clickhouseTestEntity.enumValue = ClickhouseTestEntity.TestEnum.Test1
+            clickhouseTestEntity
+        }.asStream()
+
+        assertEquals(250, loader.load(entities, true))
+        batchContext.close()
+
+        assertEquals(
+            250,
+            oma.select(ClickhouseTestEntity::class.java).eq(ClickhouseTestEntity.FIXED_STRING, "L").count()
+        )
+        val readBack =
+            oma.select(ClickhouseTestEntity::class.java).eq(ClickhouseTestEntity.FIXED_STRING, "L").queryFirst()
+        assertEquals("Tab\tand\nnewline", readBack.string)
+        assertEquals(listOf("it's", "list"), readBack.stringList.data())
+    }
+
     @Test
     fun `property with default-value is set to default when null in object`() {
         val clickhouseTestEntity = ClickhouseTestEntity()
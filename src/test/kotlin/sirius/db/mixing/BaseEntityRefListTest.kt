@@ -15,6 +15,7 @@ import sirius.db.mongo.Mango
 import sirius.kernel.SiriusExtension
 import sirius.kernel.di.std.Part
 import java.time.Duration
+import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 
 @ExtendWith(SiriusExtension::class)
@@ -48,6 +49,33 @@ class BaseEntityRefListTest {
         assertFalse { resolved.ref.contains(refElasticEntity.id) }
     }
 
+    @Test
+    fun `fetchValues resolves all references at once`() {
+        val first = RefListMongoEntity()
+        mango.update(first)
+        val second = RefListMongoEntity()
+        mango.update(second)
+        val refElasticEntity = RefListElasticEntity()
+        refElasticEntity.ref.add(second.id)
+        refElasticEntity.ref.add("unknown")
+        refElasticEntity.ref.add(first.id)
+
+        assertEquals(listOf(second.id, first.id), refElasticEntity.ref.fetchValues().map { it.id })
+    }
+
+    @Test
+    fun `fetchValues resolves elastic references using mget`() {
+        val first = RefListElasticEntity()
+        elastic.update(first)
+        val second = RefListElasticEntity()
+        elastic.update(second)
+        val refMongoEntity = RefListMongoEntity()
+        refMongoEntity.ref.add(first.id)
+        refMongoEntity.ref.add(second.id)
+
+        assertEquals(listOf(first.id, second.id), refMongoEntity.ref.fetchValues().map { it.id })
+    }
+
     companion object {
         @Part
         private lateinit var elastic: Elastic
@@ -153,6 +153,51 @@ class FieldLookupCacheTest {
         assertEquals("Man", heroLastName.asString())
     }
 
+    @Test
+    fun `jdbc lookupAll resolves many entities and caches missing ones`() {
+        val peter = SQLFieldLookUpTestEntity()
+        peter.names.firstname = "Peter"
+        peter.names.lastname = "Parker"
+        oma.update(peter)
+        val gwen = SQLFieldLookUpTestEntity()
+        gwen.names.firstname = "Gwen"
+        gwen.names.lastname = "Stacy"
+        oma.update(gwen)
+        val firstname = SQLFieldLookUpTestEntity.NAMES.inner(NameFieldsTestComposite.FIRSTNAME)
+
+        val names = lookupCache.lookupAll(
+                SQLFieldLookUpTestEntity::class.java,
+                listOf(gwen.id, "", -1L, peter.idAsString, gwen.id),
+                firstname
+        )
+
+        assertEquals(listOf(gwen.idAsString, "-1", peter.idAsString), names.keys.toList())
+        assertEquals(listOf("Gwen", "", "Peter"), names.values.map { it.asString() })
+        assertEquals("Peter", lookupCache.lookup(SQLFieldLookUpTestEntity::class.java, peter.id, firstname).asString())
+        assertTrue { lookupCache.lookup(SQLFieldLookUpTestEntity::class.java, "-1", firstname).isNull }
+    }
+
+    @Test
+    fun `mongo lookupAll resolves many entities`() {
+        val bruce = MongoFieldLookUpTestEntity()
+        bruce.names.firstname = "Bruce"
+        bruce.names.lastname = "Banner"
+        mango.update(bruce)
+        val natasha = MongoFieldLookUpTestEntity()
+        natasha.names.firstname = "Natasha"
+        natasha.names.lastname = "Romanoff"
+        mango.update(natasha)
+
+        val names = lookupCache.lookupAll(
+                MongoFieldLookUpTestEntity::class.java,
+                listOf(natasha.id, "unknown", bruce.id),
+                MongoFieldLookUpTestEntity.NAMES.inner(NameFieldsTestComposite.LASTNAME)
+        )
+
+        assertEquals(listOf(natasha.id, "unknown", bruce.id), names.keys.toList())
+        assertEquals(listOf("Romanoff", "", "Banner"), names.values.map { it.asString() })
+    }
+
     companion object {
         @Part
         private lateinit var oma: OMA
@@ -189,6 +189,29 @@ class MangoTest {
         }
     }
 
+    @Test
+    fun `MongoQuery streamBlockwise() works with a single prefetching cursor`() {
+        mango.select(
+                MangoListTestEntity::class.java
+        ).delete()
+
+        for (i in 0..24) {
+            val entityToCreate = MangoListTestEntity()
+            entityToCreate.counter = i
+            mango.update(entityToCreate)
+        }
+
+        val counters = mango.select(MangoListTestEntity::class.java)
+                .orderAsc(MangoListTestEntity.COUNTER)
+                .batchSize(10)
+                .singleCursor()
+                .prefetchBlocks(1)
+                .streamBlockwise()
+                .map { it.counter }
+                .toList()
+        assertEquals((0..24).toList(), counters)
+    }
+
     @Test
     fun `wasCreated() works in mango`() {
         val testEntity = MangoWasCreatedTestEntity()
@@ -9,6 +9,7 @@
 package sirius.db.mongo.properties
 
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.ExtendWith
 import sirius.db.mongo.Mango
 import sirius.db.mongo.Mongo
@@ -59,6 +60,30 @@ class MongoStringListPropertyTest {
         assertTrue { resolved.list.contains("c") }
     }
 
+    @Test
+    fun `change tracking detects modifications of shared lists`() {
+        val test = MongoStringListEntity()
+        test.list.add("Test").add("Hello")
+        mango.update(test)
+        val resolved = mango.refreshOrFail(test)
+        val property = resolved.descriptor.getProperty(MongoStringListEntity.LIST)
+
+        assertFalse { resolved.isChanged(MongoStringListEntity.LIST) }
+
+        resolved.list.add("World")
+
+        assertTrue { resolved.isChanged(MongoStringListEntity.LIST) }
+        assertEquals(listOf("Test", "Hello"), resolved.getPersistedValue(property))
+        assertThrows<UnsupportedOperationException> {
+            (resolved.getPersistedValue(property) as MutableList<Any?>).add("Other")
+        }
+
+        mango.update(resolved)
+
+        assertFalse { resolved.isChanged(MongoStringListEntity.LIST) }
+        assertEquals(listOf("Test", "Hello", "World"), resolved.getPersistedValue(property))
+    }
+
     companion object {
         @Part
         private lateinit var mango: Mango
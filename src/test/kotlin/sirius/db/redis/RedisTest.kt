@@ -39,4 +39,22 @@ class RedisTest {
 
         assertEquals(redis.query({ -> "Getting a test value" }, { db -> db.get("TEST") }), testString)
     }
+
+    @Test
+    fun `client-side cache serves opted in reads until a key is modified`() {
+        val cached = redis.getPool("cached")
+        val testString = System.currentTimeMillis().toString()
+        redis.exec({ -> "Setting a test value" }, { db -> db.set("TEST_CACHED", testString) })
+
+        assertEquals(testString, cached.queryCached({ -> "Getting a cached value" }, { db -> db.get("TEST_CACHED") }))
+        val hits = cached.clientSideCacheStats!!.hitCount
+        assertEquals(testString, cached.queryCached({ -> "Getting a cached value" }, { db -> db.get("TEST_CACHED") }))
+        assertEquals(hits + 1, cached.clientSideCacheStats!!.hitCount)
+
+        cached.query({ -> "Getting an uncached value" }, { db -> db.get("TEST_CACHED") })
+        assertEquals(hits + 1, cached.clientSideCacheStats!!.hitCount)
+
+        redis.exec({ -> "Changing the test value" }, { db -> db.set("TEST_CACHED", "changed") })
+        assertEquals("changed", cached.queryCached({ -> "Getting a cached value" }, { db -> db.get("TEST_CACHED") }))
+    }
 }